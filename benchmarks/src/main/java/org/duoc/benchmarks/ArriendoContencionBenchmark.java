@@ -0,0 +1,51 @@
+package org.duoc.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark de contención del arriendo con compare-and-set: muchos hilos arriendan y devuelven
+ * vehículos de un conjunto pequeño. Con {@code vehiculos=1} todos compiten por el mismo auto.
+ * Ejecutar con varios hilos, por ejemplo {@code -t 16}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArriendoContencionBenchmark {
+
+    @Param({"1", "16", "1024"})
+    public int vehiculos;
+
+    private VehiculoService service;
+    private String[] patentes;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        patentes = new String[vehiculos];
+        int i = 0;
+        for (Vehiculo v : GeneradorFlota.generarVehiculos(vehiculos, 7L)) {
+            v.setDiasArriendo(0);
+            service.addVehiculo(v);
+            patentes[i++] = v.getPatente();
+        }
+    }
+
+    @Benchmark
+    public ResultadoArriendo arrendarYDevolver() {
+        String patente = patentes[ThreadLocalRandom.current().nextInt(patentes.length)];
+        ResultadoArriendo resultado = service.arrendarVehiculo(patente, 3);
+        if (resultado == ResultadoArriendo.EXITO) {
+            service.actualizarDiasArriendo(service.buscarVehiculo(patente), 0);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,88 @@
+package org.duoc.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.duoc.interfaces.IBoleta;
+import org.duoc.models.*;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks del cálculo de boletas: por vehículo y para toda la flota, con la boleta memorizada de cada
+ * vehículo frente a recalcularla siempre. Al terminar cada prueba muestra la tasa de aciertos de la memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BoletaBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int tamano;
+
+    private VehiculoService service;
+    private final VehiculoPasajeros pasajeros = new VehiculoPasajeros("ABC123", "Toyota", "Corolla", 10, 20000, 4, 2020, 5);
+    private final VehiculoCarga carga = new VehiculoCarga("DEF456", "Hyundai", "Porter", 7, 35000, 2, 2019, 1500);
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        for (Vehiculo v : GeneradorFlota.generarVehiculos(tamano, 42L)) {
+            service.addVehiculo(v);
+        }
+    }
+
+    @Benchmark
+    public Boleta boletaPasajeros() {
+        return pasajeros.calcularBoleta();
+    }
+
+    @Benchmark
+    public Boleta boletaCarga() {
+        return carga.calcularBoleta();
+    }
+
+    @Benchmark
+    public Boleta boletaPasajerosSinMemoria() {
+        return Boleta.calcular(Boleta.TIPO_PASAJEROS, pasajeros.getPatente(), pasajeros.getDiasArriendo(),
+                pasajeros.getValorDiario(), IBoleta.dctoPasajeros, IBoleta.iva);
+    }
+
+    @Benchmark
+    public List<Boleta> calcularBoletasEmitidasSinMemoria() {
+        return service.getVehiculosMap().values().parallelStream()
+                .filter(v -> v.getDiasArriendo() > 0)
+                .map(v -> Boleta.calcular(v instanceof VehiculoPasajeros ? Boleta.TIPO_PASAJEROS : Boleta.TIPO_CARGA,
+                        v.getPatente(), v.getDiasArriendo(), v.getValorDiario(),
+                        v instanceof VehiculoPasajeros ? IBoleta.dctoPasajeros : IBoleta.dctoCarga, IBoleta.iva))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Boleta> calcularBoletasEmitidas() {
+        return service.calcularBoletasEmitidas();
+    }
+
+    @Benchmark
+    public Map<String, ResumenBoletas> totalesBoletasPorTipo() {
+        return service.totalesBoletasPorTipo();
+    }
+
+    @Benchmark
+    public ResumenBoletas resumenIncrementalPasajeros() {
+        return service.getAnalitica().porTipo(Boleta.TIPO_PASAJEROS).getResumenBoletas();
+    }
+
+    @TearDown(Level.Trial)
+    public void mostrarTasaAciertos() {
+        System.out.printf("%nBoletas memorizadas: %d aciertos, %d fallos, %d invalidaciones (tasa %.4f)%n",
+                CacheBoletas.getAciertos(), CacheBoletas.getFallos(), CacheBoletas.getInvalidaciones(),
+                CacheBoletas.getTasaAciertos());
+        CacheBoletas.reiniciar();
+    }
+}
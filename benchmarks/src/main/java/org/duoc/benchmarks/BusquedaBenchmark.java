@@ -0,0 +1,83 @@
+package org.duoc.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks de la búsqueda por marca y modelo: sugerencias y búsquedas por prefijo o con errores de tipeo
+ * sobre el índice del servicio, frente a recorrer la flota comparando cada marca y modelo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BusquedaBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamano;
+
+    private VehiculoService service;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        GeneradorFlota.generarVehiculos(tamano, 42L, service::addVehiculo);
+        if (service.buscarPorMarcaModelo("corrola", 10).isEmpty() || !service.sugerirMarcaModelo("chev", 10).contains("Chevrolet")) {
+            throw new IllegalStateException("el índice de búsqueda no encontró marcas o modelos conocidos");
+        }
+    }
+
+    @Benchmark
+    public List<String> sugerirPrefijo() {
+        return service.sugerirMarcaModelo("chev", 10);
+    }
+
+    @Benchmark
+    public List<String> sugerirConError() {
+        return service.sugerirMarcaModelo("sprintr", 10);
+    }
+
+    @Benchmark
+    public List<Vehiculo> buscarPrefijo() {
+        return service.buscarPorMarcaModelo("corol", 50);
+    }
+
+    @Benchmark
+    public List<Vehiculo> buscarConError() {
+        return service.buscarPorMarcaModelo("corrola", 50);
+    }
+
+    @Benchmark
+    public List<Vehiculo> recorrerFlota() {
+        List<Vehiculo> encontrados = new ArrayList<>();
+        for (Vehiculo v : service.getVehiculosMap().values()) {
+            if (v.getMarca().toLowerCase(Locale.ROOT).startsWith("corol") || v.getModelo().toLowerCase(Locale.ROOT).startsWith("corol")) {
+                encontrados.add(v);
+                if (encontrados.size() == 50) {
+                    break;
+                }
+            }
+        }
+        return encontrados;
+    }
+
+    @Benchmark
+    public List<String> recorrerFlotaMarcas() {
+        List<String> marcas = new ArrayList<>();
+        for (Vehiculo v : service.getVehiculosMap().values()) {
+            String marca = v.getMarca();
+            if (marca.toLowerCase(Locale.ROOT).startsWith("chev") && !marcas.contains(marca)) {
+                marcas.add(marca);
+            }
+        }
+        return marcas;
+    }
+}
@@ -0,0 +1,108 @@
+package org.duoc.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.*;
+import org.duoc.services.AlmacenColumnar;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Recorridos analíticos sobre el almacén columnar comparados con recorrer los objetos del mapa de vehículos.
+ * Los métodos del servicio se miden con el almacén habilitado, es decir, resueltos sobre sus columnas;
+ * {@link BoletaBenchmark} y {@link VehiculoServiceBenchmark} miden los mismos métodos sin él.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ColumnarBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int tamano;
+
+    private VehiculoService service;
+    private AlmacenColumnar almacen;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        for (Vehiculo v : GeneradorFlota.generarVehiculos(tamano, 42L)) {
+            service.addVehiculo(v);
+        }
+        almacen = service.habilitarAlmacenColumnar();
+    }
+
+    @Benchmark
+    public long sumarSubtotalesMapa() {
+        long suma = 0;
+        for (Vehiculo v : service.getVehiculosMap().values()) {
+            suma += (long) v.getDiasArriendo() * v.getValorDiario();
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long sumarSubtotalesColumnar() {
+        return almacen.sumarSubtotales();
+    }
+
+    @Benchmark
+    public long sumarSubtotalesPasajerosMapa() {
+        long suma = 0;
+        for (Vehiculo v : service.getVehiculosMap().values()) {
+            if (v instanceof VehiculoPasajeros) {
+                suma += (long) v.getDiasArriendo() * v.getValorDiario();
+            }
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long sumarSubtotalesPasajerosColumnar() {
+        return almacen.sumarSubtotales(AlmacenColumnar.TIPO_PASAJEROS);
+    }
+
+    @Benchmark
+    public long contarArriendosLargosMapa() {
+        return service.getVehiculosMap().values().stream()
+                .filter(v -> v.getDiasArriendo() >= VehiculoService.DIAS_ARRIENDO_LARGO)
+                .count();
+    }
+
+    @Benchmark
+    public int contarArriendosLargosColumnar() {
+        return almacen.contarPorDias(VehiculoService.DIAS_ARRIENDO_LARGO, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Vehiculo> filtrarPorDiasMapa() {
+        return service.getVehiculosMap().values().stream()
+                .filter(v -> v.getDiasArriendo() >= 3 && v.getDiasArriendo() <= 5)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Vehiculo> filtrarPorDiasColumnar() {
+        return almacen.filtrarPorDias(3, 5);
+    }
+
+    @Benchmark
+    public double promedioAnioColumnar() {
+        return almacen.promedioAnio();
+    }
+
+    @Benchmark
+    public Map<String, ResumenBoletas> totalesBoletasPorTipoServicio() {
+        return service.totalesBoletasPorTipo();
+    }
+
+    @Benchmark
+    public List<Vehiculo> filtrarArriendosLargosServicio() {
+        return service.filtrarArriendosLargos();
+    }
+}
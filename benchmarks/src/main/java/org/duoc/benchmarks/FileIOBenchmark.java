@@ -0,0 +1,83 @@
+package org.duoc.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.Vehiculo;
+import org.duoc.utils.FileIOUtil;
+import org.duoc.utils.SnapshotBinario;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks de carga y guardado de la flota: CSV con BufferedReader, CSV mapeado en memoria,
+ * CSV en paralelo con fork/join y snapshot binario.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class FileIOBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamano;
+
+    private Path directorio;
+    private String csv;
+    private String binario;
+    private List<Vehiculo> flota;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("drivequest-bench");
+        csv = directorio.resolve("vehiculos.csv").toString();
+        binario = directorio.resolve("vehiculos" + SnapshotBinario.EXTENSION).toString();
+        GeneradorFlota.generarCSV(Path.of(csv), tamano, 42L);
+        flota = FileIOUtil.cargarVehiculosCSVParalelo(csv);
+        SnapshotBinario.escribir(flota, binario);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        try (var archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.toList()) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(directorio);
+    }
+
+    @Benchmark
+    public List<Vehiculo> cargarCSV() {
+        return FileIOUtil.cargarVehiculosCSV(csv);
+    }
+
+    @Benchmark
+    public List<Vehiculo> cargarCSVMapeado() {
+        return FileIOUtil.cargarVehiculosCSVMapeado(csv);
+    }
+
+    @Benchmark
+    public List<Vehiculo> cargarCSVParalelo() {
+        return FileIOUtil.cargarVehiculosCSVParalelo(csv);
+    }
+
+    @Benchmark
+    public List<Vehiculo> cargarBinario() {
+        return FileIOUtil.cargarVehiculosBinario(binario);
+    }
+
+    @Benchmark
+    public void guardarCSV() {
+        FileIOUtil.guardarVehiculosCSV(flota, directorio.resolve("salida.csv").toString());
+    }
+
+    @Benchmark
+    public void guardarBinario() {
+        FileIOUtil.guardarVehiculosBinario(flota, directorio.resolve("salida" + SnapshotBinario.EXTENSION).toString());
+    }
+}
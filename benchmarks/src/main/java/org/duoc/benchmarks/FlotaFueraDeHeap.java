@@ -0,0 +1,413 @@
+package org.duoc.benchmarks;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.duoc.interfaces.IBoleta;
+import org.duoc.models.*;
+import org.duoc.services.VehiculoService;
+
+/**
+ * Almacenamiento de la flota fuera del heap, pensado para flotas de varios millones de vehículos.
+ * Cada vehículo ocupa un registro de ancho fijo ({@value #BYTES_REGISTRO} bytes) en segmentos de memoria
+ * directa, y la búsqueda por patente usa una tabla hash de direccionamiento abierto también fuera del heap.
+ * Marcas y modelos, que se repiten mucho, se guardan una sola vez en una tabla de cadenas en el heap.
+ * Así el recolector de basura solo ve unos pocos objetos grandes, sin importar el tamaño de la flota.
+ *
+ * Es un prototipo de medición, no un modo de almacenamiento de la aplicación: {@link VehiculoService} mantiene
+ * índices secundarios (orden por patente, tipo, disponibilidad, rangos, búsqueda por texto) que guardan una
+ * referencia por vehículo, así que montarlo sobre este almacén volvería a llenar el heap con un objeto por vehículo.
+ * Solo permite buscar por patente, arrendar, devolver y recorrer por días de arriendo, lo que basta para comparar
+ * el costo del recolector con la flota en el heap ({@link PruebaGCFueraDeHeap}).
+ *
+ * Cada vehículo se expone como un {@link Registro}: una vista de solo lectura que lee directamente la memoria
+ * directa y solo permite cambiar los días de arriendo. La patente es la clave del registro, por lo que la vista
+ * no ofrece cómo cambiarla; {@link Registro#aVehiculo()} entrega una copia en el heap para usarla con el resto
+ * del modelo. Los días de arriendo se cambian con compare-and-set sobre la memoria directa, con la misma semántica
+ * de {@link VehiculoService#arrendarVehiculo(String, int)}. Las patentes se guardan normalizadas.
+ *
+ * Registro: tipo (1), largo de la patente (1), relleno (2), días de arriendo, valor diario, puertas, año,
+ * capacidad, índice de marca, índice de modelo (4 cada uno) y la patente en UTF-8 (hasta {@value #LARGO_MAXIMO_PATENTE}).
+ *
+ * @author Karla Santibáñez
+ */
+public class FlotaFueraDeHeap {
+    /** Largo máximo de una patente, en bytes UTF-8. */
+    public static final int LARGO_MAXIMO_PATENTE = 32;
+
+    private static final int BYTES_REGISTRO = 64;
+    private static final int BITS_SEGMENTO = 16;
+    private static final int REGISTROS_POR_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = REGISTROS_POR_SEGMENTO - 1;
+    private static final int CAPACIDAD_INICIAL_INDICE = 1024;
+    private static final int CAPACIDAD_MAXIMA_INDICE = 1 << 28;
+
+    // Desplazamientos de los campos dentro del registro
+    private static final int TIPO = 0;
+    private static final int LARGO_PATENTE = 1;
+    private static final int DIAS_ARRIENDO = 4;
+    private static final int VALOR_DIARIO = 8;
+    private static final int PUERTAS = 12;
+    private static final int ANIO = 16;
+    private static final int CAPACIDAD = 20;
+    private static final int MARCA = 24;
+    private static final int MODELO = 28;
+    private static final int PATENTE = 32;
+
+    private static final byte TIPO_PASAJEROS = 1;
+    private static final byte TIPO_CARGA = 2;
+
+    /** Acceso atómico a enteros en memoria directa, en el orden de bytes nativo. */
+    private static final VarHandle ENTERO = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    /** Tabla del índice: cada entrada es el slot + 1, o 0 si está libre. */
+    private record Indice(ByteBuffer tabla, int mascara) {}
+
+    private volatile ByteBuffer[] segmentos = new ByteBuffer[0];
+    private volatile Indice indice = nuevoIndice(CAPACIDAD_INICIAL_INDICE);
+    private volatile int cantidad;
+
+    // Tabla de cadenas; solo se modifica con el monitor de la instancia
+    private final Map<String, Integer> idsCadenas = new HashMap<>();
+    private volatile String[] cadenas = new String[64];
+
+    /**
+     * Cantidad de vehículos almacenados.
+     * @return Número de registros ocupados.
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Memoria directa reservada por los segmentos y el índice.
+     * @return Bytes fuera del heap.
+     */
+    public long bytesFueraDeHeap() {
+        return (long) segmentos.length * REGISTROS_POR_SEGMENTO * BYTES_REGISTRO + indice.tabla().capacity();
+    }
+
+    /**
+     * Agrega un vehículo copiando sus datos a un registro nuevo, validando la unicidad de la patente.
+     * @param vehiculo Vehículo a agregar.
+     * @return true si se agregó, false si la patente existe o los datos son inválidos.
+     */
+    public synchronized boolean agregar(Vehiculo vehiculo) {
+        if (vehiculo == null) {
+            System.out.println("Error: El vehículo no puede ser nulo");
+            return false;
+        }
+        if (vehiculo.getPatente() == null || vehiculo.getPatente().isBlank()) {
+            System.out.println("Error: La patente no puede estar vacía");
+            return false;
+        }
+        byte[] clave = VehiculoService.normalizarPatente(vehiculo.getPatente()).getBytes(StandardCharsets.UTF_8);
+        if (clave.length > LARGO_MAXIMO_PATENTE) {
+            System.out.println("Error: La patente " + vehiculo.getPatente() + " supera los " + LARGO_MAXIMO_PATENTE + " bytes");
+            return false;
+        }
+        int hash = hash(clave, 0, clave.length);
+        if (buscarSlot(clave, hash) >= 0) {
+            System.out.println("Error: Ya existe un vehículo con la patente " + vehiculo.getPatente());
+            return false;
+        }
+        int slot = cantidad;
+        ByteBuffer[] s = segmentos;
+        if ((slot >>> BITS_SEGMENTO) == s.length) {
+            ByteBuffer[] nuevos = new ByteBuffer[s.length + 1];
+            System.arraycopy(s, 0, nuevos, 0, s.length);
+            nuevos[s.length] = ByteBuffer.allocateDirect(REGISTROS_POR_SEGMENTO * BYTES_REGISTRO).order(ByteOrder.nativeOrder());
+            s = nuevos;
+            segmentos = s;
+        }
+        ByteBuffer segmento = s[slot >>> BITS_SEGMENTO];
+        int base = (slot & MASCARA_SEGMENTO) * BYTES_REGISTRO;
+        int capacidad = 0;
+        byte tipo = TIPO_CARGA;
+        if (vehiculo instanceof VehiculoPasajeros vp) {
+            tipo = TIPO_PASAJEROS;
+            capacidad = vp.getCapacidadPasajeros();
+        } else if (vehiculo instanceof VehiculoCarga vc) {
+            capacidad = vc.getCapacidadCarga();
+        }
+        segmento.put(base + TIPO, tipo);
+        segmento.put(base + LARGO_PATENTE, (byte) clave.length);
+        segmento.putInt(base + DIAS_ARRIENDO, vehiculo.getDiasArriendo());
+        segmento.putInt(base + VALOR_DIARIO, vehiculo.getValorDiario());
+        segmento.putInt(base + PUERTAS, vehiculo.getPuertas());
+        segmento.putInt(base + ANIO, vehiculo.getAnio());
+        segmento.putInt(base + CAPACIDAD, capacidad);
+        segmento.putInt(base + MARCA, internar(vehiculo.getMarca()));
+        segmento.putInt(base + MODELO, internar(vehiculo.getModelo()));
+        segmento.put(base + PATENTE, clave);
+
+        if ((long) (slot + 1) * 2 > indice.tabla().capacity() / Integer.BYTES) {
+            redimensionarIndice();
+        }
+        insertarEnIndice(indice, slot, hash);
+        cantidad = slot + 1;
+        return true;
+    }
+
+    /**
+     * Busca un vehículo por patente, sin distinguir mayúsculas de minúsculas.
+     * @param patente Patente a buscar.
+     * @return Vista del vehículo, o null si no existe.
+     */
+    public Registro buscar(String patente) {
+        if (patente == null) {
+            return null;
+        }
+        byte[] clave = VehiculoService.normalizarPatente(patente).getBytes(StandardCharsets.UTF_8);
+        int slot = buscarSlot(clave, hash(clave, 0, clave.length));
+        return slot < 0 ? null : vista(slot);
+    }
+
+    /**
+     * Arrienda un vehículo disponible de forma atómica, pasando de 0 días a los indicados con compare-and-set.
+     * @param patente Patente del vehículo a arrendar.
+     * @param diasArriendo Días de arriendo solicitados (mayor a cero).
+     * @return Resultado del arriendo.
+     */
+    public ResultadoArriendo arrendar(String patente, int diasArriendo) {
+        if (diasArriendo <= 0) {
+            return ResultadoArriendo.DIAS_INVALIDOS;
+        }
+        Registro registro = buscar(patente);
+        if (registro == null) {
+            return ResultadoArriendo.NO_ENCONTRADO;
+        }
+        return registro.compareAndSetDiasArriendo(0, diasArriendo) ? ResultadoArriendo.EXITO : ResultadoArriendo.CONFLICTO;
+    }
+
+    /**
+     * Devuelve un vehículo, dejándolo disponible.
+     * @param patente Patente del vehículo.
+     * @return true si el vehículo existe.
+     */
+    public boolean devolver(String patente) {
+        Registro registro = buscar(patente);
+        if (registro == null) {
+            return false;
+        }
+        registro.setDiasArriendo(0);
+        return true;
+    }
+
+    /**
+     * Cuenta los vehículos cuyos días de arriendo están en el rango indicado, recorriendo los registros.
+     * @param minimo Días mínimos (inclusive).
+     * @param maximo Días máximos (inclusive).
+     * @return Cantidad de vehículos en el rango.
+     */
+    public int contarPorDias(int minimo, int maximo) {
+        int total = cantidad;
+        ByteBuffer[] s = segmentos;
+        int contador = 0;
+        for (int slot = 0; slot < total; slot++) {
+            int dias = s[slot >>> BITS_SEGMENTO].getInt((slot & MASCARA_SEGMENTO) * BYTES_REGISTRO + DIAS_ARRIENDO);
+            contador += (dias >= minimo & dias <= maximo) ? 1 : 0;
+        }
+        return contador;
+    }
+
+    /**
+     * Recorre la flota en orden de inserción, entregando una vista nueva por vehículo.
+     * @return Iterable de vistas, débilmente consistente con las altas concurrentes.
+     */
+    public Iterable<Registro> vehiculos() {
+        return () -> new Iterator<>() {
+            private final int total = cantidad;
+            private int slot;
+
+            @Override
+            public boolean hasNext() {
+                return slot < total;
+            }
+
+            @Override
+            public Registro next() {
+                if (slot >= total) {
+                    throw new NoSuchElementException();
+                }
+                return vista(slot++);
+            }
+        };
+    }
+
+    private Registro vista(int slot) {
+        return new Registro(this, segmentos[slot >>> BITS_SEGMENTO], (slot & MASCARA_SEGMENTO) * BYTES_REGISTRO);
+    }
+
+    private int buscarSlot(byte[] clave, int hash) {
+        Indice ind = indice;
+        for (int i = hash & ind.mascara(); ; i = (i + 1) & ind.mascara()) {
+            int entrada = (int) ENTERO.getAcquire(ind.tabla(), i * Integer.BYTES);
+            if (entrada == 0) {
+                return -1;
+            }
+            if (patenteIgual(entrada - 1, clave)) {
+                return entrada - 1;
+            }
+        }
+    }
+
+    private boolean patenteIgual(int slot, byte[] clave) {
+        ByteBuffer segmento = segmentos[slot >>> BITS_SEGMENTO];
+        int base = (slot & MASCARA_SEGMENTO) * BYTES_REGISTRO;
+        if (segmento.get(base + LARGO_PATENTE) != clave.length) {
+            return false;
+        }
+        for (int i = 0; i < clave.length; i++) {
+            if (segmento.get(base + PATENTE + i) != clave[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertarEnIndice(Indice ind, int slot, int hash) {
+        int i = hash & ind.mascara();
+        while ((int) ENTERO.getAcquire(ind.tabla(), i * Integer.BYTES) != 0) {
+            i = (i + 1) & ind.mascara();
+        }
+        // La escritura con release publica el registro completo a quien encuentre la entrada
+        ENTERO.setRelease(ind.tabla(), i * Integer.BYTES, slot + 1);
+    }
+
+    /**
+     * Duplica el índice y lo publica ya completo; los lectores siguen usando el anterior hasta verlo.
+     */
+    private void redimensionarIndice() {
+        int capacidadActual = indice.tabla().capacity() / Integer.BYTES;
+        if (capacidadActual >= CAPACIDAD_MAXIMA_INDICE) {
+            throw new IllegalStateException("el índice fuera del heap alcanzó su capacidad máxima");
+        }
+        Indice nuevo = nuevoIndice(capacidadActual * 2);
+        ByteBuffer[] s = segmentos;
+        for (int slot = 0; slot < cantidad; slot++) {
+            ByteBuffer segmento = s[slot >>> BITS_SEGMENTO];
+            int base = (slot & MASCARA_SEGMENTO) * BYTES_REGISTRO;
+            insertarEnIndice(nuevo, slot, hash(segmento, base + PATENTE, segmento.get(base + LARGO_PATENTE)));
+        }
+        indice = nuevo;
+    }
+
+    private static Indice nuevoIndice(int capacidad) {
+        return new Indice(ByteBuffer.allocateDirect(capacidad * Integer.BYTES).order(ByteOrder.nativeOrder()), capacidad - 1);
+    }
+
+    private static int hash(byte[] bytes, int desde, int largo) {
+        int h = 0;
+        for (int i = desde; i < desde + largo; i++) {
+            h = 31 * h + bytes[i];
+        }
+        return mezclar(h);
+    }
+
+    private static int hash(ByteBuffer buffer, int desde, int largo) {
+        int h = 0;
+        for (int i = desde; i < desde + largo; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        return mezclar(h);
+    }
+
+    private static int mezclar(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private synchronized int internar(String cadena) {
+        Integer id = idsCadenas.get(cadena);
+        if (id == null) {
+            id = idsCadenas.size();
+            String[] c = cadenas;
+            if (id == c.length) {
+                String[] nuevas = new String[c.length * 2];
+                System.arraycopy(c, 0, nuevas, 0, c.length);
+                c = nuevas;
+            }
+            c[id] = cadena;
+            cadenas = c;
+            idsCadenas.put(cadena, id);
+        }
+        return id;
+    }
+
+    private String cadena(ByteBuffer segmento, int desplazamiento) {
+        return cadenas[segmento.getInt(desplazamiento)];
+    }
+
+    private static String patente(ByteBuffer segmento, int base) {
+        byte[] bytes = new byte[segmento.get(base + LARGO_PATENTE)];
+        segmento.get(base + PATENTE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Vista de un vehículo almacenado fuera del heap. Se crea al consultar y no se guarda, por eso calcula su
+     * boleta sin memorizarla.
+     */
+    public static final class Registro {
+        private final FlotaFueraDeHeap flota;
+        private final ByteBuffer segmento;
+        private final int base;
+
+        private Registro(FlotaFueraDeHeap flota, ByteBuffer segmento, int base) {
+            this.flota = flota;
+            this.segmento = segmento;
+            this.base = base;
+        }
+
+        public boolean esPasajeros() { return segmento.get(base + TIPO) == TIPO_PASAJEROS; }
+        public String getPatente() { return patente(segmento, base); }
+        public String getMarca() { return flota.cadena(segmento, base + MARCA); }
+        public String getModelo() { return flota.cadena(segmento, base + MODELO); }
+        public int getDiasArriendo() { return (int) ENTERO.getVolatile(segmento, base + DIAS_ARRIENDO); }
+        public void setDiasArriendo(int dias) { ENTERO.setVolatile(segmento, base + DIAS_ARRIENDO, dias); }
+        public boolean compareAndSetDiasArriendo(int esperado, int nuevo) { return ENTERO.compareAndSet(segmento, base + DIAS_ARRIENDO, esperado, nuevo); }
+        public int getValorDiario() { return segmento.getInt(base + VALOR_DIARIO); }
+        public int getPuertas() { return segmento.getInt(base + PUERTAS); }
+        public int getAnio() { return segmento.getInt(base + ANIO); }
+        /** Pasajeros o kilos de carga, según el tipo. */
+        public int getCapacidad() { return segmento.getInt(base + CAPACIDAD); }
+
+        /**
+         * Calcula la boleta con los datos actuales del registro.
+         * @return Boleta calculada con las tasas del tipo de vehículo.
+         */
+        public Boleta calcularBoleta() {
+            return esPasajeros()
+                    ? Boleta.calcular(Boleta.TIPO_PASAJEROS, getPatente(), getDiasArriendo(), getValorDiario(), IBoleta.dctoPasajeros, IBoleta.iva)
+                    : Boleta.calcular(Boleta.TIPO_CARGA, getPatente(), getDiasArriendo(), getValorDiario(), IBoleta.dctoCarga, IBoleta.iva);
+        }
+
+        /**
+         * Copia el registro a un vehículo en el heap, independiente del almacén.
+         * @return Vehículo de pasajeros o de carga con los datos actuales.
+         */
+        public Vehiculo aVehiculo() {
+            return esPasajeros()
+                    ? new VehiculoPasajeros(getPatente(), getMarca(), getModelo(), getDiasArriendo(), getValorDiario(), getPuertas(), getAnio(), getCapacidad())
+                    : new VehiculoCarga(getPatente(), getMarca(), getModelo(), getDiasArriendo(), getValorDiario(), getPuertas(), getAnio(), getCapacidad());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Registro r && r.segmento == segmento && r.base == base;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(segmento) * 31 + base;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.duoc.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import org.duoc.models.*;
+import org.duoc.utils.FileIOUtil;
+
+/**
+ * Generador de flotas sintéticas para los benchmarks.
+ * Produce vehículos con patentes únicas y datos plausibles, en memoria o como un
+ * archivo {@code vehiculos.csv} del tamaño que se necesite.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.GeneradorFlota <ruta> <cantidad> [semilla]}
+ */
+public class GeneradorFlota {
+    private static final String[][] MARCAS_MODELOS = {
+            {"Toyota", "Corolla", "Yaris", "Hilux", "RAV4"},
+            {"Chevrolet", "Spark", "Sail", "Tracker", "N400"},
+            {"Kia", "Rio", "Morning", "Sportage", "Frontier"},
+            {"Hyundai", "Accent", "Tucson", "Porter", "H1"},
+            {"Mercedes", "Sprinter", "Vito", "Clase A", "Atego"},
+            {"Nissan", "Versa", "Kicks", "Navara", "NV350"},
+            {"Suzuki", "Swift", "Baleno", "Vitara", "Carry"},
+            {"Peugeot", "208", "2008", "Partner", "Boxer"},
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: GeneradorFlota <ruta> <cantidad> [semilla]");
+            return;
+        }
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        generarCSV(Path.of(args[0]), Integer.parseInt(args[1]), semilla);
+    }
+
+    /**
+     * Genera la patente única correspondiente a un índice: una letra y el índice en base 36 (7 caracteres).
+     * @param indice Índice del vehículo.
+     * @return Patente de 7 caracteres.
+     */
+    public static String patente(int indice) {
+        String base36 = Integer.toString(indice, 36).toUpperCase();
+        return "P" + "000000".substring(Math.min(6, base36.length())) + base36;
+    }
+
+    /**
+     * Genera una flota sintética en memoria.
+     * @param cantidad Cantidad de vehículos.
+     * @param semilla Semilla del generador aleatorio, para resultados reproducibles.
+     * @return Lista de vehículos con patentes únicas.
+     */
+    public static List<Vehiculo> generarVehiculos(int cantidad, long semilla) {
+        List<Vehiculo> vehiculos = new ArrayList<>(cantidad);
+        generarVehiculos(cantidad, semilla, vehiculos::add);
+        return vehiculos;
+    }
+
+    /**
+     * Genera una flota sintética entregando cada vehículo al destino, sin retenerlos en una lista.
+     * Produce los mismos vehículos que {@link #generarVehiculos(int, long)} con la misma semilla.
+     * @param cantidad Cantidad de vehículos.
+     * @param semilla Semilla del generador aleatorio.
+     * @param destino Consumidor que recibe los vehículos en orden.
+     */
+    public static void generarVehiculos(int cantidad, long semilla, Consumer<Vehiculo> destino) {
+        SplittableRandom random = new SplittableRandom(semilla);
+        for (int i = 0; i < cantidad; i++) {
+            destino.accept(vehiculo(i, random));
+        }
+    }
+
+    /**
+     * Genera un archivo CSV con el formato de {@code vehiculos.csv}, escribiéndolo fila por fila.
+     * @param ruta Ruta del archivo a generar.
+     * @param cantidad Cantidad de vehículos.
+     * @param semilla Semilla del generador aleatorio.
+     * @throws IOException Si no se pudo escribir el archivo.
+     */
+    public static void generarCSV(Path ruta, int cantidad, long semilla) throws IOException {
+        SplittableRandom random = new SplittableRandom(semilla);
+        try (BufferedWriter bw = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8)) {
+            bw.write(FileIOUtil.CABECERA_CSV);
+            bw.newLine();
+            for (int i = 0; i < cantidad; i++) {
+                bw.write(FileIOUtil.filaCSV(vehiculo(i, random)));
+                bw.newLine();
+            }
+        }
+    }
+
+    private static Vehiculo vehiculo(int indice, SplittableRandom random) {
+        String[] marca = MARCAS_MODELOS[random.nextInt(MARCAS_MODELOS.length)];
+        String modelo = marca[1 + random.nextInt(marca.length - 1)];
+        // La mitad de la flota queda disponible; el resto con arriendos de 1 a 14 días
+        int dias = random.nextBoolean() ? 0 : 1 + random.nextInt(14);
+        int valorDiario = (10 + random.nextInt(41)) * 1000;
+        int anio = 2005 + random.nextInt(21);
+        if (random.nextInt(4) == 0) {
+            return new VehiculoCarga(patente(indice), marca[0], modelo, dias, valorDiario,
+                    2 + random.nextInt(3), anio, 500 + random.nextInt(30) * 100);
+        }
+        return new VehiculoPasajeros(patente(indice), marca[0], modelo, dias, valorDiario,
+                2 + random.nextInt(4), anio, 2 + random.nextInt(8));
+    }
+}
@@ -0,0 +1,114 @@
+package org.duoc.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.duoc.models.InformeLote;
+import org.duoc.models.ResultadoAlta;
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.SolicitudArriendo;
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+import org.duoc.utils.BitacoraVehiculos;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Alta y arriendo de una sucursal completa: vehículo por vehículo frente a un solo lote,
+ * con y sin bitácora. Con bitácora, cada alta individual espera su propio fsync.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class LoteBenchmark {
+
+    @Param({"10000"})
+    public int tamano;
+
+    @Param({"false", "true"})
+    public boolean bitacora;
+
+    private List<Vehiculo> flota;
+    private List<SolicitudArriendo> solicitudes;
+    private VehiculoService service;
+    private BitacoraVehiculos registro;
+    private Path directorio;
+
+    @Setup(Level.Trial)
+    public void generar() {
+        flota = GeneradorFlota.generarVehiculos(tamano, 42L);
+        solicitudes = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            solicitudes.add(new SolicitudArriendo(GeneradorFlota.patente(i), 1 + i % 14));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void preparar() throws IOException {
+        for (Vehiculo v : flota) {
+            v.setDiasArriendo(0);
+        }
+        service = new VehiculoService();
+        if (bitacora) {
+            directorio = Files.createTempDirectory("lote");
+            registro = new BitacoraVehiculos(directorio.resolve("vehiculos.bitacora").toString(),
+                    Integer.MAX_VALUE, () -> service.getVehiculosMap().values());
+            service.agregarRegistroCambios(registro);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void limpiar() throws IOException {
+        if (registro != null) {
+            registro.close();
+            registro = null;
+            try (Stream<Path> archivos = Files.list(directorio)) {
+                for (Path p : archivos.toList()) {
+                    Files.delete(p);
+                }
+            }
+            Files.delete(directorio);
+        }
+    }
+
+    @Benchmark
+    public int agregarUnoAUno() {
+        int agregados = 0;
+        for (Vehiculo v : flota) {
+            if (service.addVehiculo(v)) {
+                agregados++;
+            }
+        }
+        return agregados;
+    }
+
+    @Benchmark
+    public InformeLote<ResultadoAlta> agregarLote() {
+        return service.agregarVehiculos(flota);
+    }
+
+    @Benchmark
+    public int agregarYArrendarUnoAUno() {
+        agregarUnoAUno();
+        int exitos = 0;
+        for (SolicitudArriendo s : solicitudes) {
+            if (service.arrendarVehiculo(s.getPatente(), s.getDiasArriendo()) == ResultadoArriendo.EXITO) {
+                exitos++;
+            }
+        }
+        return exitos;
+    }
+
+    @Benchmark
+    public InformeLote<ResultadoArriendo> agregarYArrendarLote() {
+        service.agregarVehiculos(flota);
+        return service.arrendarVehiculos(solicitudes);
+    }
+}
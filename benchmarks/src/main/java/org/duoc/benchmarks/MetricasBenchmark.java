@@ -0,0 +1,70 @@
+package org.duoc.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+import org.duoc.utils.HistogramaLatencia;
+import org.duoc.utils.MetricasFlota;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Costo de las métricas: las operaciones más frecuentes del servicio con las métricas habilitadas
+ * y deshabilitadas, y el registro de una muestra en el histograma por sí solo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class MetricasBenchmark {
+
+    @Param({"true", "false"})
+    public boolean habilitada;
+
+    private static final int TAMANO = 100_000;
+
+    private VehiculoService service;
+    private String[] patentes;
+    private final HistogramaLatencia histograma = new HistogramaLatencia();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        MetricasFlota.getInstancia().setHabilitada(habilitada);
+        service = new VehiculoService();
+        GeneradorFlota.generarVehiculos(TAMANO, 42L, service::addVehiculo);
+        patentes = new String[TAMANO];
+        for (int i = 0; i < TAMANO; i++) {
+            patentes[i] = GeneradorFlota.patente(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        MetricasFlota.getInstancia().setHabilitada(true);
+    }
+
+    @Benchmark
+    public Vehiculo buscarVehiculo() {
+        return service.buscarVehiculo(patentes[ThreadLocalRandom.current().nextInt(TAMANO)]);
+    }
+
+    @Benchmark
+    public void arrendarYDevolver() {
+        Vehiculo v = service.buscarVehiculo(patentes[ThreadLocalRandom.current().nextInt(TAMANO)]);
+        service.actualizarDiasArriendo(v, v.getDiasArriendo() == 0 ? 3 : 0);
+    }
+
+    @Benchmark
+    public void registrarMuestra() {
+        histograma.registrar(ThreadLocalRandom.current().nextInt(1 << 20));
+    }
+
+    @Benchmark
+    public void medirOperacionVacia() {
+        MetricasFlota metricas = MetricasFlota.getInstancia();
+        metricas.registrar(MetricasFlota.Operacion.LISTAR, metricas.inicio());
+    }
+}
@@ -0,0 +1,147 @@
+package org.duoc.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.duoc.models.Vehiculo;
+import org.duoc.services.ArchivoFlotaPerezoso;
+import org.duoc.services.VehiculoService;
+
+/**
+ * Prueba de estrés de altas concurrentes con arriendos: mientras unos hilos agregan vehículos (uno a uno y en
+ * lotes), otros arriendan, devuelven y cambian el valor diario de los que ya encuentran en la flota. Luego repite
+ * la carrera en modo perezoso, donde cada vehículo se crea al primer arriendo mientras otro hilo carga la flota
+ * completa. En ambos casos la analítica incremental debe coincidir con la recalculada desde cero.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaAltasConcurrentes [vehiculos] [hilos]}
+ */
+public class PruebaAltasConcurrentes {
+    private static final int TAMANO_LOTE = 64;
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int hilos = Math.max(2, args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+
+        VehiculoService completa = new VehiculoService();
+        List<Vehiculo> flota = GeneradorFlota.generarVehiculos(cantidad, 3L);
+        List<String> diferencias = new ArrayList<>(altasConArriendos(completa, flota, cantidad, hilos));
+        System.out.println("Modo completo, diferencias de la analítica: " + diferencias.size());
+
+        Path directorio = Files.createTempDirectory("drivequest-altas");
+        Path csv = directorio.resolve("vehiculos.csv");
+        GeneradorFlota.generarCSV(csv, cantidad, 5L);
+        VehiculoService perezosa = new VehiculoService();
+        try (ArchivoFlotaPerezoso archivo = perezosa.abrirPerezosa(csv.toString())) {
+            List<String> perezosas = cargaConArriendos(perezosa, cantidad, hilos);
+            System.out.println("Modo perezoso (" + archivo.getCantidad() + " en el archivo), diferencias de la analítica: "
+                    + perezosas.size());
+            diferencias.addAll(perezosas);
+        }
+
+        diferencias.forEach(System.out::println);
+        if (!diferencias.isEmpty()) {
+            System.out.println("FALLA: la analítica incremental no coincide con la recalculada.");
+            System.exit(1);
+        }
+        System.out.println("OK: la analítica coincide en ambos modos.");
+    }
+
+    private static List<String> altasConArriendos(VehiculoService service, List<Vehiculo> flota, int cantidad, int hilos)
+            throws InterruptedException {
+        int agregadores = Math.max(1, hilos / 2);
+        AtomicBoolean terminado = new AtomicBoolean();
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch altas = new CountDownLatch(agregadores);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < agregadores; h++) {
+            int desde = h;
+            pool.submit(() -> {
+                inicio.await();
+                // Los hilos pares agregan uno a uno y los impares en lotes
+                List<Vehiculo> lote = new ArrayList<>(TAMANO_LOTE);
+                for (int i = desde; i < cantidad; i += agregadores) {
+                    if (desde % 2 == 0) {
+                        service.addVehiculo(flota.get(i));
+                    } else {
+                        lote.add(flota.get(i));
+                        if (lote.size() == TAMANO_LOTE) {
+                            service.agregarVehiculos(lote);
+                            lote.clear();
+                        }
+                    }
+                }
+                service.agregarVehiculos(lote);
+                altas.countDown();
+                return null;
+            });
+        }
+        for (int h = agregadores; h < hilos; h++) {
+            long semilla = h;
+            pool.submit(() -> {
+                inicio.await();
+                modificar(service, cantidad, semilla, terminado);
+                return null;
+            });
+        }
+        inicio.countDown();
+        altas.await();
+        terminado.set(true);
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        return service.reconciliarAnalitica();
+    }
+
+    private static List<String> cargaConArriendos(VehiculoService service, int cantidad, int hilos)
+            throws InterruptedException {
+        AtomicBoolean terminado = new AtomicBoolean();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        for (int h = 1; h < hilos; h++) {
+            long semilla = h;
+            pool.submit(() -> {
+                inicio.await();
+                modificar(service, cantidad, semilla, terminado);
+                return null;
+            });
+        }
+        inicio.countDown();
+        service.asegurarCargaCompleta();
+        terminado.set(true);
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        return service.reconciliarAnalitica();
+    }
+
+    /**
+     * Arrienda, devuelve y cambia el valor diario de vehículos al azar hasta que terminen las altas.
+     */
+    private static void modificar(VehiculoService service, int cantidad, long semilla, AtomicBoolean terminado) {
+        SplittableRandom random = new SplittableRandom(semilla);
+        while (!terminado.get()) {
+            String patente = GeneradorFlota.patente(random.nextInt(cantidad));
+            switch (random.nextInt(3)) {
+                case 0 -> service.arrendarVehiculo(patente, 1 + random.nextInt(14));
+                case 1 -> {
+                    Vehiculo v = service.buscarVehiculo(patente);
+                    if (v != null) {
+                        service.actualizarDiasArriendo(v, random.nextInt(15));
+                    }
+                }
+                default -> {
+                    Vehiculo v = service.buscarVehiculo(patente);
+                    if (v != null) {
+                        service.actualizarValorDiario(v, (10 + random.nextInt(41)) * 1000);
+                    }
+                }
+            }
+        }
+    }
+}
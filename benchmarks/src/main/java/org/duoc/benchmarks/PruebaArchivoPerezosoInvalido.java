@@ -0,0 +1,87 @@
+package org.duoc.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.duoc.models.Vehiculo;
+import org.duoc.services.ArchivoFlotaPerezoso;
+import org.duoc.services.VehiculoService;
+import org.duoc.utils.FileIOUtil;
+
+/**
+ * Verifica que la carga perezosa trate las líneas inválidas igual que la carga completa: un CSV con patentes
+ * cuya primera aparición está mal formada y una repetición posterior válida, líneas sin campos y tipos
+ * desconocidos. Ambas cargas deben encontrar los mismos vehículos, la misma cantidad y escribir las mismas filas.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaArchivoPerezosoInvalido [vehiculos]}
+ */
+public class PruebaArchivoPerezosoInvalido {
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        Path directorio = Files.createTempDirectory("drivequest-invalido");
+        Path csv = directorio.resolve("vehiculos.csv");
+        GeneradorFlota.generarCSV(csv, cantidad, 11L);
+        List<String> lineas = new ArrayList<>(Files.readAllLines(csv));
+        // Primera aparición inválida y repetición válida al final
+        lineas.add(1, "PASAJEROS,AB1234,Kia,Rio,0,veinte,4,2020,5");
+        lineas.add(2, "CARGA,CD1234,Volvo");
+        lineas.add(3, "MOTO,EF1234,Honda,CB,0,9000,0,2021,1");
+        lineas.add(4, "CARGA,GH1234,Volvo,FH,0,50000,2,2019,99999999999");
+        lineas.add(5, "PASAJEROS,  ,Kia,Rio,0,20000,4,2020,5");
+        lineas.add("PASAJEROS,AB1234,Kia,Rio,0,20000,4,2020,5");
+        lineas.add("CARGA,GH1234,Volvo,FH,0,50000,2,2019,12");
+        lineas.add("CARGA,GH1234,Scania,R,0,60000,2,2018,14");
+        lineas.add("PASAJEROS,EF1234,Honda,Fit,0,18000,4,2021,5");
+        Files.write(csv, lineas);
+
+        VehiculoService completa = new VehiculoService();
+        completa.agregarVehiculos(FileIOUtil.cargarVehiculosCSVParalelo(csv.toString()));
+
+        List<String> fallas = new ArrayList<>();
+        VehiculoService perezosa = new VehiculoService();
+        try (ArchivoFlotaPerezoso archivo = perezosa.abrirPerezosa(csv.toString())) {
+            if (archivo.getCantidad() != completa.getVehiculosMap().size()) {
+                fallas.add("Cantidad perezosa " + archivo.getCantidad() + ", completa " + completa.getVehiculosMap().size());
+            }
+            for (String patente : List.of("AB1234", "CD1234", "EF1234", "GH1234")) {
+                Vehiculo esperado = completa.buscarVehiculo(patente);
+                Vehiculo leido = archivo.leer(VehiculoService.normalizarPatente(patente));
+                String filaEsperada = esperado == null ? null : FileIOUtil.filaCSV(esperado);
+                String filaLeida = leido == null ? null : FileIOUtil.filaCSV(leido);
+                if (filaEsperada == null ? filaLeida != null : !filaEsperada.equals(filaLeida)) {
+                    fallas.add(patente + ": perezosa " + filaLeida + ", completa " + filaEsperada);
+                }
+            }
+
+            Path salidaCompleta = directorio.resolve("completa.csv");
+            Path salidaPerezosa = directorio.resolve("perezosa.csv");
+            FileIOUtil.escribirVehiculosCSV(completa.getVehiculosMap().values(), salidaCompleta.toString());
+            archivo.escribir(salidaPerezosa.toString());
+            Set<String> filasCompleta = new HashSet<>(Files.readAllLines(salidaCompleta));
+            List<String> filasPerezosa = Files.readAllLines(salidaPerezosa);
+            if (filasPerezosa.size() != filasCompleta.size() || !filasCompleta.containsAll(filasPerezosa)) {
+                fallas.add("CSV escritos con filas distintas: perezosa " + filasPerezosa.size()
+                        + ", completa " + filasCompleta.size());
+            }
+        }
+        try (var archivos = Files.list(directorio)) {
+            for (Path p : archivos.toList()) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(directorio);
+
+        fallas.forEach(System.out::println);
+        if (!fallas.isEmpty()) {
+            System.out.println("FALLA: la carga perezosa no trata las líneas inválidas como la carga completa.");
+            System.exit(1);
+        }
+        System.out.println("OK: ambas cargas conservan la primera línea válida de cada patente.");
+    }
+}
@@ -0,0 +1,90 @@
+package org.duoc.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.services.ArchivoFlotaPerezoso;
+import org.duoc.services.VehiculoService;
+import org.duoc.utils.FileIOUtil;
+
+/**
+ * Compara el arranque con carga completa y con carga perezosa sobre un mismo CSV: tiempo hasta poder
+ * atender, tiempo de la primera búsqueda y de la construcción del índice. Luego arrienda algunos
+ * vehículos en ambos modos y verifica que el CSV escrito por la carga perezosa tenga las mismas filas
+ * que el de la carga completa.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaArranquePerezoso [vehiculos] [arriendos]}
+ */
+public class PruebaArranquePerezoso {
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int arriendos = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        Path directorio = Files.createTempDirectory("drivequest-perezosa");
+        Path csv = directorio.resolve("vehiculos.csv");
+        GeneradorFlota.generarCSV(csv, cantidad, 42L);
+        int[] elegidos = new Random(7).ints(arriendos, 0, cantidad).toArray();
+
+        long t0 = System.nanoTime();
+        VehiculoService completa = new VehiculoService();
+        completa.agregarVehiculos(FileIOUtil.cargarVehiculosCSVParalelo(csv.toString()));
+        long cargaCompleta = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        VehiculoService perezosa = new VehiculoService();
+        try (ArchivoFlotaPerezoso archivo = perezosa.abrirPerezosa(csv.toString())) {
+            long apertura = System.nanoTime() - t0;
+            perezosa.buscarVehiculo(GeneradorFlota.patente(elegidos[0]));
+            long primeraBusqueda = System.nanoTime() - t0;
+
+            int diferencias = 0;
+            for (int i = 0; i < elegidos.length; i++) {
+                String patente = GeneradorFlota.patente(elegidos[i]);
+                int dias = 1 + i % 14;
+                completa.actualizarDiasArriendo(completa.buscarVehiculo(patente), 0);
+                perezosa.actualizarDiasArriendo(perezosa.buscarVehiculo(patente), 0);
+                ResultadoArriendo a = completa.arrendarVehiculo(patente, dias);
+                ResultadoArriendo b = perezosa.arrendarVehiculo(patente, dias);
+                if (a != b) {
+                    diferencias++;
+                }
+            }
+            boolean cargadaCompleta = perezosa.isCargaCompleta();
+
+            Path salidaCompleta = directorio.resolve("completa.csv");
+            Path salidaPerezosa = directorio.resolve("perezosa.csv");
+            FileIOUtil.escribirVehiculosCSV(completa.getVehiculosMap().values(), salidaCompleta.toString());
+            t0 = System.nanoTime();
+            archivo.escribir(salidaPerezosa.toString());
+            long escritura = System.nanoTime() - t0;
+            Set<String> filasCompleta = new HashSet<>(Files.readAllLines(salidaCompleta));
+            List<String> filasPerezosa = Files.readAllLines(salidaPerezosa);
+            boolean iguales = filasPerezosa.size() == filasCompleta.size() && filasCompleta.containsAll(filasPerezosa);
+
+            System.out.printf("Carga completa: %d ms%n", cargaCompleta / 1_000_000);
+            System.out.printf("Carga perezosa: listo en %.2f ms, primera búsqueda a los %d ms (incluye el índice)%n",
+                    apertura / 1e6, primeraBusqueda / 1_000_000);
+            System.out.printf("Escritura perezosa con %d filas modificadas: %d ms%n", archivo.getModificados(), escritura / 1_000_000);
+            System.out.println("Flota perezosa cargada completa tras los arriendos: " + cargadaCompleta);
+            System.out.println("Resultados de arriendo distintos: " + diferencias);
+            System.out.println("CSV escritos con las mismas filas: " + iguales);
+            try (var archivos = Files.list(directorio)) {
+                for (Path p : archivos.toList()) {
+                    Files.delete(p);
+                }
+            }
+            Files.delete(directorio);
+            if (diferencias != 0 || !iguales || cargadaCompleta) {
+                System.out.println("FALLA: la carga perezosa no coincide con la carga completa.");
+                System.exit(1);
+            }
+        }
+        System.out.println("OK");
+    }
+}
@@ -0,0 +1,114 @@
+package org.duoc.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.duoc.controllers.ServidorHttpController;
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+
+/**
+ * Prueba de carga del servidor HTTP: miles de clientes simulados, cada uno en su hilo virtual,
+ * intentan arrendar vehículos al azar a la vez. Verifica que ningún vehículo tenga más de un arriendo
+ * exitoso, que los arriendos exitosos coincidan con los vehículos arrendados en el servicio y que la
+ * analítica incremental no pierda actualizaciones.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaCargaHttp [vehiculos] [clientes] [peticionesPorCliente]}
+ */
+public class PruebaCargaHttp {
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int peticiones = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        VehiculoService service = new VehiculoService();
+        for (Vehiculo v : GeneradorFlota.generarVehiculos(cantidad, 1L)) {
+            v.setDiasArriendo(0);
+            service.addVehiculo(v);
+        }
+
+        AtomicIntegerArray exitos = new AtomicIntegerArray(cantidad);
+        LongAdder conflictos = new LongAdder();
+        LongAdder fallas = new LongAdder();
+        try (ServidorHttpController servidor = new ServidorHttpController(service, 0)) {
+            servidor.iniciar();
+            String base = "http://localhost:" + servidor.getPuerto() + "/arriendos?patente=";
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            CountDownLatch inicio = new CountDownLatch(1);
+            long t0;
+            try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clientes; c++) {
+                    hilos.submit(() -> {
+                        inicio.await();
+                        ThreadLocalRandom azar = ThreadLocalRandom.current();
+                        for (int k = 0; k < peticiones; k++) {
+                            int i = azar.nextInt(cantidad);
+                            HttpRequest peticion = HttpRequest.newBuilder(
+                                            URI.create(base + GeneradorFlota.patente(i) + "&dias=" + (1 + azar.nextInt(14))))
+                                    .POST(HttpRequest.BodyPublishers.noBody())
+                                    .timeout(Duration.ofSeconds(60))
+                                    .build();
+                            try {
+                                int estado = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                                if (estado == 200) {
+                                    exitos.incrementAndGet(i);
+                                } else if (estado == 409) {
+                                    conflictos.increment();
+                                } else {
+                                    fallas.increment();
+                                }
+                            } catch (java.io.IOException e) {
+                                fallas.increment();
+                            }
+                        }
+                        return null;
+                    });
+                }
+                t0 = System.nanoTime();
+                inicio.countDown();
+            }
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            System.out.printf("%d peticiones de %d clientes en %d ms (%.0f peticiones/s)%n",
+                    (long) clientes * peticiones, clientes, ms, (double) clientes * peticiones * 1000 / Math.max(1, ms));
+        }
+
+        int duplicados = 0;
+        int arrendados = 0;
+        for (int i = 0; i < cantidad; i++) {
+            int n = exitos.get(i);
+            arrendados += n;
+            if (n > 1) {
+                duplicados++;
+            }
+        }
+        int enServicio = cantidad - service.listarVehiculosDisponibles().size();
+        List<String> diferencias = service.reconciliarAnalitica();
+        System.out.println("Arriendos exitosos: " + arrendados + ", conflictos: " + conflictos.sum()
+                + ", fallas de red o de protocolo: " + fallas.sum());
+        System.out.println("Vehículos arrendados más de una vez: " + duplicados);
+        System.out.println("Vehículos arrendados según el servicio: " + enServicio);
+        System.out.println("Diferencias de la analítica incremental: " + diferencias.size());
+        diferencias.forEach(System.out::println);
+        if (duplicados != 0 || arrendados != enServicio || fallas.sum() != 0 || !diferencias.isEmpty()) {
+            System.out.println("FALLA: se detectaron arriendos perdidos o duplicados.");
+            System.exit(1);
+        }
+        System.out.println("OK: cada arriendo confirmado por HTTP quedó registrado exactamente una vez.");
+    }
+}
@@ -0,0 +1,83 @@
+package org.duoc.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+import org.duoc.utils.HistogramaLatencia;
+import org.duoc.utils.MetricasFlota;
+
+/**
+ * Prueba de estrés del arriendo atómico: varios hilos intentan arrendar a la vez todos los
+ * vehículos de la flota. Verifica que cada vehículo tenga exactamente un arriendo exitoso
+ * y que los índices de disponibilidad queden consistentes.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaContencionArriendos [vehiculos] [hilos]}
+ */
+public class PruebaContencionArriendos {
+
+    public static void main(String[] args) throws InterruptedException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 2;
+
+        VehiculoService service = new VehiculoService();
+        List<Vehiculo> flota = GeneradorFlota.generarVehiculos(cantidad, 1L);
+        for (Vehiculo v : flota) {
+            v.setDiasArriendo(0);
+            service.addVehiculo(v);
+        }
+
+        AtomicIntegerArray exitos = new AtomicIntegerArray(cantidad);
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        long t0 = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            int desplazamiento = h;
+            pool.submit(() -> {
+                inicio.await();
+                // Cada hilo recorre la flota desde un punto distinto para maximizar los choques
+                for (int k = 0; k < cantidad; k++) {
+                    int i = (k + desplazamiento * 7919) % cantidad;
+                    if (service.arrendarVehiculo(GeneradorFlota.patente(i), 1 + (k % 14)) == ResultadoArriendo.EXITO) {
+                        exitos.incrementAndGet(i);
+                    }
+                }
+                return null;
+            });
+        }
+        inicio.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+
+        int errores = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (exitos.get(i) != 1) {
+                errores++;
+            }
+        }
+        int disponibles = service.listarVehiculosDisponibles().size();
+        int clasificados = service.contarArriendosCortos() + service.contarArriendosLargos();
+        System.out.printf("%d intentos en %d ms con %d hilos (%.0f arriendos/s)%n",
+                (long) cantidad * hilos, ms, hilos, (double) cantidad * hilos * 1000 / Math.max(1, ms));
+        System.out.println("Vehículos con un número de arriendos distinto de 1: " + errores);
+        System.out.println("Disponibles tras la prueba: " + disponibles + ", clasificados corto/largo: " + clasificados);
+        HistogramaLatencia.Resumen esperas = MetricasFlota.getInstancia().getEsperaBloqueo();
+        System.out.printf("Espera por el bloqueo de cada vehículo: %d tomas estimadas, p50 %.1f µs, p99 %.1f µs, máx %.1f µs%n",
+                esperas.getCantidad(), esperas.getP50Micros(), esperas.getP99Micros(), esperas.getMaximoMicros());
+        List<String> diferencias = service.reconciliarAnalitica();
+        System.out.println("Diferencias de la analítica incremental: " + diferencias.size());
+        diferencias.forEach(System.out::println);
+        if (errores != 0 || disponibles != 0 || clasificados != cantidad || !diferencias.isEmpty()) {
+            System.out.println("FALLA: se detectaron arriendos perdidos o duplicados.");
+            System.exit(1);
+        }
+        System.out.println("OK: cada vehículo se arrendó exactamente una vez.");
+    }
+}
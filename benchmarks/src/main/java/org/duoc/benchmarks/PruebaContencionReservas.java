@@ -0,0 +1,117 @@
+package org.duoc.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.duoc.models.Reserva;
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.Vehiculo;
+import org.duoc.models.VehiculoPasajeros;
+import org.duoc.services.VehiculoService;
+
+/**
+ * Prueba de estrés de las reservas por fecha: varios hilos reservan a la vez rangos al azar sobre pocos
+ * vehículos, de modo que casi todos los intentos chocan. Verifica que ninguna agenda quede con reservas
+ * traslapadas y que las reservas exitosas coincidan con las registradas. Luego mide la consulta de
+ * vehículos de pasajeros libres en un rango sobre una flota grande y la compara con un recorrido ingenuo.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaContencionReservas [vehiculos] [hilos] [flotaGrande]}
+ */
+public class PruebaContencionReservas {
+    private static final LocalDate INICIO = LocalDate.of(2026, 1, 1);
+
+    public static void main(String[] args) throws InterruptedException {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 2;
+        int flotaGrande = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int intentos = 20_000;
+
+        VehiculoService service = new VehiculoService();
+        GeneradorFlota.generarVehiculos(cantidad, 1L, service::addVehiculo);
+        LongAdder exitos = new LongAdder();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        long t0 = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            pool.submit(() -> {
+                inicio.await();
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                for (int k = 0; k < intentos; k++) {
+                    LocalDate desde = INICIO.plusDays(azar.nextInt(365));
+                    LocalDate hasta = desde.plusDays(1 + azar.nextInt(10));
+                    if (service.reservarVehiculo(GeneradorFlota.patente(azar.nextInt(cantidad)), desde, hasta)
+                            == ResultadoArriendo.EXITO) {
+                        exitos.increment();
+                    }
+                }
+                return null;
+            });
+        }
+        inicio.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+
+        int traslapes = 0;
+        long registradas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            List<Reserva> agenda = service.listarReservas(GeneradorFlota.patente(i));
+            registradas += agenda.size();
+            for (int j = 1; j < agenda.size(); j++) {
+                if (agenda.get(j).getDesde().isBefore(agenda.get(j - 1).getHasta())) {
+                    traslapes++;
+                }
+            }
+        }
+        System.out.printf("%d intentos de reserva en %d ms con %d hilos; %d exitosas%n",
+                (long) intentos * hilos, ms, hilos, exitos.sum());
+        System.out.println("Reservas traslapadas: " + traslapes + ", registradas: " + registradas
+                + ", en la agenda: " + service.getAgendaReservas().getCantidad());
+        boolean correcto = traslapes == 0 && registradas == exitos.sum() && registradas == service.getAgendaReservas().getCantidad();
+
+        // Consulta de disponibilidad sobre una flota grande con reservas en uno de cada tres vehículos
+        VehiculoService grande = new VehiculoService();
+        GeneradorFlota.generarVehiculos(flotaGrande, 2L, grande::addVehiculo);
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        for (int i = 0; i < flotaGrande; i += 3) {
+            for (int r = 0; r < 4; r++) {
+                LocalDate desde = INICIO.plusDays(azar.nextInt(365));
+                grande.reservarVehiculo(GeneradorFlota.patente(i), desde, desde.plusDays(1 + azar.nextInt(10)));
+            }
+        }
+        LocalDate desde = INICIO.plusDays(100);
+        LocalDate hasta = desde.plusDays(7);
+        List<VehiculoPasajeros> libres = null;
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            t0 = System.nanoTime();
+            libres = grande.listarPasajerosLibres(desde, hasta);
+            mejor = Math.min(mejor, System.nanoTime() - t0);
+        }
+        long ingenuos = 0;
+        for (Vehiculo v : grande.listarVehiculosPasajeros()) {
+            boolean libre = true;
+            for (Reserva r : grande.getAgendaReservas().listar(v)) {
+                libre &= !r.seTraslapa(desde, hasta);
+            }
+            if (libre) {
+                ingenuos++;
+            }
+        }
+        System.out.printf("Pasajeros libres entre %s y %s: %d de %d (%.1f ms); recorrido ingenuo: %d%n",
+                desde, hasta, libres.size(), grande.listarVehiculosPasajeros().size(), mejor / 1e6, ingenuos);
+        correcto &= libres.size() == ingenuos;
+
+        if (!correcto) {
+            System.out.println("FALLA: reservas traslapadas, perdidas o consulta de disponibilidad incorrecta.");
+            System.exit(1);
+        }
+        System.out.println("OK: ninguna agenda tiene reservas traslapadas.");
+    }
+}
@@ -0,0 +1,104 @@
+package org.duoc.benchmarks;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+
+/**
+ * Compara el comportamiento del recolector de basura con la flota en el heap ({@link VehiculoService})
+ * y fuera del heap ({@link FlotaFueraDeHeap}) bajo una carga sostenida de arriendos y devoluciones.
+ * Informa el heap ocupado por la flota, la cantidad y el tiempo de recolecciones durante la carga
+ * y el rendimiento obtenido. Para el detalle de cada pausa conviene agregar {@code -Xlog:gc:file=gc-<modo>.log}.
+ *
+ * Uso: {@code java -Xmx4g -cp benchmarks.jar org.duoc.benchmarks.PruebaGCFueraDeHeap <heap|fuera> [vehiculos] [segundos] [hilos]}
+ */
+public class PruebaGCFueraDeHeap {
+
+    /** Operaciones comunes a ambos modos de almacenamiento. */
+    private interface Flota {
+        ResultadoArriendo arrendar(String patente, int dias);
+        void devolver(String patente);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Uso: PruebaGCFueraDeHeap <heap|fuera> [vehiculos] [segundos] [hilos]");
+            return;
+        }
+        boolean fueraDeHeap = args[0].equals("fuera");
+        int cantidad = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Flota flota;
+        if (fueraDeHeap) {
+            FlotaFueraDeHeap almacen = new FlotaFueraDeHeap();
+            GeneradorFlota.generarVehiculos(cantidad, 42L, almacen::agregar);
+            System.out.printf("Memoria directa: %d MB%n", almacen.bytesFueraDeHeap() >> 20);
+            flota = new Flota() {
+                public ResultadoArriendo arrendar(String patente, int dias) { return almacen.arrendar(patente, dias); }
+                public void devolver(String patente) { almacen.devolver(patente); }
+            };
+        } else {
+            VehiculoService service = new VehiculoService();
+            GeneradorFlota.generarVehiculos(cantidad, 42L, service::addVehiculo);
+            flota = new Flota() {
+                public ResultadoArriendo arrendar(String patente, int dias) { return service.arrendarVehiculo(patente, dias); }
+                public void devolver(String patente) {
+                    Vehiculo v = service.buscarVehiculo(patente);
+                    service.actualizarDiasArriendo(v, 0);
+                }
+            };
+        }
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        System.out.printf("Modo %s, %d vehículos, heap ocupado tras la carga: %d MB%n",
+                fueraDeHeap ? "fuera del heap" : "heap", cantidad, (rt.totalMemory() - rt.freeMemory()) >> 20);
+
+        long[] gcAntes = estadisticasGC();
+        LongAdder operaciones = new LongAdder();
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        for (int h = 0; h < hilos; h++) {
+            long semilla = h;
+            pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(semilla);
+                while (System.nanoTime() < fin) {
+                    String patente = GeneradorFlota.patente(random.nextInt(cantidad));
+                    if (flota.arrendar(patente, 1 + random.nextInt(14)) == ResultadoArriendo.CONFLICTO) {
+                        flota.devolver(patente);
+                    }
+                    operaciones.increment();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(segundos + 60L, TimeUnit.SECONDS);
+        long[] gcDespues = estadisticasGC();
+
+        System.out.printf("%d operaciones en %d s con %d hilos (%.0f op/s)%n",
+                operaciones.sum(), segundos, hilos, (double) operaciones.sum() / segundos);
+        System.out.printf("Recolecciones durante la carga: %d, tiempo total en GC: %d ms%n",
+                gcDespues[0] - gcAntes[0], gcDespues[1] - gcAntes[1]);
+    }
+
+    private static long[] estadisticasGC() {
+        long cantidad = 0;
+        long tiempo = 0;
+        List<GarbageCollectorMXBean> recolectores = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean gc : recolectores) {
+            cantidad += Math.max(0, gc.getCollectionCount());
+            tiempo += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {cantidad, tiempo};
+    }
+}
@@ -0,0 +1,89 @@
+package org.duoc.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.duoc.controllers.ServidorHttpController;
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.Vehiculo;
+import org.duoc.services.VehiculoService;
+
+/**
+ * Verifica la validación de fechas de los listados de vehículos libres: fechas nulas, rangos vacíos e invertidos
+ * se rechazan con {@link IllegalArgumentException} en el servicio y con 400 en {@code GET /disponibles}, y un
+ * rango válido excluye los vehículos reservados.
+ *
+ * Uso: {@code java -cp benchmarks.jar org.duoc.benchmarks.PruebaVehiculosLibres [vehiculos]}
+ */
+public class PruebaVehiculosLibres {
+
+    public static void main(String[] args) throws Exception {
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        VehiculoService service = new VehiculoService();
+        service.agregarVehiculos(GeneradorFlota.generarVehiculos(cantidad, 9L));
+        LocalDate inicio = LocalDate.of(2026, 3, 1);
+        String reservada = GeneradorFlota.patente(0);
+        if (service.reservarVehiculo(reservada, inicio, inicio.plusDays(5)) != ResultadoArriendo.EXITO) {
+            throw new IllegalStateException("no se pudo reservar " + reservada);
+        }
+
+        List<String> fallas = new ArrayList<>();
+        List<BiFunction<LocalDate, LocalDate, List<? extends Vehiculo>>> listados = List.of(
+                service::listarVehiculosLibres, service::listarPasajerosLibres, service::listarCargaLibres);
+        LocalDate[][] invalidos = {
+                {null, inicio}, {inicio, null}, {null, null}, {inicio, inicio}, {inicio.plusDays(5), inicio}};
+        for (int i = 0; i < listados.size(); i++) {
+            for (LocalDate[] rango : invalidos) {
+                try {
+                    listados.get(i).apply(rango[0], rango[1]);
+                    fallas.add("Listado " + i + " aceptó el rango " + rango[0] + " a " + rango[1]);
+                } catch (IllegalArgumentException e) {
+                    // Esperado
+                } catch (RuntimeException e) {
+                    fallas.add("Listado " + i + " con " + rango[0] + " a " + rango[1] + " lanzó " + e);
+                }
+            }
+        }
+
+        List<Vehiculo> libres = service.listarVehiculosLibres(inicio.plusDays(2), inicio.plusDays(3));
+        if (libres.size() != cantidad - 1 || libres.stream().anyMatch(v -> v.getPatente().equals(reservada))) {
+            fallas.add("Rango válido: " + libres.size() + " libres de " + cantidad + " con una reserva");
+        }
+        int total = service.listarPasajerosLibres(inicio.plusDays(5), inicio.plusDays(6)).size()
+                + service.listarCargaLibres(inicio.plusDays(5), inicio.plusDays(6)).size();
+        if (total != cantidad) {
+            fallas.add("Después de la reserva: " + total + " libres de " + cantidad);
+        }
+
+        try (ServidorHttpController servidor = new ServidorHttpController(service, 0)) {
+            servidor.iniciar();
+            HttpClient cliente = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + servidor.getPuerto() + "/disponibles";
+            String[][] consultas = {
+                    {"?desde=2026-03-06&hasta=2026-03-01", "400"},
+                    {"?desde=2026-03-01&hasta=2026-03-01&tipo=carga", "400"},
+                    {"?desde=2026-03-01", "400"},
+                    {"?desde=2026-03-01&hasta=2026-03-06&tipo=pasajeros", "200"}};
+            for (String[] consulta : consultas) {
+                HttpResponse<String> respuesta = cliente.send(HttpRequest.newBuilder(URI.create(base + consulta[0])).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (respuesta.statusCode() != Integer.parseInt(consulta[1])) {
+                    fallas.add("GET /disponibles" + consulta[0] + ": " + respuesta.statusCode() + ", se esperaba " + consulta[1]);
+                }
+            }
+        }
+
+        fallas.forEach(System.out::println);
+        if (!fallas.isEmpty()) {
+            System.out.println("FALLA: los listados de vehículos libres no validan las fechas.");
+            System.exit(1);
+        }
+        System.out.println("OK: los rangos inválidos se rechazan y los válidos excluyen las reservas.");
+    }
+}
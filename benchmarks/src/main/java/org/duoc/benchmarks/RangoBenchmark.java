@@ -0,0 +1,80 @@
+package org.duoc.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.*;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks de las consultas por rango de valor diario y año: índices ordenados del servicio frente a
+ * recorrer toda la flota. Al preparar cada prueba cambia el valor diario de parte de la flota y verifica
+ * que ambos caminos entreguen los mismos vehículos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class RangoBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamano;
+
+    private VehiculoService service;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        GeneradorFlota.generarVehiculos(tamano, 42L, service::addVehiculo);
+        Random azar = new Random(7);
+        for (int i = 0; i < tamano / 10; i++) {
+            service.actualizarValorDiario(service.buscarVehiculo(GeneradorFlota.patente(azar.nextInt(tamano))),
+                    10_000 + azar.nextInt(40_000));
+        }
+        if (!valorDiario().equals(recorrerValorDiario()) || !pasajerosRecientes().equals(recorrerPasajerosRecientes())) {
+            throw new IllegalStateException("los índices por rango no coinciden con el recorrido de la flota");
+        }
+    }
+
+    @Benchmark
+    public List<Vehiculo> valorDiario() {
+        return service.listarPorValorDiario(15_000, 15_500);
+    }
+
+    @Benchmark
+    public List<Vehiculo> recorrerValorDiario() {
+        List<Vehiculo> resultado = new ArrayList<>();
+        for (Vehiculo v : service.getVehiculosMap().values()) {
+            if (v.getValorDiario() >= 15_000 && v.getValorDiario() <= 15_500) {
+                resultado.add(v);
+            }
+        }
+        resultado.sort(Comparator.comparingInt(Vehiculo::getValorDiario)
+                .thenComparing(v -> VehiculoService.normalizarPatente(v.getPatente())));
+        return resultado;
+    }
+
+    @Benchmark
+    public List<VehiculoPasajeros> pasajerosRecientes() {
+        return service.listarPasajerosPorAnio(2024, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<VehiculoPasajeros> recorrerPasajerosRecientes() {
+        List<VehiculoPasajeros> resultado = new ArrayList<>();
+        for (Vehiculo v : service.getVehiculosMap().values()) {
+            if (v instanceof VehiculoPasajeros vp && vp.getAnio() >= 2024) {
+                resultado.add(vp);
+            }
+        }
+        resultado.sort(Comparator.comparingInt(VehiculoPasajeros::getAnio)
+                .thenComparing(v -> VehiculoService.normalizarPatente(v.getPatente())));
+        return resultado;
+    }
+}
@@ -0,0 +1,53 @@
+package org.duoc.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.*;
+import org.duoc.utils.RenderizadorFlota;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark del renderizado de la tabla de vehículos. El puntaje está en filas por segundo:
+ * se compara el renderizador con buffer contra un {@code printf} por fila sobre un
+ * PrintStream con autoflush, como hacía {@code filaDetalle} con {@code System.out}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(RenderizadorBenchmark.FILAS)
+public class RenderizadorBenchmark {
+    static final int FILAS = 100_000;
+
+    private List<Vehiculo> flota;
+    private RenderizadorFlota renderizador;
+    private PrintStream consola;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        flota = GeneradorFlota.generarVehiculos(FILAS, 42L);
+        renderizador = new RenderizadorFlota(Writer.nullWriter(), false);
+        consola = new PrintStream(OutputStream.nullOutputStream(), true);
+    }
+
+    @Benchmark
+    public int renderizadorConBuffer() {
+        return renderizador.tabla(flota, true);
+    }
+
+    @Benchmark
+    public void printfPorFila() {
+        for (Vehiculo v : flota) {
+            int capacidad = v instanceof VehiculoPasajeros vp ? vp.getCapacidadPasajeros() : ((VehiculoCarga) v).getCapacidadCarga();
+            consola.printf("| %-10s | %-10s | %-10s | %-10s | %-4d | %-7d | %-9d | %-7s |\n",
+                    v instanceof VehiculoPasajeros ? "Pasajeros" : "Carga", v.getPatente(), v.getMarca(), v.getModelo(),
+                    v.getAnio(), v.getPuertas(), capacidad, "$" + v.getValorDiario());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.duoc.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.duoc.models.*;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks de las consultas de los primeros K vehículos: montículo acotado del servicio frente a
+ * copiar la flota y ordenarla completa. Al preparar cada prueba verifica que ambos entreguen el mismo ranking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class TopKBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamano;
+
+    @Param({"10", "1000"})
+    public int k;
+
+    @Param({"VALOR_DIARIO", "DIAS_ARRIENDO", "TOTAL_BOLETA", "ANIO"})
+    public CriterioRanking criterio;
+
+    private VehiculoService service;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        GeneradorFlota.generarVehiculos(tamano, 42L, service::addVehiculo);
+        if (!topK().equals(ordenarCompleto())) {
+            throw new IllegalStateException("el ranking con montículo no coincide con el de ordenar la flota");
+        }
+    }
+
+    @Benchmark
+    public List<Vehiculo> topK() {
+        return service.topVehiculos(criterio, k);
+    }
+
+    @Benchmark
+    public List<Vehiculo> ordenarCompleto() {
+        List<Vehiculo> vehiculos = new ArrayList<>(service.listVehiculos());
+        if (criterio.isSoloArrendados()) {
+            vehiculos.removeIf(v -> v.getDiasArriendo() <= 0);
+        }
+        Comparator<Vehiculo> orden = Comparator.comparingLong((Vehiculo v) -> criterio.valor(v)).reversed()
+                .thenComparing(Vehiculo::getPatente, String.CASE_INSENSITIVE_ORDER);
+        vehiculos.sort(orden);
+        return new ArrayList<>(vehiculos.subList(0, Math.min(k, vehiculos.size())));
+    }
+}
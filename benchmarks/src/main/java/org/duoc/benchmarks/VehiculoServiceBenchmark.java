@@ -0,0 +1,82 @@
+package org.duoc.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.duoc.models.Pagina;
+import org.duoc.models.Vehiculo;
+import org.duoc.models.VehiculoPasajeros;
+import org.duoc.services.VehiculoService;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks de las operaciones de {@link VehiculoService}: altas, búsquedas, listados y filtros.
+ * El número de hilos se controla con la opción {@code -t} de JMH, por ejemplo {@code -t 8}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class VehiculoServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamano;
+
+    private VehiculoService service;
+    private String[] patentes;
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = new VehiculoService();
+        List<Vehiculo> flota = GeneradorFlota.generarVehiculos(tamano, 42L);
+        patentes = new String[tamano];
+        for (int i = 0; i < tamano; i++) {
+            service.addVehiculo(flota.get(i));
+            patentes[i] = flota.get(i).getPatente().toLowerCase();
+        }
+        siguiente.set(tamano);
+    }
+
+    @Benchmark
+    public boolean addVehiculo() {
+        // Patentes nuevas (fuera del rango inicial) para medir altas exitosas
+        int indice = siguiente.getAndIncrement();
+        return service.addVehiculo(new VehiculoPasajeros(GeneradorFlota.patente(indice), "Kia", "Rio", 0, 19000, 4, 2022, 4));
+    }
+
+    @Benchmark
+    public Vehiculo getVehiculoByPatente() {
+        return service.getVehiculoByPatente(patentes[ThreadLocalRandom.current().nextInt(patentes.length)]);
+    }
+
+    @Benchmark
+    public List<Vehiculo> listVehiculos() {
+        return service.listVehiculos();
+    }
+
+    @Benchmark
+    public Pagina<Vehiculo> paginarVehiculos() {
+        // Primera página de 50 desde un cursor aleatorio, como una pantalla de listado
+        return service.paginarVehiculos(patentes[ThreadLocalRandom.current().nextInt(patentes.length)], 50, null);
+    }
+
+    @Benchmark
+    public List<Vehiculo> filtrarArriendosLargos() {
+        return service.filtrarArriendosLargos();
+    }
+
+    @Benchmark
+    public List<Vehiculo> filtrarArriendosCortos() {
+        return service.filtrarArriendosCortos();
+    }
+
+    @Benchmark
+    public int contarArriendosLargos() {
+        return service.contarArriendosLargos();
+    }
+}
@@ -1,9 +1,12 @@
 package org.duoc;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 
 import org.duoc.controllers.MenuController;
+import org.duoc.controllers.ServidorHttpController;
 import org.duoc.controllers.VehiculoController;
 import org.duoc.utils.MenuUtil;
 
@@ -21,10 +24,14 @@ public class Main {
     /**
      * Método principal que inicia la aplicación.
      * Carga los vehículos desde archivo, muestra el menú principal y gestiona las
-     * opciones seleccionadas por el usuario.
-     * Al finalizar, guarda los vehículos en archivo y muestra el mensaje de salida.
+     * opciones seleccionadas por el usuario. Los cambios se persisten en la bitácora
+     * a medida que ocurren.
+     * Con {@code --http [puerto]} atiende además peticiones HTTP sobre la misma flota (puerto 8080 por defecto),
+     * solo desde el mismo equipo; {@code --http-remoto} lo abre a todas las interfaces de red.
+     * Con {@code --perezosa} el CSV solo se indexa al iniciar y cada vehículo se lee al consultarlo.
+     * Al finalizar, exporta los vehículos a CSV y muestra el mensaje de salida.
      * 
-     * @param args Argumentos de línea de comandos (no utilizados).
+     * @param args Argumentos de línea de comandos: {@code --http [puerto]}, {@code --http-remoto} y {@code --perezosa} opcionales.
      */
     public static void main(String[] args) {
         VehiculoController controller = new VehiculoController();
@@ -32,8 +39,9 @@ public class Main {
         Scanner sc = new Scanner(System.in);
         MenuController menuController = new MenuController(controller, menu, sc);
 
-        // Cargar vehículos desde archivo al iniciar
-        controller.cargarVehiculos("vehiculos.csv");
+        // Cargar vehículos (snapshot y bitácora, o el CSV inicial) y activar la bitácora
+        controller.iniciarBitacora("vehiculos.csv", "vehiculos.bitacora", Arrays.asList(args).contains("--perezosa"));
+        ServidorHttpController servidor = iniciarServidor(args, controller);
 
         menu.welcomeMessage();
         boolean running = true;
@@ -43,7 +51,7 @@ public class Main {
                 System.out.println("Seleccione una opción:");
                 int option = sc.nextInt();
                 sc.nextLine();
-                if (option == 6) {
+                if (option == 7) {
                     running = false;
                 } else {
                     menuController.ejecutarMenu(option);
@@ -59,9 +67,38 @@ public class Main {
                 System.out.println("Error: " + e.getMessage());
             }
         }
+        if (servidor != null) {
+            servidor.close();
+        }
         // Guardar vehículos al finalizar
         controller.guardarVehiculos("vehiculos_out.csv");
+        controller.cerrarBitacora();
+        controller.cerrarArchivoPerezoso();
         menu.exitMessage();
         sc.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * Inicia el servidor HTTP si se pidió con {@code --http [puerto]}, en la interfaz local salvo que
+     * también se indique {@code --http-remoto}.
+     * @return Servidor iniciado, o null si no se pidió o no se pudo abrir el puerto.
+     */
+    private static ServidorHttpController iniciarServidor(String[] args, VehiculoController controller) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--http")) {
+                try {
+                    int puerto = i + 1 < args.length && !args[i + 1].startsWith("--") ? Integer.parseInt(args[i + 1]) : 8080;
+                    boolean remoto = Arrays.asList(args).contains("--http-remoto");
+                    ServidorHttpController servidor = new ServidorHttpController(controller.getService(), puerto, remoto);
+                    servidor.iniciar();
+                    return servidor;
+                } catch (NumberFormatException e) {
+                    System.out.println("Error: El puerto debe ser un número.");
+                } catch (IOException e) {
+                    System.out.println("Error al iniciar el servidor HTTP: " + e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -1,17 +1,25 @@
 package org.duoc.controllers;
 
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
 
+import org.duoc.models.Pagina;
 import org.duoc.models.Vehiculo;
 import org.duoc.utils.MenuUtil;
+import org.duoc.utils.RenderizadorFlota;
 
 /**
  * Controlador de menú principal de la aplicación.
  * Encapsula la lógica de interacción con el usuario y delega las operaciones
  * a los controladores y utilidades correspondientes.
- * Permite agregar, arrendar, listar vehículos, mostrar boletas y filtrar arriendos.
+ * Permite agregar, arrendar, listar y buscar vehículos, mostrar boletas y filtrar arriendos.
  */
 public class MenuController {
+    /** Filas mostradas por página en los listados. */
+    private static final int FILAS_POR_PAGINA = 50;
+    /** Marcas y modelos sugeridos al buscar. */
+    private static final int MAXIMO_SUGERENCIAS = 10;
 
     private final VehiculoController controller;
     private final MenuUtil menu;
@@ -40,6 +48,7 @@ public class MenuController {
             case 3 -> listarVehiculos();
             case 4 -> mostrarBoletas();
             case 5 -> mostrarArriendosFiltrados();
+            case 6 -> buscarPorMarcaModelo();
             default -> System.out.println("Opción no válida.");
         }
     }
@@ -71,9 +80,7 @@ public class MenuController {
         String tipoArr = sc.nextLine().trim();
         if (tipoArr.equals("1")) {
             System.out.println("Vehículos de pasajeros disponibles para arriendo:");
-            controller.listarPasajeros().stream()
-                    .filter(v -> v.getDiasArriendo() == 0)
-                    .forEach(Vehiculo::mostrarDetalle);
+            mostrarDetalles(controller.listarPasajerosDisponibles());
             System.out.print("Ingrese la patente del vehículo a arrendar: ");
             String patente = sc.nextLine().trim();
             if (!controller.arrendarVehiculoPasajeros(patente, sc)) {
@@ -81,9 +88,7 @@ public class MenuController {
             }
         } else if (tipoArr.equals("2")) {
             System.out.println("Vehículos de carga disponibles para arriendo:");
-            controller.listarCarga().stream()
-                    .filter(v -> v.getDiasArriendo() == 0)
-                    .forEach(Vehiculo::mostrarDetalle);
+            mostrarDetalles(controller.listarCargaDisponibles());
             System.out.print("Ingrese la patente del vehículo a arrendar: ");
             String patente = sc.nextLine().trim();
             if (!controller.arrendarVehiculoCarga(patente, sc)) {
@@ -105,19 +110,13 @@ public class MenuController {
         String tipoList = sc.nextLine().trim();
         if (tipoList.equals("1")) {
             System.out.println("Listando vehículos de pasajeros:\n");
-            System.out.printf("| %-10s | %-10s | %-10s | %-4s | %-6s | %-8s | %-7s |\n",
-    "Patente", "Marca", "Modelo", "Año", "Puertas", "Capacidad", "Valor");
-            controller.listarPasajeros().forEach(v -> v.filaDetalle(false));
+            mostrarTablaPaginada((cursor) -> controller.paginarPasajeros(cursor, FILAS_POR_PAGINA), false);
         } else if (tipoList.equals("2")) {
             System.out.println("Listando vehículos de carga: \n");
-            System.out.printf("| %-10s | %-10s | %-10s | %-4s | %-6s | %-8s | %-7s |\n",
-    "Patente", "Marca", "Modelo", "Año", "Puertas", "Capacidad", "Valor");
-            controller.listarCarga().forEach(v -> v.filaDetalle(false));
+            mostrarTablaPaginada((cursor) -> controller.paginarCarga(cursor, FILAS_POR_PAGINA), false);
         } else if (tipoList.equals("3")) {
             System.out.println("Listando todos los vehículos:\n");
-            System.out.printf("| %-10s | %-10s | %-10s | %-10s | %-4s | %-6s | %-8s | %-7s |\n",
-    "Tipo", "Patente", "Marca", "Modelo", "Año", "Puertas", "Capacidad", "Valor");
-            controller.listarTodos().forEach(v -> v.filaDetalle(true));
+            mostrarTablaPaginada((cursor) -> controller.paginarTodos(cursor, FILAS_POR_PAGINA), true);
         } else {
             System.out.println("Opción de listado no válida.");
         }
@@ -138,12 +137,63 @@ public class MenuController {
         System.out.print("Seleccione tipo: ");
         String tipoArrendado = sc.nextLine().trim();
         if (tipoArrendado.equals("1")) {
-            controller.filtrarArriendosLargos().forEach(Vehiculo::mostrarDetalle);
+            mostrarDetalles(controller.filtrarArriendosLargos());
         } else if (tipoArrendado.equals("2")) {
-            controller.filtrarArriendosCortos().forEach(Vehiculo::mostrarDetalle);
+            mostrarDetalles(controller.filtrarArriendosCortos());
         } else {
             System.out.println("Opción de arriendo no válida.");
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Busca vehículos por marca o modelo: sugiere las marcas y modelos que completan lo ingresado (o que se
+     * le parecen, si tiene errores de tipeo) y muestra los vehículos encontrados.
+     */
+    public void buscarPorMarcaModelo() {
+        System.out.print("Ingrese marca o modelo (basta con el comienzo): ");
+        String texto = sc.nextLine().trim();
+        List<String> sugerencias = controller.sugerirMarcaModelo(texto, MAXIMO_SUGERENCIAS);
+        if (sugerencias.isEmpty()) {
+            System.out.println("No se encontraron marcas ni modelos parecidos.");
+            return;
+        }
+        System.out.println("Marcas y modelos: " + String.join(", ", sugerencias));
+        List<Vehiculo> vehiculos = controller.buscarPorMarcaModelo(texto, FILAS_POR_PAGINA);
+        RenderizadorFlota.consola().tabla(vehiculos, true);
+        if (vehiculos.size() == FILAS_POR_PAGINA) {
+            System.out.println("Se muestran los primeros " + FILAS_POR_PAGINA + "; elija una de las sugerencias para acotar la búsqueda.");
+        }
+    }
+
+    /**
+     * Muestra una tabla de vehículos por páginas, esperando confirmación del usuario entre páginas.
+     * Cada página se pide al servicio con el cursor de la anterior, sin copiar la flota completa.
+     * @param paginas Función que entrega la página que sigue al cursor (null para la primera).
+     * @param mostrarTipo true para incluir la columna de tipo.
+     */
+    private void mostrarTablaPaginada(Function<String, Pagina<? extends Vehiculo>> paginas, boolean mostrarTipo) {
+        RenderizadorFlota renderizador = RenderizadorFlota.consola();
+        Pagina<? extends Vehiculo> pagina = paginas.apply(null);
+        renderizador.tabla(pagina.getElementos(), mostrarTipo);
+        while (pagina.hayMas()) {
+            pagina = paginas.apply(pagina.getSiguienteCursor());
+            if (pagina.getElementos().isEmpty()) {
+                break;
+            }
+            System.out.print("-- Enter para ver más, 'q' para volver -- ");
+            if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                break;
+            }
+            renderizador.tabla(pagina.getElementos(), mostrarTipo);
+        }
+    }
+
+    /**
+     * Muestra el detalle de cada vehículo escribiendo a la consola en bloques.
+     * @param vehiculos Vehículos a detallar.
+     */
+    private void mostrarDetalles(List<? extends Vehiculo> vehiculos) {
+        RenderizadorFlota.consola().detalles(vehiculos);
+    }
+
+}
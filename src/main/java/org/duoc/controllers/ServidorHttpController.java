@@ -0,0 +1,524 @@
+package org.duoc.controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.duoc.models.*;
+import org.duoc.services.VehiculoService;
+import org.duoc.utils.FileIOUtil;
+import org.duoc.utils.ParserCSVVehiculos;
+import org.duoc.utils.ValidadorVehiculo;
+
+/**
+ * Servidor HTTP local que expone las operaciones de la flota para que varios agentes trabajen a la vez.
+ * Usa el servidor HTTP del JDK y atiende cada petición en su propio hilo virtual, todas contra el mismo
+ * {@link VehiculoService}. Las respuestas son texto: los vehículos en el mismo formato CSV del archivo
+ * {@code vehiculos.csv}.
+ * Las rutas no tienen autenticación, por eso el servidor escucha solo en la interfaz local salvo que se
+ * pida lo contrario de forma explícita.
+ *
+ * Rutas:
+ * <ul>
+ *   <li>{@code GET /vehiculos?tipo=pasajeros|carga&cursor=&tamano=}: página ordenada por patente; el cursor
+ *       siguiente viene en la cabecera {@code X-Siguiente-Cursor}.</li>
+ *   <li>{@code POST /vehiculos}: agrega los vehículos del cuerpo (filas CSV) como un lote, con las mismas
+ *       validaciones que la consola; responde una línea {@code numero,patente,resultado[,motivo]} por fila y
+ *       400 si ninguna fila era válida.</li>
+ *   <li>{@code PUT /vehiculos?patente=&valorDiario=}: cambia el valor diario de un vehículo.</li>
+ *   <li>{@code GET /rango?campo=valor_diario|anio&minimo=&maximo=&tipo=}: vehículos con el campo dentro del rango
+ *       (ambos límites inclusive y opcionales), ordenados por ese campo.</li>
+ *   <li>{@code POST /arriendos?patente=&dias=}: arrienda un vehículo disponible; sin parámetros arrienda
+ *       el lote del cuerpo, una línea {@code patente,dias} por vehículo.</li>
+ *   <li>{@code GET /disponibles}, {@code GET /arriendos/largos}, {@code GET /arriendos/cortos}: filtros.</li>
+ *   <li>{@code GET /disponibles?desde=&hasta=&tipo=}: vehículos sin reservas en el rango de fechas (ISO, hasta exclusive).</li>
+ *   <li>{@code POST /reservas?patente=&desde=&hasta=}: reserva un vehículo; {@code DELETE} con {@code patente} y
+ *       {@code desde} la cancela y {@code GET ?patente=} lista sus reservas.</li>
+ *   <li>{@code GET /boletas}: boletas emitidas y totales por tipo.</li>
+ *   <li>{@code GET /sugerencias?texto=}: marcas y modelos que completan el texto, una por línea.</li>
+ *   <li>{@code GET /busqueda?texto=&limite=}: vehículos por marca o modelo, tolerando errores de tipeo.</li>
+ *   <li>{@code GET /ranking?criterio=valor_diario|dias_arriendo|total_boleta|anio&k=&tipo=}: los K vehículos
+ *       de mayor valor según el criterio.</li>
+ * </ul>
+ *
+ * @author Karla Santibáñez
+ */
+public class ServidorHttpController implements AutoCloseable {
+    private static final int TAMANO_PAGINA_POR_DEFECTO = 50;
+    private static final int TAMANO_PAGINA_MAXIMO = 10_000;
+    private static final int SUGERENCIAS = 10;
+    /** Conexiones que pueden esperar a ser aceptadas; el valor del sistema es muy bajo para miles de clientes. */
+    private static final int CONEXIONES_PENDIENTES = 4096;
+    private static final String TIPO_CSV = "text/csv; charset=utf-8";
+    private static final String TIPO_TEXTO = "text/plain; charset=utf-8";
+
+    private final VehiculoService service;
+    private final HttpServer servidor;
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Crea el servidor sin iniciarlo, escuchando solo en la interfaz local (loopback).
+     * @param service Servicio compartido de vehículos.
+     * @param puerto Puerto local (0 para elegir uno libre).
+     * @throws IOException Si no se pudo abrir el puerto.
+     */
+    public ServidorHttpController(VehiculoService service, int puerto) throws IOException {
+        this(service, puerto, false);
+    }
+
+    /**
+     * Crea el servidor sin iniciarlo.
+     * @param service Servicio compartido de vehículos.
+     * @param puerto Puerto (0 para elegir uno libre).
+     * @param accesoRemoto true para escuchar en todas las interfaces de red; false para aceptar solo
+     *                     conexiones desde el mismo equipo.
+     * @throws IOException Si no se pudo abrir el puerto.
+     */
+    public ServidorHttpController(VehiculoService service, int puerto, boolean accesoRemoto) throws IOException {
+        this.service = service;
+        InetSocketAddress direccion = accesoRemoto
+                ? new InetSocketAddress(puerto)
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto);
+        this.servidor = HttpServer.create(direccion, CONEXIONES_PENDIENTES);
+        servidor.setExecutor(hilos);
+        servidor.createContext("/vehiculos", this::vehiculos);
+        servidor.createContext("/arriendos", this::arriendos);
+        servidor.createContext("/disponibles", this::disponibles);
+        servidor.createContext("/reservas", this::reservas);
+        servidor.createContext("/boletas", this::boletas);
+        servidor.createContext("/ranking", this::ranking);
+        servidor.createContext("/rango", this::rango);
+        servidor.createContext("/sugerencias", this::sugerencias);
+        servidor.createContext("/busqueda", this::busqueda);
+    }
+
+    /**
+     * Inicia la atención de peticiones.
+     */
+    public void iniciar() {
+        servidor.start();
+        InetSocketAddress direccion = servidor.getAddress();
+        System.out.println("Servidor HTTP escuchando en " + direccion.getAddress().getHostAddress() + ":" + direccion.getPort());
+    }
+
+    /**
+     * Puerto en que escucha el servidor.
+     * @return Número de puerto.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Detiene el servidor, esperando hasta un segundo a que terminen las peticiones en curso.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        hilos.close();
+    }
+
+    private void vehiculos(HttpExchange e) throws IOException {
+        try (e) {
+            if (e.getRequestMethod().equals("POST")) {
+                agregar(e);
+                return;
+            }
+            if (e.getRequestMethod().equals("PUT")) {
+                actualizarValor(e);
+                return;
+            }
+            if (!e.getRequestMethod().equals("GET")) {
+                responder(e, 405, TIPO_TEXTO, "Método no permitido\n");
+                return;
+            }
+            Map<String, String> parametros = parametros(e);
+            int tamano;
+            try {
+                tamano = Math.min(TAMANO_PAGINA_MAXIMO,
+                        Integer.parseInt(parametros.getOrDefault("tamano", String.valueOf(TAMANO_PAGINA_POR_DEFECTO))));
+            } catch (NumberFormatException ex) {
+                responder(e, 400, TIPO_TEXTO, "El tamaño de página debe ser un número\n");
+                return;
+            }
+            if (tamano <= 0) {
+                responder(e, 400, TIPO_TEXTO, "El tamaño de página debe ser mayor a cero\n");
+                return;
+            }
+            String cursor = parametros.get("cursor");
+            Pagina<? extends Vehiculo> pagina = switch (parametros.getOrDefault("tipo", "")) {
+                case "pasajeros" -> service.paginarPasajeros(cursor, tamano);
+                case "carga" -> service.paginarCarga(cursor, tamano);
+                default -> service.paginarVehiculos(cursor, tamano, null);
+            };
+            if (pagina.hayMas()) {
+                e.getResponseHeaders().add("X-Siguiente-Cursor", pagina.getSiguienteCursor());
+            }
+            responder(e, 200, TIPO_CSV, csv(pagina.getElementos()));
+        }
+    }
+
+    /**
+     * Agrega el lote del cuerpo. Cada vehículo debe cumplir las mismas reglas que el alta por consola; la
+     * respuesta informa por número de línea el resultado de cada vehículo y el motivo de cada línea rechazada.
+     */
+    private void agregar(HttpExchange e) throws IOException {
+        byte[] cuerpo;
+        try (InputStream in = e.getRequestBody()) {
+            cuerpo = in.readAllBytes();
+        }
+        List<Vehiculo> validos = new ArrayList<>();
+        List<Integer> lineasValidas = new ArrayList<>();
+        TreeMap<Integer, String> invalidas = new TreeMap<>();
+        new ParserCSVVehiculos().parsear(ByteBuffer.wrap(cuerpo), true, (v, linea) -> {
+            String error = ValidadorVehiculo.validarNuevo(v);
+            if (error != null) {
+                invalidas.put(linea, v.getPatente() + ",INVALIDA," + error);
+            } else {
+                validos.add(v);
+                lineasValidas.add(linea);
+            }
+        }, (motivo, linea) -> invalidas.put(linea, ",INVALIDA," + motivo));
+        if (validos.isEmpty()) {
+            responder(e, 400, TIPO_TEXTO, "No se recibió ningún vehículo válido\n" + lineas(invalidas));
+            return;
+        }
+        InformeLote<ResultadoAlta> informe = service.agregarVehiculos(validos);
+        TreeMap<Integer, String> resultados = new TreeMap<>(invalidas);
+        for (int i = 0; i < informe.getCantidad(); i++) {
+            resultados.put(lineasValidas.get(i), informe.getPatente(i) + "," + informe.getResultado(i));
+        }
+        int estado = informe.getExitosos() == 0 ? 409 : (resultados.size() == informe.getExitosos() ? 201 : 200);
+        String resumen = informe + (invalidas.isEmpty() ? "" : ", " + invalidas.size() + " líneas inválidas");
+        responder(e, estado, TIPO_TEXTO, resumen + "\n" + lineas(resultados));
+    }
+
+    /**
+     * Una línea {@code numero,patente,resultado[,motivo]} por cada línea del cuerpo, en orden.
+     */
+    private static String lineas(Map<Integer, String> resultados) {
+        StringBuilder sb = new StringBuilder();
+        resultados.forEach((linea, resultado) -> sb.append(linea).append(',').append(resultado).append('\n'));
+        return sb.toString();
+    }
+
+    private void actualizarValor(HttpExchange e) throws IOException {
+        Map<String, String> parametros = parametros(e);
+        int valor;
+        try {
+            valor = Integer.parseInt(parametros.getOrDefault("valorDiario", ""));
+        } catch (NumberFormatException ex) {
+            responder(e, 400, TIPO_TEXTO, "El valor diario debe ser un número\n");
+            return;
+        }
+        Vehiculo v = service.buscarVehiculo(parametros.get("patente"));
+        if (v == null) {
+            responder(e, 404, TIPO_TEXTO, "No existe un vehículo con esa patente\n");
+        } else if (!service.actualizarValorDiario(v, valor)) {
+            responder(e, 400, TIPO_TEXTO, "El valor diario debe ser mayor a cero\n");
+        } else {
+            responder(e, 200, TIPO_CSV, csv(List.of(v)));
+        }
+    }
+
+    private void arriendos(HttpExchange e) throws IOException {
+        try (e) {
+            String ruta = e.getRequestURI().getPath();
+            if (ruta.equals("/arriendos/largos")) {
+                listar(e, service.filtrarArriendosLargos());
+                return;
+            }
+            if (ruta.equals("/arriendos/cortos")) {
+                listar(e, service.filtrarArriendosCortos());
+                return;
+            }
+            if (!e.getRequestMethod().equals("POST")) {
+                responder(e, 405, TIPO_TEXTO, "Método no permitido\n");
+                return;
+            }
+            Map<String, String> parametros = parametros(e);
+            if (!parametros.containsKey("patente")) {
+                arrendarLote(e);
+                return;
+            }
+            int dias;
+            try {
+                dias = Integer.parseInt(parametros.getOrDefault("dias", ""));
+            } catch (NumberFormatException ex) {
+                responder(e, 400, TIPO_TEXTO, "Los días de arriendo deben ser un número\n");
+                return;
+            }
+            ResultadoArriendo resultado = service.arrendarVehiculo(parametros.get("patente"), dias);
+            responder(e, estado(resultado), TIPO_TEXTO, resultado + "\n");
+        }
+    }
+
+    /**
+     * Arrienda el lote del cuerpo, una solicitud {@code patente,dias} por línea.
+     */
+    private void arrendarLote(HttpExchange e) throws IOException {
+        String cuerpo;
+        try (InputStream in = e.getRequestBody()) {
+            cuerpo = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<SolicitudArriendo> solicitudes = new ArrayList<>();
+        for (String linea : cuerpo.split("\\R")) {
+            if (linea.isBlank()) {
+                continue;
+            }
+            String[] campos = linea.split(",");
+            try {
+                solicitudes.add(new SolicitudArriendo(campos[0].trim(), Integer.parseInt(campos[1].trim())));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                responder(e, 400, TIPO_TEXTO, "Línea inválida, se esperaba patente,dias: " + linea + "\n");
+                return;
+            }
+        }
+        InformeLote<ResultadoArriendo> informe = service.arrendarVehiculos(solicitudes);
+        responder(e, informe.getExitosos() > 0 || informe.getCantidad() == 0 ? 200 : 409, TIPO_TEXTO, informe(informe));
+    }
+
+    /**
+     * Una línea de resumen seguida de una línea {@code patente,resultado} por elemento del lote.
+     */
+    private static String informe(InformeLote<?> informe) {
+        StringBuilder sb = new StringBuilder(informe.toString()).append('\n');
+        for (int i = 0; i < informe.getCantidad(); i++) {
+            sb.append(informe.getPatente(i)).append(',').append(informe.getResultado(i)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void disponibles(HttpExchange e) throws IOException {
+        Map<String, String> parametros = parametros(e);
+        if (!parametros.containsKey("desde") && !parametros.containsKey("hasta")) {
+            listar(e, service.listarVehiculosDisponibles());
+            return;
+        }
+        try (e) {
+            LocalDate desde;
+            LocalDate hasta;
+            try {
+                desde = LocalDate.parse(parametros.getOrDefault("desde", ""));
+                hasta = LocalDate.parse(parametros.getOrDefault("hasta", ""));
+            } catch (DateTimeParseException ex) {
+                responder(e, 400, TIPO_TEXTO, "Las fechas deben tener el formato AAAA-MM-DD\n");
+                return;
+            }
+            if (!desde.isBefore(hasta)) {
+                responder(e, 400, TIPO_TEXTO, "La fecha desde debe ser anterior a hasta\n");
+                return;
+            }
+            List<? extends Vehiculo> libres = switch (parametros.getOrDefault("tipo", "")) {
+                case "pasajeros" -> service.listarPasajerosLibres(desde, hasta);
+                case "carga" -> service.listarCargaLibres(desde, hasta);
+                default -> service.listarVehiculosLibres(desde, hasta);
+            };
+            responder(e, 200, TIPO_CSV, csv(libres));
+        }
+    }
+
+    private void reservas(HttpExchange e) throws IOException {
+        try (e) {
+            Map<String, String> parametros = parametros(e);
+            String patente = parametros.get("patente");
+            if (e.getRequestMethod().equals("GET")) {
+                StringBuilder sb = new StringBuilder("PATENTE,DESDE,HASTA\n");
+                for (Reserva r : service.listarReservas(patente)) {
+                    sb.append(r).append('\n');
+                }
+                responder(e, 200, TIPO_CSV, sb.toString());
+                return;
+            }
+            LocalDate desde;
+            LocalDate hasta;
+            try {
+                desde = LocalDate.parse(parametros.getOrDefault("desde", ""));
+                hasta = e.getRequestMethod().equals("DELETE") ? null : LocalDate.parse(parametros.getOrDefault("hasta", ""));
+            } catch (DateTimeParseException ex) {
+                responder(e, 400, TIPO_TEXTO, "Las fechas deben tener el formato AAAA-MM-DD\n");
+                return;
+            }
+            switch (e.getRequestMethod()) {
+                case "POST" -> {
+                    ResultadoArriendo resultado = service.reservarVehiculo(patente, desde, hasta);
+                    responder(e, estado(resultado), TIPO_TEXTO, resultado + "\n");
+                }
+                case "DELETE" -> {
+                    boolean cancelada = service.cancelarReserva(patente, desde);
+                    responder(e, cancelada ? 200 : 404, TIPO_TEXTO, cancelada ? "CANCELADA\n" : "NO_ENCONTRADA\n");
+                }
+                default -> responder(e, 405, TIPO_TEXTO, "Método no permitido\n");
+            }
+        }
+    }
+
+    private static int estado(ResultadoArriendo resultado) {
+        return switch (resultado) {
+            case EXITO -> 200;
+            case CONFLICTO -> 409;
+            case NO_ENCONTRADO -> 404;
+            case DIAS_INVALIDOS -> 400;
+        };
+    }
+
+    private void boletas(HttpExchange e) throws IOException {
+        try (e) {
+            StringBuilder sb = new StringBuilder("TIPO,PATENTE,DIAS_ARRIENDO,SUBTOTAL,DESCUENTO,IMPUESTO,TOTAL\n");
+            for (Boleta b : service.calcularBoletasEmitidas()) {
+                sb.append(b.getTipo()).append(',').append(b.getPatente()).append(',').append(b.getDiasArriendo())
+                        .append(',').append(b.getSubtotal()).append(',').append(b.getDescuento())
+                        .append(',').append(b.getImpuesto()).append(',').append(b.getTotal()).append('\n');
+            }
+            for (String tipo : new String[] {Boleta.TIPO_PASAJEROS, Boleta.TIPO_CARGA}) {
+                ResumenBoletas r = service.getAnalitica().porTipo(tipo).getResumenBoletas();
+                sb.append("TOTAL_").append(tipo).append(',').append(r.getCantidad()).append(",,")
+                        .append(r.getSubtotal()).append(',').append(r.getDescuento()).append(',')
+                        .append(r.getImpuesto()).append(',').append(r.getTotal()).append('\n');
+            }
+            responder(e, 200, TIPO_CSV, sb.toString());
+        }
+    }
+
+    private void ranking(HttpExchange e) throws IOException {
+        try (e) {
+            Map<String, String> parametros = parametros(e);
+            CriterioRanking criterio;
+            int k;
+            try {
+                criterio = CriterioRanking.valueOf(parametros.getOrDefault("criterio", "valor_diario").toUpperCase(Locale.ROOT));
+                k = Math.min(TAMANO_PAGINA_MAXIMO, Integer.parseInt(parametros.getOrDefault("k", "10")));
+            } catch (IllegalArgumentException ex) {
+                responder(e, 400, TIPO_TEXTO, "Parámetros inválidos: " + ex.getMessage() + "\n");
+                return;
+            }
+            if (k < 0) {
+                responder(e, 400, TIPO_TEXTO, "k no puede ser negativo\n");
+                return;
+            }
+            List<? extends Vehiculo> top = switch (parametros.getOrDefault("tipo", "")) {
+                case "pasajeros" -> service.topPasajeros(criterio, k);
+                case "carga" -> service.topCarga(criterio, k);
+                default -> service.topVehiculos(criterio, k);
+            };
+            responder(e, 200, TIPO_CSV, csv(top));
+        }
+    }
+
+    private void rango(HttpExchange e) throws IOException {
+        try (e) {
+            Map<String, String> parametros = parametros(e);
+            int minimo;
+            int maximo;
+            try {
+                minimo = Integer.parseInt(parametros.getOrDefault("minimo", String.valueOf(Integer.MIN_VALUE)));
+                maximo = Integer.parseInt(parametros.getOrDefault("maximo", String.valueOf(Integer.MAX_VALUE)));
+            } catch (NumberFormatException ex) {
+                responder(e, 400, TIPO_TEXTO, "Los límites del rango deben ser números\n");
+                return;
+            }
+            String tipo = parametros.getOrDefault("tipo", "");
+            List<? extends Vehiculo> vehiculos = switch (parametros.getOrDefault("campo", "valor_diario")) {
+                case "valor_diario" -> switch (tipo) {
+                    case "pasajeros" -> service.listarPasajerosPorValorDiario(minimo, maximo);
+                    case "carga" -> service.listarCargaPorValorDiario(minimo, maximo);
+                    default -> service.listarPorValorDiario(minimo, maximo);
+                };
+                case "anio" -> switch (tipo) {
+                    case "pasajeros" -> service.listarPasajerosPorAnio(minimo, maximo);
+                    case "carga" -> service.listarCargaPorAnio(minimo, maximo);
+                    default -> service.listarPorAnio(minimo, maximo);
+                };
+                default -> null;
+            };
+            if (vehiculos == null) {
+                responder(e, 400, TIPO_TEXTO, "El campo debe ser valor_diario o anio\n");
+                return;
+            }
+            responder(e, 200, TIPO_CSV, csv(vehiculos));
+        }
+    }
+
+    private void sugerencias(HttpExchange e) throws IOException {
+        try (e) {
+            StringBuilder sb = new StringBuilder();
+            for (String sugerencia : service.sugerirMarcaModelo(parametros(e).get("texto"), SUGERENCIAS)) {
+                sb.append(sugerencia).append('\n');
+            }
+            responder(e, 200, TIPO_TEXTO, sb.toString());
+        }
+    }
+
+    private void busqueda(HttpExchange e) throws IOException {
+        try (e) {
+            Map<String, String> parametros = parametros(e);
+            int limite;
+            try {
+                limite = Math.min(TAMANO_PAGINA_MAXIMO,
+                        Integer.parseInt(parametros.getOrDefault("limite", String.valueOf(TAMANO_PAGINA_POR_DEFECTO))));
+            } catch (NumberFormatException ex) {
+                responder(e, 400, TIPO_TEXTO, "El límite debe ser un número\n");
+                return;
+            }
+            responder(e, 200, TIPO_CSV, csv(service.buscarPorMarcaModelo(parametros.get("texto"), limite)));
+        }
+    }
+
+    private void listar(HttpExchange e, List<? extends Vehiculo> vehiculos) throws IOException {
+        try (e) {
+            responder(e, 200, TIPO_CSV, csv(vehiculos));
+        }
+    }
+
+    private static String csv(List<? extends Vehiculo> vehiculos) {
+        StringBuilder sb = new StringBuilder(64 * (vehiculos.size() + 1));
+        sb.append(FileIOUtil.CABECERA_CSV).append('\n');
+        for (Vehiculo v : vehiculos) {
+            sb.append(FileIOUtil.filaCSV(v)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> parametros(HttpExchange e) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = e.getRequestURI().getRawQuery();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    private static void responder(HttpExchange e, int estado, String tipo, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        e.getResponseHeaders().set("Content-Type", tipo);
+        e.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream out = e.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
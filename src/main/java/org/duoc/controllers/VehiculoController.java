@@ -1,13 +1,29 @@
 package org.duoc.controllers;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
+import org.duoc.models.Boleta;
+import org.duoc.models.InformeLote;
+import org.duoc.models.Pagina;
+import org.duoc.models.Reserva;
+import org.duoc.models.ResultadoAlta;
+import org.duoc.models.ResultadoArriendo;
+import org.duoc.models.ResumenBoletas;
 import org.duoc.models.Vehiculo;
 import org.duoc.models.VehiculoCarga;
 import org.duoc.models.VehiculoPasajeros;
+import org.duoc.services.ArchivoFlotaPerezoso;
 import org.duoc.services.VehiculoService;
+import org.duoc.utils.BitacoraVehiculos;
 import org.duoc.utils.FileIOUtil;
+import org.duoc.utils.MetricasFlota;
+import org.duoc.utils.SnapshotBinario;
+import org.duoc.utils.ValidadorVehiculo;
 
 /**
  * Controlador para la gestión de vehículos en DriveQuest Rentals.
@@ -15,13 +31,27 @@ import org.duoc.utils.FileIOUtil;
  * permitiendo agregar, arrendar, listar, filtrar y persistir vehículos de pasajeros y carga.
  */
 public class VehiculoController {
+    /** Entradas mínimas de la bitácora antes de compactarla en un snapshot. */
+    private static final int MINIMO_COMPACTACION = 1000;
+
     private final VehiculoService service;
+    private final MetricasFlota metricas = MetricasFlota.getInstancia();
+    private BitacoraVehiculos bitacora;
+    private ArchivoFlotaPerezoso archivoPerezoso;
 
     // Constructor que inicializa el servicio de vehículos
     public VehiculoController() {
         this.service = new VehiculoService();
     }
 
+    /**
+     * Servicio de vehículos del controlador, para compartirlo con otros puntos de entrada como el servidor HTTP.
+     * @return Servicio de vehículos.
+     */
+    public VehiculoService getService() {
+        return service;
+    }
+
     // Clase interna para manejar los datos comunes de un vehículo
     public static class DatosVehiculo {
         public String patente;
@@ -47,8 +77,7 @@ public class VehiculoController {
         try {
             System.out.print("Capacidad pasajeros: ");
             int capacidad = Integer.parseInt(scanner.nextLine());
-            if (capacidad <= 0) {
-                System.out.println("La capacidad de pasajeros debe ser mayor a cero.");
+            if (!valido(ValidadorVehiculo.validarCapacidad(capacidad, true))) {
                 return false;
             }
             VehiculoPasajeros v = new VehiculoPasajeros(
@@ -81,8 +110,7 @@ public class VehiculoController {
         try {
             System.out.print("Capacidad carga: ");
             int capacidad = Integer.parseInt(scanner.nextLine());
-            if (capacidad <= 0) {
-                System.out.println("La capacidad de carga debe ser mayor a cero.");
+            if (!valido(ValidadorVehiculo.validarCapacidad(capacidad, false))) {
                 return false;
             }
             VehiculoCarga v = new VehiculoCarga(
@@ -103,42 +131,154 @@ public class VehiculoController {
     }
 
     /**
-     * Carga los vehículos desde un archivo CSV en un hilo sincronizado.
-     * @param ruta Ruta del archivo CSV de origen.
+     * Carga los vehículos desde un archivo CSV o desde un snapshot binario (extensión {@value SnapshotBinario#EXTENSION}).
+     * Las reservas guardadas en un snapshot se registran después de agregar los vehículos.
+     * Un CSV se divide en bloques que se parsean en paralelo (fork/join) y luego se
+     * registran en el servicio como un solo lote en el orden del archivo, de modo que ante patentes
+     * duplicadas se conserva siempre la primera aparición.
+     * @param ruta Ruta del archivo de origen.
      */
     public void cargarVehiculos(String ruta) {
-        Thread hilo = new Thread(() -> {
-            synchronized (service.getVehiculosMap()) {
-                try {
-                    System.out.println("Cargando vehículos...");
-                    FileIOUtil.cargarVehiculosCSV(service.getVehiculosMap(), ruta);
-                    System.out.println(service.getVehiculosMap().size()+" vehículos cargados correctamente.");
-                } catch (Exception e) {
-                    System.out.println("Error al cargar vehículos: " + e.getMessage());
-                }
+        try {
+            System.out.println("Cargando vehículos...");
+            long inicio = metricas.inicio();
+            List<Reserva> reservas = new ArrayList<>();
+            List<Vehiculo> leidos = SnapshotBinario.esSnapshotBinario(ruta)
+                    ? FileIOUtil.cargarVehiculosBinario(ruta, reservas::add)
+                    : FileIOUtil.cargarVehiculosCSVParalelo(ruta);
+            InformeLote<ResultadoAlta> informe = service.agregarVehiculos(leidos);
+            metricas.registrarCarga(inicio, leidos.size());
+            System.out.println(service.getVehiculosMap().size()+" vehículos cargados correctamente.");
+            if (!reservas.isEmpty()) {
+                restaurarReservas(reservas);
+            }
+            if (informe.getRechazados() > 0) {
+                System.out.println("Vehículos del archivo agregados: " + informe);
+            }
+        } catch (Exception e) {
+            System.out.println("Error al cargar vehículos: " + e.getMessage());
+        }
+    }
+
+    private void restaurarReservas(List<Reserva> reservas) {
+        int restauradas = 0;
+        for (Reserva r : reservas) {
+            if (service.reservarVehiculo(r.getPatente(), r.getDesde(), r.getHasta()) == ResultadoArriendo.EXITO) {
+                restauradas++;
+            }
+        }
+        System.out.println(restauradas + " reservas cargadas correctamente.");
+    }
+
+    /**
+     * Abre el CSV de vehículos en modo perezoso: solo se indexa, en segundo plano, y cada vehículo se lee al consultarlo.
+     * @param ruta Ruta del CSV de origen.
+     */
+    public void cargarVehiculosPerezosa(String ruta) {
+        try {
+            archivoPerezoso = service.abrirPerezosa(ruta);
+            System.out.println("Flota abierta en modo perezoso: los vehículos se leerán a medida que se consulten.");
+        } catch (IOException e) {
+            System.out.println("Error al cargar vehículos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recupera la flota cargándola completa y activa la bitácora de cambios.
+     * @param rutaCSV Ruta del CSV inicial, usado solo si aún no hay snapshot.
+     * @param rutaBitacora Ruta base de la bitácora.
+     * @see #iniciarBitacora(String, String, boolean)
+     */
+    public void iniciarBitacora(String rutaCSV, String rutaBitacora) {
+        iniciarBitacora(rutaCSV, rutaBitacora, false);
+    }
+
+    /**
+     * Recupera la flota y activa la bitácora de cambios.
+     * Si existe un snapshot compactado se carga en lugar del CSV inicial, con sus reservas; luego se reproducen
+     * las entradas de la bitácora. Desde ese momento cada alta, arriendo, cambio de valor y reserva se persiste al instante.
+     * El modo perezoso aplica solo al CSV; un snapshot se carga siempre completo.
+     * @param rutaCSV Ruta del CSV inicial, usado solo si aún no hay snapshot.
+     * @param rutaBitacora Ruta base de la bitácora.
+     * @param perezosa true para abrir el CSV en modo perezoso.
+     */
+    public void iniciarBitacora(String rutaCSV, String rutaBitacora, boolean perezosa) {
+        Path snapshot = BitacoraVehiculos.rutaSnapshot(rutaBitacora);
+        if (Files.exists(snapshot)) {
+            cargarVehiculos(snapshot.toString());
+        } else if (perezosa) {
+            cargarVehiculosPerezosa(rutaCSV);
+        } else {
+            cargarVehiculos(rutaCSV);
+        }
+        // Las altas ya incluidas en el snapshot se omiten: reproducir la bitácora es idempotente
+        int entradas = BitacoraVehiculos.reproducir(rutaBitacora, v -> {
+            if (service.buscarVehiculo(v.getPatente()) == null) {
+                service.addVehiculo(v);
+            }
+        }, (patente, dias) -> {
+            Vehiculo v = service.buscarVehiculo(patente);
+            if (v != null) {
+                service.actualizarDiasArriendo(v, dias);
             }
-        });
-        hilo.setName("CargaVehiculosThread");
-        hilo.start();
+        }, (patente, valor) -> service.actualizarValorDiario(service.buscarVehiculo(patente), valor),
+                // Una reserva ya incluida en el snapshot choca consigo misma y se descarta
+                r -> service.reservarVehiculo(r.getPatente(), r.getDesde(), r.getHasta()),
+                r -> service.cancelarReserva(r.getPatente(), r.getDesde()));
+        if (entradas > 0) {
+            System.out.println(entradas + " cambios recuperados desde la bitácora.");
+        }
         try {
-            hilo.join();
-        } catch (InterruptedException e) {
-            System.out.println("La carga fue interrumpida.");
+            bitacora = new BitacoraVehiculos(rutaBitacora, MINIMO_COMPACTACION, () -> service.getVehiculosMap().values(),
+                    () -> service.getAgendaReservas().listarTodas());
+            service.agregarRegistroCambios(bitacora);
+        } catch (IOException e) {
+            System.out.println("Error al abrir la bitácora, los cambios no se persistirán: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra la bitácora, esperando que se escriban los cambios pendientes.
+     */
+    public void cerrarBitacora() {
+        if (bitacora != null) {
+            service.quitarRegistroCambios(bitacora);
+            bitacora.close();
+            bitacora = null;
         }
     }
 
     /**
-     * Guarda los vehículos en un archivo CSV de forma sincronizada.
-     * @param ruta Ruta del archivo CSV de destino.
+     * Cierra el archivo abierto en modo perezoso, si lo hay.
+     */
+    public void cerrarArchivoPerezoso() {
+        if (archivoPerezoso != null) {
+            archivoPerezoso.close();
+            archivoPerezoso = null;
+        }
+    }
+
+    /**
+     * Guarda los vehículos en un archivo CSV, o en un snapshot binario si la ruta
+     * termina en {@value SnapshotBinario#EXTENSION}.
+     * Recorre una vista débilmente consistente del mapa concurrente, sin bloquear a otros hilos.
+     * En modo perezoso, el CSV se escribe copiando las líneas del archivo original que no cambiaron.
+     * @param ruta Ruta del archivo de destino.
      */
     public void guardarVehiculos(String ruta) {
-        synchronized (service.getVehiculosMap()) {
-            try {
+        try {
+            long inicio = metricas.inicio();
+            if (SnapshotBinario.esSnapshotBinario(ruta)) {
+                FileIOUtil.guardarVehiculosBinario(service.getVehiculosMap().values(), ruta);
+            } else if (archivoPerezoso != null) {
+                archivoPerezoso.escribir(ruta);
+            } else {
                 FileIOUtil.guardarVehiculosCSV(service.getVehiculosMap().values(), ruta);
-                System.out.println("Vehículos guardados correctamente.");
-            } catch (Exception e) {
-                System.out.println("Error al guardar vehículos: " + e.getMessage());
             }
+            metricas.registrar(MetricasFlota.Operacion.GUARDAR, inicio);
+            System.out.println("Vehículos guardados correctamente.");
+        } catch (Exception e) {
+            System.out.println("Error al guardar vehículos: " + e.getMessage());
         }
     }
 
@@ -166,6 +306,52 @@ public class VehiculoController {
         return service.listarVehiculosCarga();
     }
 
+    /**
+     * Obtiene una página de todos los vehículos, ordenados por patente.
+     * @param cursor Cursor de la página anterior, o null para la primera página.
+     * @param tamano Cantidad máxima de vehículos de la página.
+     * @return Página de vehículos.
+     */
+    public Pagina<Vehiculo> paginarTodos(String cursor, int tamano) {
+        return service.paginarVehiculos(cursor, tamano, null);
+    }
+
+    /**
+     * Obtiene una página de vehículos de pasajeros, ordenados por patente.
+     * @param cursor Cursor de la página anterior, o null para la primera página.
+     * @param tamano Cantidad máxima de vehículos de la página.
+     * @return Página de VehiculoPasajeros.
+     */
+    public Pagina<VehiculoPasajeros> paginarPasajeros(String cursor, int tamano) {
+        return service.paginarPasajeros(cursor, tamano);
+    }
+
+    /**
+     * Obtiene una página de vehículos de carga, ordenados por patente.
+     * @param cursor Cursor de la página anterior, o null para la primera página.
+     * @param tamano Cantidad máxima de vehículos de la página.
+     * @return Página de VehiculoCarga.
+     */
+    public Pagina<VehiculoCarga> paginarCarga(String cursor, int tamano) {
+        return service.paginarCarga(cursor, tamano);
+    }
+
+    /**
+     * Lista los vehículos de pasajeros disponibles para arriendo.
+     * @return Lista de VehiculoPasajeros disponibles.
+     */
+    public List<VehiculoPasajeros> listarPasajerosDisponibles() {
+        return service.listarPasajerosDisponibles();
+    }
+
+    /**
+     * Lista los vehículos de carga disponibles para arriendo.
+     * @return Lista de VehiculoCarga disponibles.
+     */
+    public List<VehiculoCarga> listarCargaDisponibles() {
+        return service.listarCargaDisponibles();
+    }
+
     /**
      * Filtra vehículos con arriendo largo (>= 7 días).
      * @return Lista de vehículos con arriendo largo.
@@ -174,6 +360,26 @@ public class VehiculoController {
         return service.filtrarArriendosLargos();
     }
 
+    /**
+     * Sugiere marcas y modelos que completan el texto ingresado, tolerando errores de tipeo.
+     * @param texto Texto ingresado.
+     * @param limite Cantidad máxima de sugerencias.
+     * @return Lista de marcas y modelos.
+     */
+    public List<String> sugerirMarcaModelo(String texto, int limite) {
+        return service.sugerirMarcaModelo(texto, limite);
+    }
+
+    /**
+     * Busca vehículos por marca o modelo, o por su comienzo.
+     * @param texto Texto ingresado.
+     * @param limite Cantidad máxima de vehículos.
+     * @return Lista de vehículos encontrados.
+     */
+    public List<Vehiculo> buscarPorMarcaModelo(String texto, int limite) {
+        return service.buscarPorMarcaModelo(texto, limite);
+    }
+
     /**
      * Filtra vehículos con arriendo corto (<= 6 días).
      * @return Lista de vehículos con arriendo corto.
@@ -183,10 +389,17 @@ public class VehiculoController {
     }
 
     /**
-     * Muestra las boletas de todos los vehículos registrados.
+     * Muestra las boletas de todos los vehículos registrados y los totales por tipo de vehículo.
+     * Los totales se leen de la analítica incremental, sin recalcular las boletas.
      */
     public void mostrarBoletas() {
         service.mostrarBoletasEmitidas();
+        for (String tipo : new String[] {Boleta.TIPO_PASAJEROS, Boleta.TIPO_CARGA}) {
+            ResumenBoletas resumen = service.getAnalitica().porTipo(tipo).getResumenBoletas();
+            if (resumen.getCantidad() > 0) {
+                System.out.println("Total " + tipo + ": " + resumen.getCantidad() + " boletas, $" + resumen.getTotal());
+            }
+        }
     }
 
     /**
@@ -200,42 +413,33 @@ public class VehiculoController {
         try {
             System.out.print("Patente: ");
             datos.patente = scanner.nextLine().trim();
-            if (datos.patente.isEmpty()) {
-                System.out.println("La patente no puede estar vacía.");
-                return null;
-            } else if (datos.patente.length() < 6 || datos.patente.length() > 8) {
-                System.out.println("La patente debe tener entre 6 y 8 caracteres.");
+            if (!valido(ValidadorVehiculo.validarPatente(datos.patente))) {
                 return null;
             }
             System.out.print("Marca: ");
             datos.marca = scanner.nextLine().trim();
-            if (datos.marca.isEmpty()) {
-                System.out.println("La marca no puede estar vacía.");
+            if (!valido(ValidadorVehiculo.validarMarca(datos.marca))) {
                 return null;
             }
             System.out.print("Modelo: ");
             datos.modelo = scanner.nextLine().trim();
-            if (datos.modelo.isEmpty()) {
-                System.out.println("El modelo no puede estar vacío.");
+            if (!valido(ValidadorVehiculo.validarModelo(datos.modelo))) {
                 return null;
             }
             datos.diasArriendo = 0;
             System.out.print("Valor diario: ");
             datos.valorDiario = Integer.parseInt(scanner.nextLine());
-            if (datos.valorDiario <= 0) {
-                System.out.println("El valor diario debe ser mayor a cero.");
+            if (!valido(ValidadorVehiculo.validarValorDiario(datos.valorDiario))) {
                 return null;
             }
             System.out.print("Puertas: ");
             datos.puertas = Integer.parseInt(scanner.nextLine());
-            if (datos.puertas <= 0) {
-                System.out.println("El número de puertas debe ser mayor a cero.");
+            if (!valido(ValidadorVehiculo.validarPuertas(datos.puertas))) {
                 return null;
             }
             System.out.print("Año: ");
             datos.anio = Integer.parseInt(scanner.nextLine());
-            if (datos.anio < 1900 || datos.anio > java.time.Year.now().getValue()) {
-                System.out.println("El año debe estar entre 1900 y el actual.");
+            if (!valido(ValidadorVehiculo.validarAnio(datos.anio))) {
                 return null;
             }
         } catch (NumberFormatException e) {
@@ -249,6 +453,18 @@ public class VehiculoController {
         return datos;
     }
 
+    /**
+     * Informa por consola el error de validación, si lo hay.
+     * @param error Mensaje devuelto por {@link ValidadorVehiculo}, o null.
+     * @return true si el dato es válido.
+     */
+    private static boolean valido(String error) {
+        if (error != null) {
+            System.out.println(error);
+        }
+        return error == null;
+    }
+
     /**
      * Realiza el proceso de arriendo de un vehículo de pasajeros por patente.
      * Solicita los días de arriendo y muestra la boleta si el arriendo es exitoso.
@@ -257,15 +473,8 @@ public class VehiculoController {
      * @return true si el arriendo fue exitoso, false en caso contrario.
      */
     public boolean arrendarVehiculoPasajeros(String patente, Scanner sc) {
-        VehiculoPasajeros v = null;
-        // Buscar el vehículo por patente
-        for (VehiculoPasajeros vp : listarPasajeros()) {
-            if (vp.getPatente().equalsIgnoreCase(patente)) {
-                v = vp;
-                break;
-            }
-        }
-        if (v == null) {
+        // Buscar el vehículo por patente en el índice del servicio
+        if (!(service.buscarVehiculo(patente) instanceof VehiculoPasajeros v)) {
             System.out.println("No se encontró un vehículo de pasajeros con esa patente.");
             return false;
         }
@@ -280,7 +489,11 @@ public class VehiculoController {
                 System.out.println("Los días deben ser mayores a cero.");
                 return false;
             }
-            v.setDiasArriendo(dias);
+            // Reserva atómica: otro agente pudo arrendarlo mientras se ingresaban los días
+            if (service.arrendarVehiculo(v.getPatente(), dias) != ResultadoArriendo.EXITO) {
+                System.out.println("El vehículo ya está arrendado.");
+                return false;
+            }
             v.mostrarBoleta();   // Muestra la boleta
             return true;
         } catch (NumberFormatException e) {
@@ -297,15 +510,8 @@ public class VehiculoController {
      * @return true si el arriendo fue exitoso, false en caso contrario.
      */
     public boolean arrendarVehiculoCarga(String patente, Scanner sc) {
-        VehiculoCarga v = null;
-        // Buscar el vehículo por patente
-        for (VehiculoCarga vc : listarCarga()) {
-            if (vc.getPatente().equalsIgnoreCase(patente)) {
-                v = vc;
-                break;
-            }
-        }
-        if (v == null) {
+        // Buscar el vehículo por patente en el índice del servicio
+        if (!(service.buscarVehiculo(patente) instanceof VehiculoCarga v)) {
             System.out.println("No se encontró un vehículo de carga con esa patente.");
             return false;
         }
@@ -320,7 +526,11 @@ public class VehiculoController {
                 System.out.println("Los días deben ser mayores a cero.");
                 return false;
             }
-            v.setDiasArriendo(dias);
+            // Reserva atómica: otro agente pudo arrendarlo mientras se ingresaban los días
+            if (service.arrendarVehiculo(v.getPatente(), dias) != ResultadoArriendo.EXITO) {
+                System.out.println("El vehículo ya está arrendado.");
+                return false;
+            }
             v.mostrarBoleta();
             return true;
         } catch (NumberFormatException e) {
@@ -1,14 +1,27 @@
 package org.duoc.interfaces;
 
+import org.duoc.models.Boleta;
+
 /**
- * Interfaz IBoleta que define los métodos para mostrar boletas de vehículos.
+ * Interfaz IBoleta que define los métodos para calcular y mostrar boletas de vehículos.
  * Incluye constantes para IVA y descuentos específicos para vehículos de carga y pasajeros.
+ * El cálculo ({@link #calcularBoleta()}) no tiene efectos secundarios; la impresión es opcional.
  */
 public interface IBoleta {
     double iva = 0.19;
     double dctoCarga = 0.07;
     double dctoPasajeros = 0.12;
 
+    Boleta calcularBoleta();
     void mostrarBoleta();
     void imprimirBoleta(int arriendo, int subtotal, int descuento, int imp, int total);
+
+    /**
+     * Imprime una boleta ya calculada con el formato del tipo de vehículo.
+     * @param boleta Boleta a imprimir.
+     */
+    default void imprimirBoleta(Boleta boleta) {
+        imprimirBoleta(boleta.getDiasArriendo(), boleta.getSubtotal(), boleta.getDescuento(),
+                boleta.getImpuesto(), boleta.getTotal());
+    }
 }
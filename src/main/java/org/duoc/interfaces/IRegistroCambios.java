@@ -0,0 +1,37 @@
+package org.duoc.interfaces;
+
+import java.util.List;
+
+import org.duoc.models.Reserva;
+import org.duoc.models.Vehiculo;
+
+/**
+ * Interfaz IRegistroCambios que recibe las modificaciones aplicadas a la flota.
+ * El servicio de vehículos la invoca después de cada alta, de cada cambio de arriendo y de cada cambio de valor diario,
+ * por ejemplo para persistirlos en una bitácora. Las operaciones por lotes entregan todos sus cambios
+ * en una sola llamada, para que el registro pueda aplicarlos con una única sincronización.
+ * Las reservas y sus cancelaciones también se informan; por defecto se ignoran, ya que no modifican los vehículos.
+ */
+public interface IRegistroCambios {
+    void vehiculoAgregado(Vehiculo vehiculo);
+    void arriendoActualizado(Vehiculo vehiculo);
+    void valorDiarioActualizado(Vehiculo vehiculo);
+
+    default void vehiculosAgregados(List<Vehiculo> vehiculos) {
+        for (Vehiculo v : vehiculos) {
+            vehiculoAgregado(v);
+        }
+    }
+
+    default void arriendosActualizados(List<Vehiculo> vehiculos) {
+        for (Vehiculo v : vehiculos) {
+            arriendoActualizado(v);
+        }
+    }
+
+    default void reservaCreada(Reserva reserva) {
+    }
+
+    default void reservaCancelada(Reserva reserva) {
+    }
+}
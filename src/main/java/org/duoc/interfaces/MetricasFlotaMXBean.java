@@ -0,0 +1,40 @@
+package org.duoc.interfaces;
+
+import org.duoc.utils.HistogramaLatencia;
+
+/**
+ * Interfaz de administración (MXBean) de las métricas de la flota.
+ * Se publica en el MBeanServer de la plataforma como {@code org.duoc:type=MetricasFlota},
+ * por lo que puede consultarse desde JConsole o VisualVM.
+ */
+public interface MetricasFlotaMXBean {
+    HistogramaLatencia.Resumen getAgregar();
+    HistogramaLatencia.Resumen getBuscar();
+    HistogramaLatencia.Resumen getArrendar();
+    HistogramaLatencia.Resumen getListar();
+    HistogramaLatencia.Resumen getCargar();
+    HistogramaLatencia.Resumen getGuardar();
+    HistogramaLatencia.Resumen getEsperaBitacora();
+    HistogramaLatencia.Resumen getAgregarLote();
+    HistogramaLatencia.Resumen getArrendarLote();
+    HistogramaLatencia.Resumen getActualizarValor();
+    HistogramaLatencia.Resumen getBuscarTexto();
+    HistogramaLatencia.Resumen getReservar();
+    HistogramaLatencia.Resumen getEsperaBloqueo();
+
+    long getFilasCargadas();
+    double getFilasPorSegundoUltimaCarga();
+
+    long getBoletasAciertos();
+    long getBoletasFallos();
+    long getBoletasInvalidadas();
+    double getTasaAciertosBoletas();
+
+    boolean isHabilitada();
+    void setHabilitada(boolean habilitada);
+
+    /**
+     * Descarta todas las muestras y contadores acumulados.
+     */
+    void reiniciar();
+}
@@ -0,0 +1,62 @@
+package org.duoc.models;
+
+/**
+ * Valores inmutables de una boleta de arriendo.
+ * Se calcula sin efectos secundarios a partir de los días de arriendo y el valor diario,
+ * por lo que puede generarse en paralelo, reutilizarse o imprimirse después.
+ */
+public final class Boleta {
+    public static final String TIPO_PASAJEROS = "PASAJEROS";
+    public static final String TIPO_CARGA = "CARGA";
+
+    private final String tipo;
+    private final String patente;
+    private final int diasArriendo;
+    private final int subtotal;
+    private final int descuento;
+    private final int impuesto;
+    private final int total;
+
+    private Boleta(String tipo, String patente, int diasArriendo, int subtotal, int descuento, int impuesto, int total) {
+        this.tipo = tipo;
+        this.patente = patente;
+        this.diasArriendo = diasArriendo;
+        this.subtotal = subtotal;
+        this.descuento = descuento;
+        this.impuesto = impuesto;
+        this.total = total;
+    }
+
+    /**
+     * Calcula una boleta: subtotal, descuento según el tipo, IVA sobre el subtotal con descuento y total.
+     * @param tipo Tipo de vehículo ({@link #TIPO_PASAJEROS} o {@link #TIPO_CARGA}).
+     * @param patente Patente del vehículo.
+     * @param diasArriendo Días de arriendo.
+     * @param valorDiario Valor diario del arriendo.
+     * @param tasaDescuento Tasa de descuento del tipo de vehículo.
+     * @param tasaIva Tasa de IVA.
+     * @return Boleta calculada.
+     */
+    public static Boleta calcular(String tipo, String patente, int diasArriendo, int valorDiario,
+                                  double tasaDescuento, double tasaIva) {
+        int subtotal = diasArriendo * valorDiario;
+        int descuento = (int) (subtotal * tasaDescuento);
+        int impuesto = (int) ((subtotal - descuento) * tasaIva);
+        int total = subtotal - descuento + impuesto;
+        return new Boleta(tipo, patente, diasArriendo, subtotal, descuento, impuesto, total);
+    }
+
+    public String getTipo() { return tipo; }
+
+    public String getPatente() { return patente; }
+
+    public int getDiasArriendo() { return diasArriendo; }
+
+    public int getSubtotal() { return subtotal; }
+
+    public int getDescuento() { return descuento; }
+
+    public int getImpuesto() { return impuesto; }
+
+    public int getTotal() { return total; }
+}
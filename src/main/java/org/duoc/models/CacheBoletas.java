@@ -0,0 +1,49 @@
+package org.duoc.models;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de la memorización de boletas por vehículo: cuántas veces se entregó la boleta guardada
+ * (aciertos), cuántas hubo que calcularla (fallos) y cuántas se descartó porque cambiaron los días o el
+ * valor diario (invalidaciones). Se publican por JMX junto con las métricas de la flota.
+ *
+ * @author Karla Santibáñez
+ */
+public final class CacheBoletas {
+    private static final LongAdder aciertos = new LongAdder();
+    private static final LongAdder fallos = new LongAdder();
+    private static final LongAdder invalidaciones = new LongAdder();
+
+    private CacheBoletas() {}
+
+    static void acierto() { aciertos.increment(); }
+
+    static void fallo() { fallos.increment(); }
+
+    static void invalidacion() { invalidaciones.increment(); }
+
+    public static long getAciertos() { return aciertos.sum(); }
+
+    public static long getFallos() { return fallos.sum(); }
+
+    public static long getInvalidaciones() { return invalidaciones.sum(); }
+
+    /**
+     * Proporción de boletas entregadas desde la memoria.
+     * @return Valor entre 0 y 1, o 0 si aún no se ha pedido ninguna boleta.
+     */
+    public static double getTasaAciertos() {
+        long a = aciertos.sum();
+        long total = a + fallos.sum();
+        return total == 0 ? 0 : (double) a / total;
+    }
+
+    /**
+     * Reinicia los contadores; las boletas ya memorizadas se conservan.
+     */
+    public static void reiniciar() {
+        aciertos.reset();
+        fallos.reset();
+        invalidaciones.reset();
+    }
+}
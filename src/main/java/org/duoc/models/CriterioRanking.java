@@ -0,0 +1,45 @@
+package org.duoc.models;
+
+import org.duoc.interfaces.IBoleta;
+
+/**
+ * Criterios para las consultas de los primeros K vehículos, de mayor a menor valor.
+ */
+public enum CriterioRanking {
+    /** Valor diario del arriendo. */
+    VALOR_DIARIO(false),
+    /** Días del arriendo en curso; solo considera vehículos arrendados. */
+    DIAS_ARRIENDO(true),
+    /** Total de la boleta del arriendo en curso; solo considera vehículos arrendados. */
+    TOTAL_BOLETA(true),
+    /** Año del modelo. */
+    ANIO(false);
+
+    private final boolean soloArrendados;
+
+    CriterioRanking(boolean soloArrendados) {
+        this.soloArrendados = soloArrendados;
+    }
+
+    /**
+     * Indica si el criterio solo tiene sentido para vehículos con un arriendo en curso.
+     * @return true si los vehículos disponibles quedan fuera del ranking.
+     */
+    public boolean isSoloArrendados() {
+        return soloArrendados;
+    }
+
+    /**
+     * Valor del vehículo según el criterio.
+     * @param v Vehículo.
+     * @return Valor a comparar; mayor es mejor.
+     */
+    public long valor(Vehiculo v) {
+        return switch (this) {
+            case VALOR_DIARIO -> v.getValorDiario();
+            case DIAS_ARRIENDO -> v.getDiasArriendo();
+            case TOTAL_BOLETA -> v.getDiasArriendo() > 0 && v instanceof IBoleta b ? b.calcularBoleta().getTotal() : 0;
+            case ANIO -> v.getAnio();
+        };
+    }
+}
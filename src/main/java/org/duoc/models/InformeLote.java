@@ -0,0 +1,79 @@
+package org.duoc.models;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Informe de una operación por lotes: el resultado de cada elemento, en el mismo orden del lote,
+ * y la cantidad de elementos con cada resultado.
+ * @param <R> Tipo del resultado de cada elemento.
+ */
+public final class InformeLote<R extends Enum<R>> {
+    private final List<String> patentes;
+    private final List<R> resultados;
+    private final Map<R, Integer> conteos;
+    private final R exito;
+
+    public InformeLote(List<String> patentes, List<R> resultados, R exito) {
+        this.patentes = Collections.unmodifiableList(patentes);
+        this.resultados = Collections.unmodifiableList(resultados);
+        this.exito = exito;
+        Map<R, Integer> conteos = new EnumMap<>(exito.getDeclaringClass());
+        for (R r : resultados) {
+            conteos.merge(r, 1, Integer::sum);
+        }
+        this.conteos = Collections.unmodifiableMap(conteos);
+    }
+
+    /**
+     * Cantidad de elementos del lote.
+     * @return Tamaño del lote.
+     */
+    public int getCantidad() { return resultados.size(); }
+
+    /**
+     * Patente del elemento en la posición indicada del lote.
+     * @param indice Posición en el lote.
+     * @return Patente tal como venía en el lote, o null si el elemento era nulo.
+     */
+    public String getPatente(int indice) { return patentes.get(indice); }
+
+    /**
+     * Resultado del elemento en la posición indicada del lote.
+     * @param indice Posición en el lote.
+     * @return Resultado del elemento.
+     */
+    public R getResultado(int indice) { return resultados.get(indice); }
+
+    public List<R> getResultados() { return resultados; }
+
+    /**
+     * Cantidad de elementos con un resultado dado.
+     * @param resultado Resultado a contar.
+     * @return Cantidad de elementos, 0 si ninguno.
+     */
+    public int contar(R resultado) { return conteos.getOrDefault(resultado, 0); }
+
+    public int getExitosos() { return contar(exito); }
+
+    public int getRechazados() { return getCantidad() - getExitosos(); }
+
+    /**
+     * Resume el lote en una línea, por ejemplo {@code "3 de 5 (CONFLICTO: 2)"}.
+     * @return Texto con los exitosos y la cantidad por cada motivo de rechazo.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(getExitosos()).append(" de ").append(getCantidad());
+        String separador = " (";
+        for (Map.Entry<R, Integer> e : conteos.entrySet()) {
+            if (e.getKey() != exito) {
+                sb.append(separador).append(e.getKey()).append(": ").append(e.getValue());
+                separador = ", ";
+            }
+        }
+        return getRechazados() > 0 ? sb.append(')').toString() : sb.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package org.duoc.models;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de un listado ordenado por patente.
+ * Para obtener la página siguiente se consulta de nuevo con {@link #getSiguienteCursor()}.
+ * @param <T> Tipo de los elementos de la página.
+ */
+public final class Pagina<T> {
+    private final List<T> elementos;
+    private final String siguienteCursor;
+
+    public Pagina(List<T> elementos, String siguienteCursor) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public List<T> getElementos() { return elementos; }
+
+    /**
+     * Devuelve el cursor para pedir la página siguiente.
+     * @return Patente del último elemento si la página quedó llena, o null si no hay más resultados.
+     */
+    public String getSiguienteCursor() { return siguienteCursor; }
+
+    public boolean hayMas() { return siguienteCursor != null; }
+}
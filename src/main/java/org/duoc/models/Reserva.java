@@ -0,0 +1,47 @@
+package org.duoc.models;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reserva de un vehículo para un rango de fechas: desde el día de inicio inclusive hasta el día
+ * de término exclusive, de modo que una reserva puede comenzar el mismo día en que termina otra.
+ */
+public final class Reserva {
+    private final String patente;
+    private final LocalDate desde;
+    private final LocalDate hasta;
+
+    public Reserva(String patente, LocalDate desde, LocalDate hasta) {
+        this.patente = patente;
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    public String getPatente() { return patente; }
+
+    public LocalDate getDesde() { return desde; }
+
+    public LocalDate getHasta() { return hasta; }
+
+    /**
+     * Días reservados.
+     * @return Cantidad de días entre el inicio y el término.
+     */
+    public int getDias() { return (int) ChronoUnit.DAYS.between(desde, hasta); }
+
+    /**
+     * Indica si la reserva comparte al menos un día con el rango indicado.
+     * @param desde Inicio del rango, inclusive.
+     * @param hasta Término del rango, exclusive.
+     * @return true si los rangos se traslapan.
+     */
+    public boolean seTraslapa(LocalDate desde, LocalDate hasta) {
+        return this.desde.isBefore(hasta) && desde.isBefore(this.hasta);
+    }
+
+    @Override
+    public String toString() {
+        return patente + "," + desde + "," + hasta;
+    }
+}
@@ -0,0 +1,17 @@
+package org.duoc.models;
+
+/**
+ * Resultado de agregar un vehículo dentro de un lote.
+ */
+public enum ResultadoAlta {
+    /** El vehículo se agregó a la flota. */
+    AGREGADO,
+    /** El elemento del lote era nulo. */
+    NULO,
+    /** El vehículo no tiene patente. */
+    PATENTE_VACIA,
+    /** La patente ya aparecía antes en el mismo lote; se conserva la primera aparición. */
+    DUPLICADO_EN_LOTE,
+    /** Ya existe en la flota un vehículo con la patente, posiblemente agregado por otro agente concurrente. */
+    PATENTE_EXISTENTE
+}
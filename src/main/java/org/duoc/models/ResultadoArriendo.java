@@ -0,0 +1,15 @@
+package org.duoc.models;
+
+/**
+ * Resultado de una operación de arriendo sobre un vehículo.
+ */
+public enum ResultadoArriendo {
+    /** El vehículo pasó de disponible a arrendado. */
+    EXITO,
+    /** El vehículo ya estaba arrendado, posiblemente por otro agente concurrente. */
+    CONFLICTO,
+    /** No existe un vehículo con la patente indicada. */
+    NO_ENCONTRADO,
+    /** Los días de arriendo solicitados no son válidos. */
+    DIAS_INVALIDOS
+}
@@ -0,0 +1,66 @@
+package org.duoc.models;
+
+/**
+ * Totales inmutables de un conjunto de boletas.
+ * Se combinan con {@link #sumar(ResumenBoletas)}, por lo que sirven como reducción en streams paralelos.
+ */
+public final class ResumenBoletas {
+    /** Resumen sin boletas, elemento neutro de la suma. */
+    public static final ResumenBoletas VACIO = new ResumenBoletas(0, 0, 0, 0, 0);
+
+    private final long cantidad;
+    private final long subtotal;
+    private final long descuento;
+    private final long impuesto;
+    private final long total;
+
+    private ResumenBoletas(long cantidad, long subtotal, long descuento, long impuesto, long total) {
+        this.cantidad = cantidad;
+        this.subtotal = subtotal;
+        this.descuento = descuento;
+        this.impuesto = impuesto;
+        this.total = total;
+    }
+
+    /**
+     * Crea el resumen de una sola boleta.
+     * @param boleta Boleta a resumir.
+     * @return Resumen con cantidad 1 y los montos de la boleta.
+     */
+    public static ResumenBoletas de(Boleta boleta) {
+        return new ResumenBoletas(1, boleta.getSubtotal(), boleta.getDescuento(), boleta.getImpuesto(), boleta.getTotal());
+    }
+
+    /**
+     * Crea un resumen a partir de totales ya acumulados.
+     * @param cantidad Cantidad de boletas.
+     * @param subtotal Suma de los subtotales.
+     * @param descuento Suma de los descuentos.
+     * @param impuesto Suma de los impuestos.
+     * @param total Suma de los totales.
+     * @return Resumen con los totales indicados.
+     */
+    public static ResumenBoletas crear(long cantidad, long subtotal, long descuento, long impuesto, long total) {
+        return new ResumenBoletas(cantidad, subtotal, descuento, impuesto, total);
+    }
+
+    /**
+     * Suma dos resúmenes.
+     * @param otro Resumen a sumar.
+     * @return Nuevo resumen con los totales de ambos.
+     */
+    public ResumenBoletas sumar(ResumenBoletas otro) {
+        return new ResumenBoletas(cantidad + otro.cantidad, subtotal + otro.subtotal,
+                descuento + otro.descuento, impuesto + otro.impuesto, total + otro.total);
+    }
+
+    public long getCantidad() { return cantidad; }
+
+    public long getSubtotal() { return subtotal; }
+
+    public long getDescuento() { return descuento; }
+
+    public long getImpuesto() { return impuesto; }
+
+    public long getTotal() { return total; }
+}
@@ -0,0 +1,18 @@
+package org.duoc.models;
+
+/**
+ * Solicitud de arriendo de un lote: la patente del vehículo y los días pedidos.
+ */
+public final class SolicitudArriendo {
+    private final String patente;
+    private final int diasArriendo;
+
+    public SolicitudArriendo(String patente, int diasArriendo) {
+        this.patente = patente;
+        this.diasArriendo = diasArriendo;
+    }
+
+    public String getPatente() { return patente; }
+
+    public int getDiasArriendo() { return diasArriendo; }
+}
@@ -1,19 +1,36 @@
 package org.duoc.models;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
 /**
  * Clase abstracta Vehiculo que define las propiedades y métodos comunes
  * para todos los vehículos.
+ * Los días de arriendo se leen y escriben de forma atómica, lo que permite
+ * reservar un vehículo con semántica compare-and-set sin bloqueos.
+ * La última boleta calculada se memoriza y se descarta cuando cambian los datos de los que depende.
  */
 public abstract class Vehiculo {
 
     private String patente;
     private String marca;
     private String modelo;
-    private int diasArriendo;
+    private volatile int diasArriendo;
     private int valorDiario;
     private int puertas;
     private int anio;
+    private volatile Boleta boletaMemorizada;
+
+    private static final VarHandle DIAS_ARRIENDO;
 
+    static {
+        try {
+            DIAS_ARRIENDO = MethodHandles.lookup().findVarHandle(Vehiculo.class, "diasArriendo", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public Vehiculo(){}
 
@@ -30,8 +47,96 @@ public abstract class Vehiculo {
     public abstract void mostrarDetalle();
     public abstract void filaDetalle(boolean mostrarTipo);
 
+    /**
+     * Agrega al buffer la fila de tabla del vehículo, con salto de línea, sin imprimirla.
+     * @param sb Buffer de destino.
+     * @param mostrarTipo true para incluir la columna de tipo.
+     */
+    public abstract void agregarFila(StringBuilder sb, boolean mostrarTipo);
+
+    /**
+     * Agrega al buffer el detalle completo del vehículo, sin imprimirlo.
+     * @param sb Buffer de destino.
+     */
+    public abstract void agregarDetalle(StringBuilder sb);
+
+    /**
+     * Agrega una celda de tabla alineada a la izquierda, equivalente a {@code "| %-<ancho>s "}.
+     * @param sb Buffer de destino.
+     * @param valor Texto de la celda; si es null la celda queda vacía.
+     * @param ancho Ancho mínimo de la celda.
+     */
+    protected static void agregarCelda(StringBuilder sb, String valor, int ancho) {
+        String texto = Objects.toString(valor, "");
+        sb.append("| ").append(texto);
+        rellenar(sb, texto.length(), ancho);
+    }
+
+    /**
+     * Agrega una celda numérica alineada a la izquierda sin crear Strings intermedias.
+     * @param sb Buffer de destino.
+     * @param prefijo Prefijo opcional (por ejemplo "$"), o null.
+     * @param valor Valor de la celda.
+     * @param ancho Ancho mínimo de la celda.
+     */
+    protected static void agregarCelda(StringBuilder sb, String prefijo, int valor, int ancho) {
+        sb.append("| ");
+        int inicio = sb.length();
+        if (prefijo != null) {
+            sb.append(prefijo);
+        }
+        sb.append(valor);
+        rellenar(sb, sb.length() - inicio, ancho);
+    }
+
+    private static void rellenar(StringBuilder sb, int largo, int ancho) {
+        for (int i = largo; i < ancho; i++) {
+            sb.append(' ');
+        }
+        sb.append(' ');
+    }
+
+    /**
+     * Devuelve la boleta memorizada si aún corresponde a la patente, los días y el valor diario actuales.
+     * Además de descartarse en los setters, la boleta se compara con los datos actuales: si otro hilo los
+     * cambió mientras se calculaba, nunca se entrega una boleta desactualizada. Con los mismos días, el
+     * subtotal igual a días por valor diario basta para saber que el resto de los montos coincide.
+     * @return Boleta memorizada, o null si hay que calcularla.
+     */
+    protected Boleta boletaMemorizada() {
+        Boleta boleta = boletaMemorizada;
+        int dias = getDiasArriendo();
+        if (boleta != null && boleta.getDiasArriendo() == dias && boleta.getSubtotal() == dias * getValorDiario()
+                && Objects.equals(boleta.getPatente(), getPatente())) {
+            CacheBoletas.acierto();
+            return boleta;
+        }
+        CacheBoletas.fallo();
+        return null;
+    }
+
+    /**
+     * Guarda una boleta recién calculada para las siguientes consultas.
+     * @param boleta Boleta calculada con los datos actuales.
+     * @return La misma boleta.
+     */
+    protected Boleta memorizarBoleta(Boleta boleta) {
+        boletaMemorizada = boleta;
+        return boleta;
+    }
+
+    /**
+     * Descarta la boleta memorizada, si hay una.
+     */
+    protected void invalidarBoleta() {
+        if (boletaMemorizada != null) {
+            boletaMemorizada = null;
+            CacheBoletas.invalidacion();
+        }
+    }
+
     public String getPatente() { return patente; }
-    public void setPatente(String patente) { this.patente = patente; }
+    public void setPatente(String patente) { this.patente = patente; invalidarBoleta(); }
 
     public String getMarca() { return marca; }
     public void setMarca(String marca) { this.marca = marca; }
@@ -40,10 +145,35 @@ public abstract class Vehiculo {
     public void setModelo(String modelo) { this.modelo = modelo; }
 
     public int getDiasArriendo() { return diasArriendo; }
-    public void setDiasArriendo(int diasArriendo) { this.diasArriendo = diasArriendo; }
+    public void setDiasArriendo(int diasArriendo) { this.diasArriendo = diasArriendo; invalidarBoleta(); }
+
+    /**
+     * Cambia atómicamente los días de arriendo si el valor actual es el esperado.
+     * @param esperado Días de arriendo que se espera encontrar.
+     * @param nuevo Días de arriendo a asignar.
+     * @return true si se realizó el cambio, false si otro hilo lo modificó antes.
+     */
+    public boolean compareAndSetDiasArriendo(int esperado, int nuevo) {
+        if (DIAS_ARRIENDO.compareAndSet(this, esperado, nuevo)) {
+            invalidarBoleta();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Asigna atómicamente los días de arriendo y retorna el valor anterior.
+     * @param nuevo Días de arriendo a asignar.
+     * @return Días de arriendo previos al cambio.
+     */
+    public int getAndSetDiasArriendo(int nuevo) {
+        int anteriores = (int) DIAS_ARRIENDO.getAndSet(this, nuevo);
+        invalidarBoleta();
+        return anteriores;
+    }
 
     public int getValorDiario() { return valorDiario; }
-    public void setValorDiario(int valorDiario) { this.valorDiario = valorDiario; }
+    public void setValorDiario(int valorDiario) { this.valorDiario = valorDiario; invalidarBoleta(); }
 
     public int getPuertas() { return puertas; }
     public void setPuertas(int puertas) { this.puertas = puertas; }
@@ -31,47 +31,70 @@ public class VehiculoCarga extends Vehiculo implements IBoleta {
     */
     @Override
     public void mostrarDetalle() {
-        System.out.println("====== Detalles del Vehículo ======");
-        System.out.println("Tipo: Vehículo de carga");
-        System.out.println("===================================");
-        System.out.println("Patente: " + getPatente());
-        System.out.println("Marca: " + getMarca());
-        System.out.println("Modelo: " + getModelo());
-        System.out.println("Año: " + getAnio());
-        System.out.println("Puertas: " + getPuertas());
-        System.out.println("Capacidad de carga: " + capacidadCarga);
-        System.out.println("Días de Arriendo: " + getDiasArriendo());
-        System.out.println("Valor Diario: $" + getValorDiario());
-        System.out.println("===================================");
+        StringBuilder sb = new StringBuilder(384);
+        agregarDetalle(sb);
+        System.out.print(sb);
+    }
+
+    @Override
+    public void agregarDetalle(StringBuilder sb) {
+        sb.append("====== Detalles del Vehículo ======\n");
+        sb.append("Tipo: Vehículo de carga\n");
+        sb.append("===================================\n");
+        sb.append("Patente: ").append(getPatente()).append('\n');
+        sb.append("Marca: ").append(getMarca()).append('\n');
+        sb.append("Modelo: ").append(getModelo()).append('\n');
+        sb.append("Año: ").append(getAnio()).append('\n');
+        sb.append("Puertas: ").append(getPuertas()).append('\n');
+        sb.append("Capacidad de carga: ").append(getCapacidadCarga()).append('\n');
+        sb.append("Días de Arriendo: ").append(getDiasArriendo()).append('\n');
+        sb.append("Valor Diario: $").append(getValorDiario()).append('\n');
+        sb.append("===================================\n");
     }
-    
+
     @Override
     public void filaDetalle(boolean mostrar) {
-        if(mostrar) {
-            System.out.printf("| %-10s | %-10s | %-10s | %-10s | %-4d | %-7d | %-9d | %-7s |\n", 
-                "Carga", getPatente(), getMarca(), getModelo(), getAnio(), getPuertas(), getCapacidadCarga(), "$"+getValorDiario());
-        } else {
-        System.out.printf("| %-10s | %-10s | %-10s | %-4s | %-7s | %-9s | %-7s |\n", 
-            getPatente(), getMarca(), getModelo(), getAnio(), getPuertas(), getCapacidadCarga(), "$"+getValorDiario());
-    
+        StringBuilder sb = new StringBuilder(96);
+        agregarFila(sb, mostrar);
+        System.out.print(sb);
+    }
+
+    @Override
+    public void agregarFila(StringBuilder sb, boolean mostrar) {
+        if (mostrar) {
+            agregarCelda(sb, "Carga", 10);
         }
+        agregarCelda(sb, getPatente(), 10);
+        agregarCelda(sb, getMarca(), 10);
+        agregarCelda(sb, getModelo(), 10);
+        agregarCelda(sb, null, getAnio(), 4);
+        agregarCelda(sb, null, getPuertas(), 7);
+        agregarCelda(sb, null, getCapacidadCarga(), 9);
+        agregarCelda(sb, "$", getValorDiario(), 7);
+        sb.append("|\n");
     }
 
-    /*
-     * Muestra la boleta de arriendo del vehículo de carga.
-     * Este método calcula el subtotal, descuento, impuesto y total a pagar,
-     * y luego imprime la boleta con los detalles del arriendo.
+    /**
+     * Calcula la boleta de arriendo del vehículo de carga, sin imprimirla.
+     * Obtiene el subtotal, descuento, impuesto y total a pagar a partir de los días
+     * de arriendo y el valor diario. La boleta se memoriza hasta que cambien los días o el valor diario.
+     * @return Boleta con los montos calculados.
     */
     @Override
-    public void mostrarBoleta() {
-        int arriendo = getDiasArriendo();
-        // Calcular subtotal, descuento, impuesto y total
-        int subtotal = getDiasArriendo() * getValorDiario();
-        int descuento = (int) (subtotal*dctoCarga);
-        int impuesto = (int) ((subtotal - descuento) * iva);
-        int total = subtotal - descuento + impuesto;
+    public Boleta calcularBoleta() {
+        Boleta memorizada = boletaMemorizada();
+        if (memorizada != null) {
+            return memorizada;
+        }
+        return memorizarBoleta(Boleta.calcular(Boleta.TIPO_CARGA, getPatente(), getDiasArriendo(), getValorDiario(), dctoCarga, iva));
+    }
 
-        imprimirBoleta(arriendo, subtotal, descuento, impuesto, total);    
+    /**
+     * Muestra la boleta de arriendo del vehículo de carga: la calcula y luego la imprime.
+    */
+    @Override
+    public void mostrarBoleta() {
+        imprimirBoleta(calcularBoleta());
     }
 
     /**
@@ -0,0 +1,146 @@
+package org.duoc.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.duoc.models.Reserva;
+import org.duoc.models.Vehiculo;
+
+/**
+ * Reservas por rango de fechas, con una agenda por vehículo. Las reservas de un vehículo nunca se traslapan,
+ * así que basta un {@link TreeMap} ordenado por fecha de inicio para responder en O(log n) si un rango está
+ * libre: la única reserva que puede chocar con {@code [desde, hasta)} es la última que comienza antes de
+ * {@code hasta}. Cada agenda se sincroniza por separado, por lo que la verificación de traslape y el registro
+ * de la reserva son atómicos sin bloquear las reservas de otros vehículos. Consultar qué vehículos están libres
+ * en un rango cuesta O(log n) por vehículo, sin recorrer las reservas.
+ *
+ * @author Karla Santibáñez
+ */
+public class AgendaReservas {
+
+    /**
+     * Reservas de un vehículo, ordenadas por inicio y sin traslapes.
+     */
+    private static final class Agenda {
+        private final TreeMap<LocalDate, Reserva> porInicio = new TreeMap<>();
+
+        synchronized boolean reservar(Reserva reserva) {
+            if (!estaLibre(reserva.getDesde(), reserva.getHasta())) {
+                return false;
+            }
+            porInicio.put(reserva.getDesde(), reserva);
+            return true;
+        }
+
+        synchronized boolean estaLibre(LocalDate desde, LocalDate hasta) {
+            Map.Entry<LocalDate, Reserva> anterior = porInicio.lowerEntry(hasta);
+            return anterior == null || !anterior.getValue().seTraslapa(desde, hasta);
+        }
+
+        synchronized Reserva cancelar(LocalDate desde) {
+            return porInicio.remove(desde);
+        }
+
+        synchronized List<Reserva> listar() {
+            return new ArrayList<>(porInicio.values());
+        }
+    }
+
+    // Los vehículos no redefinen equals, así que la clave es la identidad del vehículo registrado
+    private final Map<Vehiculo, Agenda> agendas = new ConcurrentHashMap<>();
+    private final LongAdder reservas = new LongAdder();
+
+    /**
+     * Reserva el vehículo si está libre en todo el rango.
+     * @param vehiculo Vehículo registrado.
+     * @param desde Inicio, inclusive.
+     * @param hasta Término, exclusive; debe ser posterior al inicio.
+     * @return La reserva creada, o null si se traslapa con otra.
+     */
+    public Reserva reservar(Vehiculo vehiculo, LocalDate desde, LocalDate hasta) {
+        Reserva reserva = new Reserva(vehiculo.getPatente(), desde, hasta);
+        if (!agendas.computeIfAbsent(vehiculo, v -> new Agenda()).reservar(reserva)) {
+            return null;
+        }
+        reservas.increment();
+        return reserva;
+    }
+
+    /**
+     * Cancela la reserva del vehículo que comienza en la fecha indicada.
+     * @param vehiculo Vehículo registrado.
+     * @param desde Inicio de la reserva.
+     * @return La reserva cancelada, o null si no existía.
+     */
+    public Reserva cancelar(Vehiculo vehiculo, LocalDate desde) {
+        Agenda agenda = agendas.get(vehiculo);
+        Reserva cancelada = agenda == null ? null : agenda.cancelar(desde);
+        if (cancelada != null) {
+            reservas.decrement();
+        }
+        return cancelada;
+    }
+
+    /**
+     * Indica si el vehículo no tiene reservas que se traslapen con el rango.
+     * @param vehiculo Vehículo registrado.
+     * @param desde Inicio, inclusive.
+     * @param hasta Término, exclusive.
+     * @return true si está libre.
+     */
+    public boolean estaLibre(Vehiculo vehiculo, LocalDate desde, LocalDate hasta) {
+        Agenda agenda = agendas.get(vehiculo);
+        return agenda == null || agenda.estaLibre(desde, hasta);
+    }
+
+    /**
+     * Filtra los vehículos libres en el rango, recorriendo los candidatos en paralelo y en su orden.
+     * @param candidatos Vehículos a considerar.
+     * @param desde Inicio, inclusive.
+     * @param hasta Término, exclusive.
+     * @return Vehículos sin reservas en el rango.
+     */
+    public <T extends Vehiculo> List<T> filtrarLibres(Collection<T> candidatos, LocalDate desde, LocalDate hasta) {
+        return candidatos.parallelStream()
+                .filter(v -> estaLibre(v, desde, hasta))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reservas de un vehículo ordenadas por fecha de inicio.
+     * @param vehiculo Vehículo registrado.
+     * @return Copia de las reservas; vacía si no tiene.
+     */
+    public List<Reserva> listar(Vehiculo vehiculo) {
+        Agenda agenda = agendas.get(vehiculo);
+        return agenda == null ? new ArrayList<>() : agenda.listar();
+    }
+
+    /**
+     * Reservas de todos los vehículos, por ejemplo para guardarlas en un snapshot. Débilmente consistente:
+     * cada agenda se copia completa, pero las reservas de distintos vehículos pueden cambiar mientras se recorren.
+     * @return Copia de las reservas, agrupadas por vehículo y ordenadas por inicio dentro de cada uno.
+     */
+    public List<Reserva> listarTodas() {
+        List<Reserva> todas = new ArrayList<>();
+        for (Agenda agenda : agendas.values()) {
+            todas.addAll(agenda.listar());
+        }
+        return todas;
+    }
+
+    /**
+     * Cantidad total de reservas vigentes en la agenda.
+     * @return Reservas de todos los vehículos.
+     */
+    public long getCantidad() {
+        return reservas.sum();
+    }
+}
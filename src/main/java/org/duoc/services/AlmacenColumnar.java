@@ -0,0 +1,324 @@
+package org.duoc.services;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.duoc.interfaces.IRegistroCambios;
+import org.duoc.models.*;
+
+/**
+ * Almacén columnar (struct-of-arrays) de la flota para consultas analíticas.
+ * Guarda tipo, días de arriendo, valor diario, puertas, año y capacidad en arreglos primitivos
+ * indexados por slot, de modo que filtros y agregaciones recorren memoria contigua en bucles
+ * simples en lugar de seguir punteros objeto por objeto.
+ *
+ * Los arreglos se dividen en segmentos de tamaño fijo que nunca se reemplazan: crecer solo agrega
+ * segmentos, por lo que las actualizaciones de días y de valor diario no se pierden y las lecturas no toman bloqueos.
+ * Los días y el valor diario, las únicas columnas que cambian, se escriben con semántica release y se leen con
+ * acquire, de modo que las consultas de otros hilos ven los cambios publicados. Cada cambio se copia leyendo el
+ * valor del vehículo bajo su bloqueo, el mismo con que el servicio lo modifica, así la última copia siempre
+ * refleja el último valor aunque las notificaciones lleguen desordenadas.
+ * Se mantiene sincronizado con el servicio como {@link IRegistroCambios}; las consultas son
+ * débilmente consistentes, igual que recorrer el mapa concurrente. Una vez habilitado
+ * ({@link VehiculoService#habilitarAlmacenColumnar()}), el servicio resuelve con él los filtros por días
+ * de arriendo y los totales de boletas.
+ *
+ * @author Karla Santibáñez
+ */
+public class AlmacenColumnar implements IRegistroCambios {
+    public static final byte TIPO_PASAJEROS = 1;
+    public static final byte TIPO_CARGA = 2;
+
+    private static final int BITS_SEGMENTO = 16;
+    private static final int TAMANO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = TAMANO_SEGMENTO - 1;
+    private static final VarHandle ENTERO = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /** Conjunto de columnas; el directorio de segmentos se copia al crecer, los segmentos no. */
+    private static final class Columnas {
+        final byte[][] tipo;
+        final int[][] diasArriendo;
+        final int[][] valorDiario;
+        final int[][] puertas;
+        final int[][] anio;
+        final int[][] capacidad;
+        final Vehiculo[][] vehiculos;
+
+        Columnas(int segmentos, Columnas anterior) {
+            tipo = new byte[segmentos][];
+            diasArriendo = new int[segmentos][];
+            valorDiario = new int[segmentos][];
+            puertas = new int[segmentos][];
+            anio = new int[segmentos][];
+            capacidad = new int[segmentos][];
+            vehiculos = new Vehiculo[segmentos][];
+            int copiados = 0;
+            if (anterior != null) {
+                copiados = anterior.tipo.length;
+                System.arraycopy(anterior.tipo, 0, tipo, 0, copiados);
+                System.arraycopy(anterior.diasArriendo, 0, diasArriendo, 0, copiados);
+                System.arraycopy(anterior.valorDiario, 0, valorDiario, 0, copiados);
+                System.arraycopy(anterior.puertas, 0, puertas, 0, copiados);
+                System.arraycopy(anterior.anio, 0, anio, 0, copiados);
+                System.arraycopy(anterior.capacidad, 0, capacidad, 0, copiados);
+                System.arraycopy(anterior.vehiculos, 0, vehiculos, 0, copiados);
+            }
+            for (int s = copiados; s < segmentos; s++) {
+                tipo[s] = new byte[TAMANO_SEGMENTO];
+                diasArriendo[s] = new int[TAMANO_SEGMENTO];
+                valorDiario[s] = new int[TAMANO_SEGMENTO];
+                puertas[s] = new int[TAMANO_SEGMENTO];
+                anio[s] = new int[TAMANO_SEGMENTO];
+                capacidad[s] = new int[TAMANO_SEGMENTO];
+                vehiculos[s] = new Vehiculo[TAMANO_SEGMENTO];
+            }
+        }
+    }
+
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile Columnas columnas = new Columnas(1, null);
+    private volatile int cantidad;
+
+    /**
+     * Cantidad de vehículos almacenados.
+     * @return Número de slots ocupados.
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    @Override
+    public void vehiculoAgregado(Vehiculo vehiculo) {
+        agregar(vehiculo);
+    }
+
+    @Override
+    public synchronized void vehiculosAgregados(List<Vehiculo> vehiculos) {
+        for (Vehiculo v : vehiculos) {
+            agregar(v);
+        }
+    }
+
+    @Override
+    public void arriendoActualizado(Vehiculo vehiculo) {
+        Integer slot = slots.get(VehiculoService.normalizarPatente(vehiculo.getPatente()));
+        if (slot == null) {
+            return;
+        }
+        int[] segmento = columnas.diasArriendo[slot >>> BITS_SEGMENTO];
+        synchronized (vehiculo) {
+            ENTERO.setRelease(segmento, slot & MASCARA_SEGMENTO, vehiculo.getDiasArriendo());
+        }
+    }
+
+    @Override
+    public void valorDiarioActualizado(Vehiculo vehiculo) {
+        Integer slot = slots.get(VehiculoService.normalizarPatente(vehiculo.getPatente()));
+        if (slot == null) {
+            return;
+        }
+        int[] segmento = columnas.valorDiario[slot >>> BITS_SEGMENTO];
+        synchronized (vehiculo) {
+            ENTERO.setRelease(segmento, slot & MASCARA_SEGMENTO, vehiculo.getValorDiario());
+        }
+    }
+
+    private static int leer(int[] columna, int i) {
+        return (int) ENTERO.getAcquire(columna, i);
+    }
+
+    /**
+     * Agrega un vehículo en el siguiente slot libre, si su patente aún no está almacenada.
+     * @param vehiculo Vehículo a agregar.
+     */
+    public synchronized void agregar(Vehiculo vehiculo) {
+        String clave = VehiculoService.normalizarPatente(vehiculo.getPatente());
+        if (slots.containsKey(clave)) {
+            return;
+        }
+        int slot = cantidad;
+        Columnas c = columnas;
+        int segmento = slot >>> BITS_SEGMENTO;
+        if (segmento == c.tipo.length) {
+            c = new Columnas(c.tipo.length * 2, c);
+            columnas = c;
+        }
+        int i = slot & MASCARA_SEGMENTO;
+        c.tipo[segmento][i] = vehiculo instanceof VehiculoPasajeros ? TIPO_PASAJEROS : TIPO_CARGA;
+        c.diasArriendo[segmento][i] = vehiculo.getDiasArriendo();
+        c.valorDiario[segmento][i] = vehiculo.getValorDiario();
+        c.puertas[segmento][i] = vehiculo.getPuertas();
+        c.anio[segmento][i] = vehiculo.getAnio();
+        if (vehiculo instanceof VehiculoPasajeros vp) {
+            c.capacidad[segmento][i] = vp.getCapacidadPasajeros();
+        } else if (vehiculo instanceof VehiculoCarga vc) {
+            c.capacidad[segmento][i] = vc.getCapacidadCarga();
+        }
+        c.vehiculos[segmento][i] = vehiculo;
+        slots.put(clave, slot);
+        // La escritura volátil de la cantidad publica el slot completo a los lectores; luego se vuelven a copiar
+        // los días y el valor por si cambiaron antes de que el slot quedara registrado
+        cantidad = slot + 1;
+        arriendoActualizado(vehiculo);
+        valorDiarioActualizado(vehiculo);
+    }
+
+    /**
+     * Cuenta los vehículos cuyos días de arriendo están en el rango indicado.
+     * @param minimo Días mínimos (inclusive).
+     * @param maximo Días máximos (inclusive).
+     * @return Cantidad de vehículos en el rango.
+     */
+    public int contarPorDias(int minimo, int maximo) {
+        int total = cantidad;
+        Columnas c = columnas;
+        int contador = 0;
+        for (int s = 0, base = 0; base < total; s++, base += TAMANO_SEGMENTO) {
+            int[] dias = c.diasArriendo[s];
+            int fin = Math.min(TAMANO_SEGMENTO, total - base);
+            for (int i = 0; i < fin; i++) {
+                int d = leer(dias, i);
+                contador += (d >= minimo & d <= maximo) ? 1 : 0;
+            }
+        }
+        return contador;
+    }
+
+    /**
+     * Filtra los vehículos cuyos días de arriendo están en el rango indicado.
+     * @param minimo Días mínimos (inclusive).
+     * @param maximo Días máximos (inclusive).
+     * @return Lista de vehículos en el rango.
+     */
+    public List<Vehiculo> filtrarPorDias(int minimo, int maximo) {
+        int total = cantidad;
+        Columnas c = columnas;
+        List<Vehiculo> resultado = new ArrayList<>();
+        for (int s = 0, base = 0; base < total; s++, base += TAMANO_SEGMENTO) {
+            int[] dias = c.diasArriendo[s];
+            int fin = Math.min(TAMANO_SEGMENTO, total - base);
+            for (int i = 0; i < fin; i++) {
+                int d = leer(dias, i);
+                if (d >= minimo && d <= maximo) {
+                    resultado.add(c.vehiculos[s][i]);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Suma el subtotal (días de arriendo por valor diario) de toda la flota.
+     * @return Ingreso bruto total, antes de descuentos e IVA.
+     */
+    public long sumarSubtotales() {
+        return sumarSubtotales((byte) 0);
+    }
+
+    /**
+     * Suma el subtotal (días de arriendo por valor diario) de los vehículos de un tipo.
+     * @param tipo {@link #TIPO_PASAJEROS}, {@link #TIPO_CARGA}, o 0 para todos.
+     * @return Ingreso bruto del tipo, antes de descuentos e IVA.
+     */
+    public long sumarSubtotales(byte tipo) {
+        int total = cantidad;
+        Columnas c = columnas;
+        long suma = 0;
+        for (int s = 0, base = 0; base < total; s++, base += TAMANO_SEGMENTO) {
+            int[] dias = c.diasArriendo[s];
+            int[] valor = c.valorDiario[s];
+            byte[] tipos = c.tipo[s];
+            int fin = Math.min(TAMANO_SEGMENTO, total - base);
+            if (tipo == 0) {
+                for (int i = 0; i < fin; i++) {
+                    suma += (long) leer(dias, i) * leer(valor, i);
+                }
+            } else {
+                for (int i = 0; i < fin; i++) {
+                    suma += tipos[i] == tipo ? (long) leer(dias, i) * leer(valor, i) : 0;
+                }
+            }
+        }
+        return suma;
+    }
+
+    /**
+     * Suma las boletas emitidas (vehículos con días de arriendo) de un tipo, con las mismas fórmulas y
+     * redondeos de {@link Boleta#calcular(String, String, int, int, double, double)}, sin crear las boletas.
+     * @param tipo {@link #TIPO_PASAJEROS} o {@link #TIPO_CARGA}.
+     * @param tasaDescuento Tasa de descuento del tipo.
+     * @param tasaIva Tasa de IVA.
+     * @return Cantidad de boletas y suma de sus montos.
+     */
+    public ResumenBoletas resumirBoletas(byte tipo, double tasaDescuento, double tasaIva) {
+        int total = cantidad;
+        Columnas c = columnas;
+        long boletas = 0;
+        long subtotales = 0;
+        long descuentos = 0;
+        long impuestos = 0;
+        for (int s = 0, base = 0; base < total; s++, base += TAMANO_SEGMENTO) {
+            int[] dias = c.diasArriendo[s];
+            int[] valor = c.valorDiario[s];
+            byte[] tipos = c.tipo[s];
+            int fin = Math.min(TAMANO_SEGMENTO, total - base);
+            for (int i = 0; i < fin; i++) {
+                int d = tipos[i] == tipo ? leer(dias, i) : 0;
+                if (d <= 0) {
+                    continue;
+                }
+                int subtotal = d * leer(valor, i);
+                int descuento = (int) (subtotal * tasaDescuento);
+                boletas++;
+                subtotales += subtotal;
+                descuentos += descuento;
+                impuestos += (int) ((subtotal - descuento) * tasaIva);
+            }
+        }
+        return ResumenBoletas.crear(boletas, subtotales, descuentos, impuestos, subtotales - descuentos + impuestos);
+    }
+
+    /**
+     * Calcula el año promedio de los vehículos de la flota.
+     * @return Año promedio, o 0 si no hay vehículos.
+     */
+    public double promedioAnio() {
+        int total = cantidad;
+        if (total == 0) {
+            return 0;
+        }
+        Columnas c = columnas;
+        long suma = 0;
+        for (int s = 0, base = 0; base < total; s++, base += TAMANO_SEGMENTO) {
+            int[] anios = c.anio[s];
+            int fin = Math.min(TAMANO_SEGMENTO, total - base);
+            for (int i = 0; i < fin; i++) {
+                suma += anios[i];
+            }
+        }
+        return (double) suma / total;
+    }
+
+    /**
+     * Suma la capacidad de los vehículos de un tipo (pasajeros o kilos de carga).
+     * @param tipo {@link #TIPO_PASAJEROS} o {@link #TIPO_CARGA}.
+     * @return Capacidad total del tipo.
+     */
+    public long sumarCapacidad(byte tipo) {
+        int total = cantidad;
+        Columnas c = columnas;
+        long suma = 0;
+        for (int s = 0, base = 0; base < total; s++, base += TAMANO_SEGMENTO) {
+            int[] capacidades = c.capacidad[s];
+            byte[] tipos = c.tipo[s];
+            int fin = Math.min(TAMANO_SEGMENTO, total - base);
+            for (int i = 0; i < fin; i++) {
+                suma += tipos[i] == tipo ? capacidades[i] : 0;
+            }
+        }
+        return suma;
+    }
+}
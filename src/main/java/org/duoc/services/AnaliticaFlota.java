@@ -0,0 +1,266 @@
+package org.duoc.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.duoc.interfaces.IBoleta;
+import org.duoc.models.*;
+
+/**
+ * Agregados de la flota mantenidos de forma incremental: cantidad de vehículos, vehículos arrendados,
+ * días arrendados y montos de boletas, en total y desglosados por tipo, marca y año del modelo.
+ * Cada alta suma la contribución del vehículo y cada cambio de arriendo suma la diferencia entre la
+ * boleta nueva y la anterior, por lo que las consultas leen contadores en O(1) en lugar de recorrer la flota.
+ * Los contadores son {@link LongAdder}, así las actualizaciones concurrentes no compiten por una misma variable.
+ *
+ * @author Karla Santibáñez
+ */
+public class AnaliticaFlota {
+
+    /**
+     * Contadores de un grupo de vehículos.
+     */
+    public static final class Agregado {
+        private final LongAdder vehiculos = new LongAdder();
+        private final LongAdder arrendados = new LongAdder();
+        private final LongAdder diasArrendados = new LongAdder();
+        private final LongAdder subtotal = new LongAdder();
+        private final LongAdder descuento = new LongAdder();
+        private final LongAdder impuesto = new LongAdder();
+        private final LongAdder total = new LongAdder();
+
+        private void agregarVehiculo() {
+            vehiculos.increment();
+        }
+
+        private void sumarBoleta(Boleta boleta, int signo) {
+            if (boleta.getDiasArriendo() <= 0) {
+                return; // Sin días no hay boleta emitida
+            }
+            arrendados.add(signo);
+            diasArrendados.add((long) signo * boleta.getDiasArriendo());
+            subtotal.add((long) signo * boleta.getSubtotal());
+            descuento.add((long) signo * boleta.getDescuento());
+            impuesto.add((long) signo * boleta.getImpuesto());
+            total.add((long) signo * boleta.getTotal());
+        }
+
+        public long getVehiculos() { return vehiculos.sum(); }
+
+        public long getArrendados() { return arrendados.sum(); }
+
+        public long getDiasArrendados() { return diasArrendados.sum(); }
+
+        /**
+         * Fracción de los vehículos del grupo que está arrendada.
+         * @return Valor entre 0 y 1, o 0 si el grupo no tiene vehículos.
+         */
+        public double getUtilizacion() {
+            long cantidad = getVehiculos();
+            return cantidad == 0 ? 0 : (double) getArrendados() / cantidad;
+        }
+
+        /**
+         * Totales de las boletas emitidas por el grupo.
+         * @return Resumen con la cantidad de boletas y la suma de sus montos.
+         */
+        public ResumenBoletas getResumenBoletas() {
+            return ResumenBoletas.crear(arrendados.sum(), subtotal.sum(), descuento.sum(), impuesto.sum(), total.sum());
+        }
+
+        private String diferencia(Agregado esperado) {
+            long[] actual = valores();
+            long[] correcto = esperado.valores();
+            String[] nombres = {"vehículos", "arrendados", "días", "subtotal", "descuento", "impuesto", "total"};
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < actual.length; i++) {
+                if (actual[i] != correcto[i]) {
+                    sb.append(sb.length() == 0 ? "" : ", ").append(nombres[i]).append(' ')
+                            .append(actual[i]).append(" != ").append(correcto[i]);
+                }
+            }
+            return sb.length() == 0 ? null : sb.toString();
+        }
+
+        private long[] valores() {
+            return new long[] {vehiculos.sum(), arrendados.sum(), diasArrendados.sum(), subtotal.sum(),
+                    descuento.sum(), impuesto.sum(), total.sum()};
+        }
+    }
+
+    private final Agregado total = new Agregado();
+    private final Map<String, Agregado> porTipo = new ConcurrentHashMap<>();
+    private final Map<String, Agregado> porMarca = new ConcurrentHashMap<>();
+    private final Map<Integer, Agregado> porAnio = new ConcurrentHashMap<>();
+
+    /**
+     * Suma la contribución de un vehículo recién agregado.
+     * @param vehiculo Vehículo agregado, con sus días de arriendo iniciales.
+     */
+    public void vehiculoAgregado(Vehiculo vehiculo) {
+        Boleta boleta = boleta(vehiculo, vehiculo.getDiasArriendo());
+        for (Agregado a : grupos(vehiculo)) {
+            a.agregarVehiculo();
+            a.sumarBoleta(boleta, 1);
+        }
+    }
+
+    /**
+     * Aplica un cambio atómico de días de arriendo: resta la boleta anterior y suma la nueva.
+     * Como cada cambio se aplica como diferencia, el orden en que llegan los cambios concurrentes no altera el resultado.
+     * @param vehiculo Vehículo modificado.
+     * @param diasAnteriores Días de arriendo antes del cambio.
+     * @param diasNuevos Días de arriendo después del cambio.
+     */
+    public void arriendoActualizado(Vehiculo vehiculo, int diasAnteriores, int diasNuevos) {
+        if (diasAnteriores == diasNuevos) {
+            return;
+        }
+        Boleta anterior = boleta(vehiculo, diasAnteriores);
+        Boleta nueva = boleta(vehiculo, diasNuevos);
+        for (Agregado a : grupos(vehiculo)) {
+            a.sumarBoleta(anterior, -1);
+            a.sumarBoleta(nueva, 1);
+        }
+    }
+
+    /**
+     * Aplica un cambio de valor diario: resta la boleta calculada con el valor anterior y suma la del valor nuevo.
+     * @param vehiculo Vehículo modificado.
+     * @param dias Días de arriendo al momento del cambio.
+     * @param valorAnterior Valor diario antes del cambio.
+     * @param valorNuevo Valor diario después del cambio.
+     */
+    public void valorDiarioActualizado(Vehiculo vehiculo, int dias, int valorAnterior, int valorNuevo) {
+        if (valorAnterior == valorNuevo || dias == 0) {
+            return;
+        }
+        Boleta anterior = boleta(vehiculo, dias, valorAnterior);
+        Boleta nueva = boleta(vehiculo, dias, valorNuevo);
+        for (Agregado a : grupos(vehiculo)) {
+            a.sumarBoleta(anterior, -1);
+            a.sumarBoleta(nueva, 1);
+        }
+    }
+
+    /**
+     * Contadores de toda la flota.
+     * @return Agregado total.
+     */
+    public Agregado getTotal() {
+        return total;
+    }
+
+    /**
+     * Contadores de un tipo de vehículo.
+     * @param tipo {@link Boleta#TIPO_PASAJEROS} o {@link Boleta#TIPO_CARGA}.
+     * @return Agregado del tipo (vacío si no hay vehículos de ese tipo).
+     */
+    public Agregado porTipo(String tipo) {
+        return porTipo.getOrDefault(tipo, new Agregado());
+    }
+
+    /**
+     * Contadores de una marca.
+     * @param marca Marca, tal como fue registrada.
+     * @return Agregado de la marca (vacío si no hay vehículos de esa marca).
+     */
+    public Agregado porMarca(String marca) {
+        return porMarca.getOrDefault(marca, new Agregado());
+    }
+
+    /**
+     * Contadores de un año de modelo.
+     * @param anio Año del modelo.
+     * @return Agregado del año (vacío si no hay vehículos de ese año).
+     */
+    public Agregado porAnio(int anio) {
+        return porAnio.getOrDefault(anio, new Agregado());
+    }
+
+    /**
+     * Desglose por marca.
+     * @return Vista de solo lectura con la marca como clave.
+     */
+    public Map<String, Agregado> getMarcas() {
+        return Collections.unmodifiableMap(porMarca);
+    }
+
+    /**
+     * Desglose por año de modelo.
+     * @return Vista de solo lectura con el año como clave.
+     */
+    public Map<Integer, Agregado> getAnios() {
+        return Collections.unmodifiableMap(porAnio);
+    }
+
+    /**
+     * Recalcula todos los agregados desde cero y los compara con los mantenidos de forma incremental.
+     * Si hay arriendos en curso mientras se recorre la flota pueden aparecer diferencias transitorias.
+     * @param vehiculos Vehículos actuales de la flota.
+     * @return Descripción de cada diferencia encontrada; vacía si los agregados coinciden.
+     */
+    public List<String> reconciliar(Collection<Vehiculo> vehiculos) {
+        AnaliticaFlota recalculada = new AnaliticaFlota();
+        for (Vehiculo v : vehiculos) {
+            recalculada.vehiculoAgregado(v);
+        }
+        List<String> diferencias = new ArrayList<>();
+        comparar("total", total, recalculada.total, diferencias);
+        compararGrupos("tipo", porTipo, recalculada.porTipo, diferencias);
+        compararGrupos("marca", porMarca, recalculada.porMarca, diferencias);
+        compararGrupos("año", porAnio, recalculada.porAnio, diferencias);
+        return diferencias;
+    }
+
+    private static <K> void compararGrupos(String nombre, Map<K, Agregado> actual, Map<K, Agregado> correcto,
+                                           List<String> diferencias) {
+        for (Map.Entry<K, Agregado> e : correcto.entrySet()) {
+            comparar(nombre + " " + e.getKey(), actual.getOrDefault(e.getKey(), new Agregado()), e.getValue(), diferencias);
+        }
+        for (Map.Entry<K, Agregado> e : actual.entrySet()) {
+            if (!correcto.containsKey(e.getKey())) {
+                comparar(nombre + " " + e.getKey(), e.getValue(), new Agregado(), diferencias);
+            }
+        }
+    }
+
+    private static void comparar(String grupo, Agregado actual, Agregado correcto, List<String> diferencias) {
+        String diferencia = actual.diferencia(correcto);
+        if (diferencia != null) {
+            diferencias.add(grupo + ": " + diferencia);
+        }
+    }
+
+    private Agregado[] grupos(Vehiculo vehiculo) {
+        String tipo = vehiculo instanceof VehiculoPasajeros ? Boleta.TIPO_PASAJEROS : Boleta.TIPO_CARGA;
+        return new Agregado[] {
+                total,
+                porTipo.computeIfAbsent(tipo, k -> new Agregado()),
+                porMarca.computeIfAbsent(Objects.requireNonNullElse(vehiculo.getMarca(), ""), k -> new Agregado()),
+                porAnio.computeIfAbsent(vehiculo.getAnio(), k -> new Agregado())
+        };
+    }
+
+    /**
+     * Calcula la boleta que emitiría el vehículo con los días indicados, con las mismas fórmulas de cada tipo.
+     */
+    private static Boleta boleta(Vehiculo vehiculo, int dias) {
+        return boleta(vehiculo, dias, vehiculo.getValorDiario());
+    }
+
+    private static Boleta boleta(Vehiculo vehiculo, int dias, int valorDiario) {
+        if (vehiculo instanceof VehiculoPasajeros) {
+            return Boleta.calcular(Boleta.TIPO_PASAJEROS, vehiculo.getPatente(), dias, valorDiario,
+                    IBoleta.dctoPasajeros, IBoleta.iva);
+        }
+        return Boleta.calcular(Boleta.TIPO_CARGA, vehiculo.getPatente(), dias, valorDiario,
+                IBoleta.dctoCarga, IBoleta.iva);
+    }
+}
@@ -0,0 +1,415 @@
+package org.duoc.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.duoc.interfaces.IRegistroCambios;
+import org.duoc.models.Vehiculo;
+import org.duoc.utils.CodificadorPatente;
+import org.duoc.utils.FileIOUtil;
+import org.duoc.utils.ParserCSVVehiculos;
+
+/**
+ * Archivo CSV de la flota abierto en modo perezoso: al abrirlo solo se recorre el archivo, en segundo plano,
+ * para construir un índice de patente a posición de la línea; cada vehículo se lee y se crea recién cuando
+ * se consulta por primera vez. Así el tiempo hasta el primer menú no depende del tamaño del archivo.
+ *
+ * Como registro de cambios, anota los vehículos arrendados y los agregados, para que {@link #escribir(String)}
+ * copie tal cual las líneas que nadie modificó y solo vuelva a generar las que cambiaron.
+ * Ante patentes repetidas en el archivo vale la primera línea válida, igual que en la carga completa; las líneas
+ * que el parser rechaza no se indexan ni se copian.
+ *
+ * @author Karla Santibáñez
+ */
+public class ArchivoFlotaPerezoso implements IRegistroCambios, AutoCloseable {
+    /** Tamaño máximo de cada ventana mapeada al recorrer el archivo. */
+    private static final long VENTANA_MAPEO = 1L << 30;
+    private static final int LECTURA_INICIAL = 256;
+    private static final byte[] CABECERA = "TIPO".getBytes(StandardCharsets.US_ASCII);
+
+    private final String ruta;
+    private final FileChannel canal;
+    private final CompletableFuture<Indice> indice;
+    private final Map<String, Vehiculo> modificados = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Vehiculo> nuevos = new ConcurrentLinkedQueue<>();
+
+    /** Recibe cada línea con datos del archivo, ya sin espacios en los extremos. */
+    private interface VisitanteLinea {
+        void visitar(ByteBuffer buffer, int desde, int hasta, long posicion) throws IOException;
+    }
+
+    /**
+     * Abre el archivo e inicia la construcción del índice en segundo plano.
+     * @param ruta Ruta del CSV de vehículos.
+     * @throws IOException Si no se pudo abrir el archivo.
+     */
+    public ArchivoFlotaPerezoso(String ruta) throws IOException {
+        this.ruta = ruta;
+        this.canal = FileChannel.open(Path.of(ruta), StandardOpenOption.READ);
+        this.indice = CompletableFuture.supplyAsync(this::indexar);
+    }
+
+    /**
+     * Indica si el índice ya está construido; mientras no lo esté, las consultas esperan.
+     * @return true si el índice está listo.
+     */
+    public boolean isIndexado() {
+        return indice.isDone();
+    }
+
+    /**
+     * Cantidad de vehículos distintos del archivo, esperando el índice si aún se construye.
+     * @return Cantidad de patentes indexadas.
+     */
+    public int getCantidad() {
+        return indice().cantidad;
+    }
+
+    /**
+     * Indica si el archivo contiene la patente.
+     * @param clave Patente normalizada.
+     * @return true si la patente está en el índice.
+     */
+    public boolean contiene(String clave) {
+        return indice().buscar(clave) >= 0;
+    }
+
+    /**
+     * Lee del archivo el vehículo con la patente indicada y lo crea. Cada llamada crea un objeto nuevo;
+     * el servicio se encarga de conservar solo el primero.
+     * @param clave Patente normalizada.
+     * @return Vehículo leído, o null si la patente no está en el archivo.
+     */
+    public Vehiculo leer(String clave) {
+        long posicion = indice().buscar(clave);
+        if (posicion < 0) {
+            return null;
+        }
+        try {
+            ByteBuffer linea = leerLinea(posicion);
+            Vehiculo[] leido = new Vehiculo[1];
+            new ParserCSVVehiculos().parsear(linea, false, v -> leido[0] = v);
+            return leido[0];
+        } catch (IOException e) {
+            System.out.println("Error al leer el vehículo " + clave + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lee todos los vehículos del archivo en el orden en que aparecen, con la carga paralela.
+     * @return Vehículos del archivo.
+     */
+    public List<Vehiculo> leerTodos() {
+        return FileIOUtil.cargarVehiculosCSVParalelo(ruta);
+    }
+
+    @Override
+    public void vehiculoAgregado(Vehiculo vehiculo) {
+        nuevos.add(vehiculo);
+    }
+
+    @Override
+    public void arriendoActualizado(Vehiculo vehiculo) {
+        modificados.put(VehiculoService.normalizarPatente(vehiculo.getPatente()), vehiculo);
+    }
+
+    @Override
+    public void valorDiarioActualizado(Vehiculo vehiculo) {
+        arriendoActualizado(vehiculo);
+    }
+
+    /**
+     * Cantidad de vehículos del archivo modificados desde que se abrió.
+     * @return Vehículos que deberán regenerarse al escribir.
+     */
+    public int getModificados() {
+        return modificados.size();
+    }
+
+    /**
+     * Escribe la flota en un CSV: copia byte a byte las líneas indexadas sin cambios, regenera las modificadas
+     * y agrega al final los vehículos nuevos. Escribe primero a un archivo temporal y luego lo reemplaza,
+     * así el destino puede ser el mismo archivo de origen.
+     * @param destino Ruta del CSV de destino.
+     * @throws IOException Si no se pudo leer el origen o escribir el destino.
+     */
+    public void escribir(String destino) throws IOException {
+        Indice ix = indice();
+        Path temporal = Path.of(destino + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16)) {
+            out.write((FileIOUtil.CABECERA_CSV + "\n").getBytes(StandardCharsets.UTF_8));
+            byte[] copia = new byte[LECTURA_INICIAL];
+            recorrer((buffer, desde, hasta, posicion) -> {
+                String clave = clave(buffer, desde, hasta);
+                if (clave == null || ix.buscar(clave) != posicion) {
+                    return; // Línea inválida, patente vacía o repetida: la carga completa tampoco la conserva
+                }
+                Vehiculo modificado = modificados.get(clave);
+                if (modificado != null) {
+                    out.write(FileIOUtil.filaCSV(modificado).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    byte[] bytes = hasta - desde <= copia.length ? copia : new byte[hasta - desde];
+                    buffer.get(desde, bytes, 0, hasta - desde);
+                    out.write(bytes, 0, hasta - desde);
+                }
+                out.write('\n');
+            });
+            for (Vehiculo v : nuevos) {
+                out.write(FileIOUtil.filaCSV(v).getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            }
+        }
+        Files.move(temporal, Path.of(destino), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar el archivo de vehículos: " + e.getMessage());
+        }
+    }
+
+    private Indice indice() {
+        try {
+            return indice.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("no se pudo indexar " + ruta + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Recorre el archivo una vez y anota la posición de la primera línea válida de cada patente.
+     */
+    private Indice indexar() {
+        try {
+            // Unos 45 bytes por línea en el formato de la flota
+            Indice ix = new Indice((int) Math.min(1 << 28, canal.size() / 45 + 16));
+            ParserCSVVehiculos parser = new ParserCSVVehiculos();
+            recorrer((buffer, desde, hasta, posicion) -> {
+                if (!parser.esValida(buffer, desde, hasta)) {
+                    return; // La carga completa tampoco la conserva; una repetición válida posterior sí cuenta
+                }
+                int coma = siguienteComa(buffer, desde, hasta);
+                int fin = siguienteComa(buffer, coma + 1, hasta);
+                long codigo = CodificadorPatente.codificar(buffer, coma + 1, fin);
+                if (codigo != CodificadorPatente.NO_CODIFICABLE) {
+                    ix.agregar(codigo, posicion);
+                } else {
+                    String clave = clave(buffer, desde, hasta);
+                    if (clave != null) {
+                        ix.heredadas.putIfAbsent(clave, posicion);
+                    }
+                }
+            });
+            ix.cantidad = ix.cantidadCodificadas + ix.heredadas.size();
+            return ix;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Recorre las líneas con datos del archivo en ventanas mapeadas alineadas a fin de línea, saltando la cabecera.
+     */
+    private void recorrer(VisitanteLinea visitante) throws IOException {
+        long tamano = canal.size();
+        long ventana = 0;
+        boolean primeraLinea = true;
+        while (ventana < tamano) {
+            long largo = Math.min(VENTANA_MAPEO, tamano - ventana);
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, ventana, largo);
+            int limite = (int) largo;
+            if (ventana + largo < tamano) {
+                while (limite > 0 && buffer.get(limite - 1) != '\n') {
+                    limite--;
+                }
+                if (limite == 0) {
+                    throw new IOException("línea de más de " + VENTANA_MAPEO + " bytes en la posición " + ventana);
+                }
+            }
+            int pos = 0;
+            while (pos < limite) {
+                int finLinea = pos;
+                while (finLinea < limite && buffer.get(finLinea) != '\n') {
+                    finLinea++;
+                }
+                int desde = pos;
+                int hasta = finLinea;
+                while (desde < hasta && (buffer.get(desde) & 0xFF) <= ' ') {
+                    desde++;
+                }
+                while (hasta > desde && (buffer.get(hasta - 1) & 0xFF) <= ' ') {
+                    hasta--;
+                }
+                long posicion = ventana + pos;
+                pos = finLinea + 1;
+                if (desde == hasta) continue;
+                if (primeraLinea) {
+                    primeraLinea = false;
+                    if (esCabecera(buffer, desde, hasta)) continue;
+                }
+                visitante.visitar(buffer, desde, hasta, posicion);
+            }
+            ventana += limite;
+        }
+    }
+
+    /**
+     * Lee desde el archivo la línea que comienza en la posición dada, sin el salto de línea.
+     */
+    private ByteBuffer leerLinea(long posicion) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LECTURA_INICIAL);
+        while (true) {
+            boolean finArchivo = false;
+            while (buffer.hasRemaining() && !finArchivo) {
+                finArchivo = canal.read(buffer, posicion + buffer.position()) < 0;
+            }
+            for (int i = 0; i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return buffer.limit(i).position(0);
+                }
+            }
+            if (finArchivo) {
+                return buffer.flip(); // Última línea del archivo, sin salto de línea
+            }
+            ByteBuffer mayor = ByteBuffer.allocate(buffer.capacity() * 2);
+            mayor.put(buffer.flip());
+            buffer = mayor;
+        }
+    }
+
+    /**
+     * Patente normalizada de una línea, o null si la línea no tiene campo de patente.
+     */
+    private static String clave(ByteBuffer buffer, int desde, int hasta) {
+        int coma = siguienteComa(buffer, desde, hasta);
+        int fin = coma < 0 ? -1 : siguienteComa(buffer, coma + 1, hasta);
+        if (fin < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[fin - coma - 1];
+        buffer.get(coma + 1, bytes);
+        String patente = new String(bytes, StandardCharsets.UTF_8);
+        return patente.isBlank() ? null : VehiculoService.normalizarPatente(patente);
+    }
+
+    private static int siguienteComa(ByteBuffer buffer, int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean esCabecera(ByteBuffer buffer, int desde, int hasta) {
+        if (hasta - desde < CABECERA.length) {
+            return false;
+        }
+        for (int i = 0; i < CABECERA.length; i++) {
+            int b = buffer.get(desde + i);
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != CABECERA[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tabla de direccionamiento abierto de código de patente a posición, llenada por un solo hilo
+     * y publicada completa al terminar; después solo se lee.
+     */
+    private static final class Indice {
+        private long[] codigos;
+        private long[] posiciones;
+        private int cantidadCodificadas;
+        private int cantidad;
+        private final Map<String, Long> heredadas = new HashMap<>();
+
+        Indice(int esperados) {
+            int capacidad = Integer.highestOneBit(Math.max(16, esperados) * 2 - 1) << 1;
+            codigos = new long[capacidad];
+            posiciones = new long[capacidad];
+        }
+
+        void agregar(long codigo, long posicion) {
+            if ((cantidadCodificadas + 1) * 2 > codigos.length) {
+                crecer();
+            }
+            int mascara = codigos.length - 1;
+            int i = posicion(codigo, mascara);
+            while (codigos[i] != 0) {
+                if (codigos[i] == codigo) {
+                    return; // Patente repetida: vale la primera línea
+                }
+                i = (i + 1) & mascara;
+            }
+            codigos[i] = codigo;
+            posiciones[i] = posicion;
+            cantidadCodificadas++;
+        }
+
+        /**
+         * Posición de la línea de una patente normalizada, o -1 si no está.
+         */
+        long buscar(String clave) {
+            long codigo = CodificadorPatente.codificar(clave);
+            if (codigo == CodificadorPatente.NO_CODIFICABLE) {
+                return heredadas.getOrDefault(clave, -1L);
+            }
+            int mascara = codigos.length - 1;
+            for (int i = posicion(codigo, mascara); codigos[i] != 0; i = (i + 1) & mascara) {
+                if (codigos[i] == codigo) {
+                    return posiciones[i];
+                }
+            }
+            return -1;
+        }
+
+        private void crecer() {
+            long[] anterioresCodigos = codigos;
+            long[] anterioresPosiciones = posiciones;
+            codigos = new long[anterioresCodigos.length * 2];
+            posiciones = new long[anterioresCodigos.length * 2];
+            int mascara = codigos.length - 1;
+            for (int j = 0; j < anterioresCodigos.length; j++) {
+                if (anterioresCodigos[j] != 0) {
+                    int i = posicion(anterioresCodigos[j], mascara);
+                    while (codigos[i] != 0) {
+                        i = (i + 1) & mascara;
+                    }
+                    codigos[i] = anterioresCodigos[j];
+                    posiciones[i] = anterioresPosiciones[j];
+                }
+            }
+        }
+
+        private static int posicion(long codigo, int mascara) {
+            long h = codigo * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.duoc.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.duoc.models.Vehiculo;
+
+/**
+ * Índice de búsqueda por marca y modelo, pensado para sugerir mientras se escribe.
+ * Cada marca y modelo se normaliza (minúsculas y sin tildes) y se registra como término, junto con cada una
+ * de sus palabras, en un mapa ordenado y concurrente; como los términos con un mismo prefijo quedan contiguos,
+ * una búsqueda por prefijo cuesta O(log t + k), con t la cantidad de términos distintos. La búsqueda tolerante
+ * a errores compara el texto contra cada término con una distancia de Levenshtein acotada, por lo que su costo
+ * depende de la cantidad de marcas y modelos distintos y no del tamaño de la flota.
+ *
+ * @author Karla Santibáñez
+ */
+public class IndiceBusqueda {
+    /** Máximo de errores (letras cambiadas, sobrantes o faltantes) tolerados en textos largos. */
+    public static final int DISTANCIA_MAXIMA = 2;
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    /**
+     * Término del índice: la forma en que se vio por primera vez y los vehículos que lo contienen. Como los
+     * vehículos no se quitan de la flota, basta un arreglo de solo agregar, protegido por el propio término.
+     */
+    private static final class Termino {
+        final String texto;
+        private Vehiculo[] vehiculos = new Vehiculo[8];
+        private int cantidad;
+
+        Termino(String texto) {
+            this.texto = texto;
+        }
+
+        synchronized void agregar(Vehiculo vehiculo) {
+            if (cantidad == vehiculos.length) {
+                vehiculos = Arrays.copyOf(vehiculos, cantidad * 2);
+            }
+            vehiculos[cantidad++] = vehiculo;
+        }
+
+        /** Agrega los vehículos del término al conjunto hasta completar el límite; devuelve false si se completó. */
+        synchronized boolean copiarHasta(Set<Vehiculo> destino, int limite) {
+            for (int i = 0; i < cantidad; i++) {
+                if (destino.size() >= limite) {
+                    return false;
+                }
+                destino.add(vehiculos[i]);
+            }
+            return destino.size() < limite;
+        }
+    }
+
+    private record Coincidencia(int distancia, String clave, Termino termino) {}
+
+    private final ConcurrentSkipListMap<String, Termino> terminos = new ConcurrentSkipListMap<>();
+    // Términos de cada texto tal como viene en los vehículos: al cargar la flota los mismos textos se repiten
+    // miles de veces y así se evita normalizarlos y buscarlos en el mapa ordenado por cada vehículo
+    private final ConcurrentHashMap<String, Termino[]> porTexto = new ConcurrentHashMap<>();
+
+    /**
+     * Registra la marca y el modelo de un vehículo.
+     * @param vehiculo Vehículo agregado a la flota.
+     */
+    public void agregar(Vehiculo vehiculo) {
+        registrar(vehiculo.getMarca(), vehiculo);
+        registrar(vehiculo.getModelo(), vehiculo);
+    }
+
+    /**
+     * Cantidad de términos distintos en el índice.
+     * @return Número de términos.
+     */
+    public int getTerminos() {
+        return terminos.size();
+    }
+
+    /**
+     * Sugiere marcas y modelos para completar lo que el usuario lleva escrito. Primero entrega los términos que
+     * comienzan con el texto y, si no alcanzan el límite, los que se le parecen con algún error de tipeo.
+     * @param texto Texto escrito hasta el momento.
+     * @param limite Cantidad máxima de sugerencias.
+     * @return Sugerencias tal como aparecen en la flota, sin repetir.
+     */
+    public List<String> sugerir(String texto, int limite) {
+        Set<String> sugerencias = new LinkedHashSet<>();
+        String clave = normalizar(texto);
+        if (clave.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        for (Termino t : prefijo(clave).values()) {
+            if (sugerencias.size() >= limite) {
+                break;
+            }
+            sugerencias.add(t.texto);
+        }
+        if (sugerencias.size() < limite) {
+            for (Coincidencia c : aproximados(clave)) {
+                if (sugerencias.size() >= limite) {
+                    break;
+                }
+                sugerencias.add(c.termino().texto);
+            }
+        }
+        return new ArrayList<>(sugerencias);
+    }
+
+    /**
+     * Busca vehículos cuya marca o modelo (o alguna de sus palabras) comienza con el texto.
+     * @param texto Prefijo buscado, sin distinguir mayúsculas ni tildes.
+     * @param limite Cantidad máxima de vehículos.
+     * @return Vehículos encontrados, agrupados por término en orden alfabético.
+     */
+    public List<Vehiculo> buscarPorPrefijo(String texto, int limite) {
+        String clave = normalizar(texto);
+        Set<Vehiculo> encontrados = new LinkedHashSet<>();
+        if (!clave.isEmpty()) {
+            agregarHasta(encontrados, prefijo(clave).values(), limite);
+        }
+        return new ArrayList<>(encontrados);
+    }
+
+    /**
+     * Busca vehículos cuya marca o modelo se parece al texto, tolerando errores de tipeo: ninguno en textos
+     * de menos de 3 letras, hasta 1 en los de menos de 5 y hasta {@link #DISTANCIA_MAXIMA} en los demás.
+     * El texto puede ser el comienzo del término, así "corol" y "corrola" encuentran "Corolla".
+     * @param texto Texto buscado.
+     * @param limite Cantidad máxima de vehículos.
+     * @return Vehículos encontrados, primero los de términos más parecidos.
+     */
+    public List<Vehiculo> buscarAproximado(String texto, int limite) {
+        String clave = normalizar(texto);
+        Set<Vehiculo> encontrados = new LinkedHashSet<>();
+        if (!clave.isEmpty()) {
+            agregarHasta(encontrados, aproximados(clave).stream().map(Coincidencia::termino).toList(), limite);
+        }
+        return new ArrayList<>(encontrados);
+    }
+
+    /**
+     * Normaliza un texto para el índice: sin tildes, en minúsculas y con los espacios colapsados.
+     * @param texto Texto original.
+     * @return Texto normalizado, vacío si el texto es nulo.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        if (esAsciiSimple(texto)) {
+            return texto.toLowerCase(Locale.ROOT); // Caso común al cargar la flota: sin tildes ni espacios de más
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean esAsciiSimple(String texto) {
+        int largo = texto.length();
+        if (largo == 0 || texto.charAt(0) == ' ' || texto.charAt(largo - 1) == ' ') {
+            return false;
+        }
+        for (int i = 0; i < largo; i++) {
+            char c = texto.charAt(i);
+            if (c >= 128 || (c < ' ') || (c == ' ' && texto.charAt(i - 1) == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void registrar(String texto, Vehiculo vehiculo) {
+        if (texto == null) {
+            return;
+        }
+        for (Termino t : porTexto.computeIfAbsent(texto, this::terminosDe)) {
+            t.agregar(vehiculo);
+        }
+    }
+
+    private Termino[] terminosDe(String texto) {
+        String clave = normalizar(texto);
+        if (clave.isEmpty()) {
+            return new Termino[0];
+        }
+        List<Termino> resultado = new ArrayList<>();
+        resultado.add(terminos.computeIfAbsent(clave, k -> new Termino(texto.trim())));
+        // Cada palabra de un nombre compuesto también es un término ("Clase A" se encuentra por "clase" y por "a")
+        if (clave.indexOf(' ') > 0) {
+            for (String palabra : texto.trim().split("\\s+")) {
+                resultado.add(terminos.computeIfAbsent(normalizar(palabra), k -> new Termino(palabra)));
+            }
+        }
+        return resultado.toArray(new Termino[0]);
+    }
+
+    private Map<String, Termino> prefijo(String clave) {
+        return terminos.subMap(clave, true, clave + Character.MAX_VALUE, false);
+    }
+
+    private List<Coincidencia> aproximados(String clave) {
+        int maxima = clave.length() < 3 ? 0 : clave.length() < 5 ? 1 : DISTANCIA_MAXIMA;
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        int[] anterior = new int[clave.length() + 1];
+        int[] actual = new int[clave.length() + 1];
+        for (Map.Entry<String, Termino> e : terminos.entrySet()) {
+            int distancia = distanciaPrefijo(clave, e.getKey(), maxima, anterior, actual);
+            if (distancia <= maxima) {
+                coincidencias.add(new Coincidencia(distancia, e.getKey(), e.getValue()));
+            }
+        }
+        coincidencias.sort(Comparator.comparingInt(Coincidencia::distancia).thenComparing(Coincidencia::clave));
+        return coincidencias;
+    }
+
+    /**
+     * Menor distancia de Levenshtein entre el texto y algún prefijo del término, calculada fila por fila
+     * (una por letra del término) y abandonada en cuanto toda la fila supera el máximo, ya que el mínimo
+     * de una fila nunca disminuye en las siguientes.
+     * @return Distancia, o {@code maxima + 1} si supera el máximo.
+     */
+    private static int distanciaPrefijo(String texto, String termino, int maxima, int[] anterior, int[] actual) {
+        int m = texto.length();
+        for (int i = 0; i <= m; i++) {
+            anterior[i] = i;
+        }
+        int mejor = m;
+        int filas = Math.min(termino.length(), m + maxima);
+        for (int j = 1; j <= filas; j++) {
+            char c = termino.charAt(j - 1);
+            actual[0] = j;
+            int minimoFila = j;
+            for (int i = 1; i <= m; i++) {
+                int costo = texto.charAt(i - 1) == c ? 0 : 1;
+                actual[i] = Math.min(Math.min(anterior[i] + 1, actual[i - 1] + 1), anterior[i - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[i]);
+            }
+            mejor = Math.min(mejor, actual[m]);
+            if (minimoFila > maxima) {
+                break;
+            }
+            int[] tmp = anterior;
+            anterior = actual;
+            actual = tmp;
+        }
+        return Math.min(mejor, maxima + 1);
+    }
+
+    private static void agregarHasta(Set<Vehiculo> encontrados, Iterable<Termino> terminos, int limite) {
+        for (Termino t : terminos) {
+            if (!t.copiarHasta(encontrados, limite)) {
+                return;
+            }
+        }
+    }
+}
@@ -1,53 +1,909 @@
 package org.duoc.services;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.duoc.interfaces.IBoleta;
+import org.duoc.interfaces.IRegistroCambios;
 import org.duoc.models.*;
+import org.duoc.utils.CodificadorPatente;
+import org.duoc.utils.IndiceRango;
+import org.duoc.utils.MapaLongConcurrente;
+import org.duoc.utils.MetricasFlota;
+import org.duoc.utils.SeleccionTopK;
 
 /**
  * Servicio para la gestión de vehículos en DriveQuest Rentals.
  * Proporciona métodos para agregar, buscar, listar, filtrar y mostrar boletas de vehículos,
- * asegurando la unicidad de patentes y la concurrencia segura mediante sincronización.
+ * asegurando la unicidad de patentes y la concurrencia segura mediante un mapa concurrente.
+ * El índice principal usa la patente codificada en un {@code long} ({@link CodificadorPatente})
+ * sobre un {@link MapaLongConcurrente}, sin hashing ni comparación de Strings; las patentes
+ * antiguas que no tienen el formato de 6 a 8 caracteres alfanuméricos van a un mapa aparte.
+ * Las lecturas no toman bloqueos y la unicidad de la patente se garantiza de forma atómica con putIfAbsent.
+ * Mantiene índices secundarios por tipo, disponibilidad y largo de arriendo, de modo que
+ * los listados cuestan O(tamaño del resultado) y los conteos O(1).
  * 
  * @author Karla Santibáñez
  */
 public class VehiculoService {
-    private final Map<String, Vehiculo> vehiculos = Collections.synchronizedMap(new HashMap<>());
+    /** Umbral de días desde el cual un arriendo se considera largo. */
+    public static final int DIAS_ARRIENDO_LARGO = 7;
+
+    private final MapaLongConcurrente<Vehiculo> vehiculos = new MapaLongConcurrente<>();
+    // Patentes no codificables (por ejemplo con guiones), cargadas desde archivos antiguos
+    private final ConcurrentHashMap<String, Vehiculo> patentesHeredadas = new ConcurrentHashMap<>();
+    private final Map<String, Vehiculo> vistaVehiculos = Collections.unmodifiableMap(new VistaVehiculos());
+
+    // Índices secundarios, mantenidos al agregar vehículos y al cambiar los días de arriendo
+    // Índices ordenados por patente normalizada: soportan el paginado con cursor sin copiar la flota
+    private final ConcurrentSkipListMap<String, Vehiculo> ordenPorPatente = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, VehiculoPasajeros> pasajeros = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, VehiculoCarga> carga = new ConcurrentSkipListMap<>();
+    // Índices por rango de valor diario y de año, separados por tipo para que el filtro por tipo no recorra el otro
+    private final IndiceRango<VehiculoPasajeros> pasajerosPorValor = new IndiceRango<>();
+    private final IndiceRango<VehiculoCarga> cargaPorValor = new IndiceRango<>();
+    private final IndiceRango<VehiculoPasajeros> pasajerosPorAnio = new IndiceRango<>();
+    private final IndiceRango<VehiculoCarga> cargaPorAnio = new IndiceRango<>();
+    private final Set<Vehiculo> disponibles = ConcurrentHashMap.newKeySet();
+    private final Set<Vehiculo> arriendosLargos = ConcurrentHashMap.newKeySet();
+    private final Set<Vehiculo> arriendosCortos = ConcurrentHashMap.newKeySet();
+
+    private final AnaliticaFlota analitica = new AnaliticaFlota();
+    private final AgendaReservas reservas = new AgendaReservas();
+    private final IndiceBusqueda busqueda = new IndiceBusqueda();
+    private final MetricasFlota metricas = MetricasFlota.getInstancia();
+    private final List<IRegistroCambios> registros = new CopyOnWriteArrayList<>();
+    // Si está habilitado, los filtros por días y los totales de boletas recorren sus columnas en vez de los objetos
+    private volatile AlmacenColumnar almacenColumnar;
+
+    // Carga perezosa: los vehículos del archivo se crean al consultarlos por primera vez
+    private volatile ArchivoFlotaPerezoso archivoPerezoso;
+    private volatile boolean cargaCompleta = true;
+    private final AtomicInteger materializados = new AtomicInteger();
+
+    /**
+     * Agrega un registro que recibe cada alta, cambio de arriendo o de valor diario y reserva (por ejemplo, la bitácora).
+     * @param registro Registro de cambios.
+     */
+    public void agregarRegistroCambios(IRegistroCambios registro) {
+        registros.add(registro);
+    }
+
+    /**
+     * Quita un registro de cambios previamente agregado.
+     * @param registro Registro de cambios.
+     */
+    public void quitarRegistroCambios(IRegistroCambios registro) {
+        registros.remove(registro);
+    }
+
+    /**
+     * Abre la flota en modo perezoso sobre un CSV: el archivo se indexa en segundo plano y cada vehículo
+     * se crea la primera vez que se busca. Las operaciones que recorren toda la flota (listados, filtros,
+     * boletas y analítica) la cargan completa antes de responder. Debe llamarse con el servicio vacío.
+     * @param ruta Ruta del CSV de vehículos.
+     * @return Archivo abierto, que anota los cambios para escribirlos con {@link ArchivoFlotaPerezoso#escribir(String)}.
+     * @throws IOException Si no se pudo abrir el archivo.
+     */
+    public ArchivoFlotaPerezoso abrirPerezosa(String ruta) throws IOException {
+        ArchivoFlotaPerezoso archivo = new ArchivoFlotaPerezoso(ruta);
+        archivoPerezoso = archivo;
+        agregarRegistroCambios(archivo);
+        cargaCompleta = false;
+        return archivo;
+    }
+
+    /**
+     * Indica si todos los vehículos están en memoria; es false mientras haya vehículos del archivo perezoso sin leer.
+     * @return true si la flota está cargada completa.
+     */
+    public boolean isCargaCompleta() {
+        return cargaCompleta;
+    }
+
+    /**
+     * Lee todos los vehículos del archivo perezoso que aún no se habían creado.
+     */
+    public void asegurarCargaCompleta() {
+        if (!cargaCompleta) {
+            materializarTodo();
+        }
+    }
+
+    private void materializarTodo() {
+        long espera = metricas.inicioMuestreado();
+        synchronized (this) {
+            metricas.registrarMuestreado(MetricasFlota.Operacion.ESPERA_BLOQUEO, espera);
+            if (cargaCompleta) {
+                return;
+            }
+            for (Vehiculo v : archivoPerezoso.leerTodos()) {
+                materializarLeido(normalizarPatente(v.getPatente()), v);
+            }
+            cargaCompleta = true;
+        }
+    }
+
+    /**
+     * Crea el vehículo de la patente desde el archivo perezoso si aún no está en memoria.
+     * @return Vehículo registrado con esa patente, o null si el archivo no la contiene.
+     */
+    private Vehiculo materializar(String patente) {
+        if (patente.isBlank()) {
+            return null;
+        }
+        String clave = normalizarPatente(patente);
+        Vehiculo leido = archivoPerezoso.leer(clave);
+        return leido == null ? null : materializarLeido(clave, leido);
+    }
+
+    /**
+     * Registra un vehículo leído del archivo. No se informa a los registros de cambios, porque no es un alta;
+     * si otro hilo lo creó antes, se conserva el suyo.
+     */
+    private Vehiculo materializarLeido(String clave, Vehiculo leido) {
+        Vehiculo existente = publicarAlta(clave, leido);
+        if (existente != null) {
+            return existente;
+        }
+        indexarAlta(clave, leido);
+        materializados.incrementAndGet();
+        return leido;
+    }
+
+    /**
+     * Vehículos del archivo perezoso que todavía no se han creado.
+     */
+    private int pendientes() {
+        ArchivoFlotaPerezoso archivo = archivoPerezoso;
+        return cargaCompleta || archivo == null ? 0 : Math.max(0, archivo.getCantidad() - materializados.get());
+    }
 
     /**
-     * Devuelve el mapa sincronizado de vehículos registrados.
-     * @return Map con la patente como clave y el vehículo como valor.
+     * Habilita el almacén columnar para consultas analíticas: lo registra para recibir los
+     * cambios y luego le carga los vehículos existentes. Las altas concurrentes no se pierden,
+     * porque el almacén ignora las patentes que ya tiene. Desde entonces {@link #filtrarArriendosLargos()},
+     * {@link #filtrarArriendosCortos()}, {@link #calcularBoletasEmitidas()} y {@link #totalesBoletasPorTipo()}
+     * recorren las columnas del almacén en lugar de los objetos de la flota.
+     * @return Almacén columnar sincronizado con la flota; si ya estaba habilitado, el mismo.
+     */
+    public synchronized AlmacenColumnar habilitarAlmacenColumnar() {
+        if (almacenColumnar != null) {
+            return almacenColumnar;
+        }
+        asegurarCargaCompleta();
+        AlmacenColumnar almacen = new AlmacenColumnar();
+        agregarRegistroCambios(almacen);
+        for (Vehiculo v : ordenPorPatente.values()) {
+            almacen.agregar(v);
+        }
+        almacenColumnar = almacen;
+        return almacen;
+    }
+
+    /**
+     * Devuelve los agregados de la flota (ingresos, arriendos y utilización), mantenidos en cada alta y arriendo.
+     * @return Analítica de la flota.
+     */
+    public AnaliticaFlota getAnalitica() {
+        asegurarCargaCompleta();
+        return analitica;
+    }
+
+    /**
+     * Recalcula los agregados de la analítica recorriendo la flota y los compara con los incrementales.
+     * @return Diferencias encontradas; vacía si coinciden.
+     */
+    public List<String> reconciliarAnalitica() {
+        asegurarCargaCompleta();
+        return analitica.reconciliar(vistaVehiculos.values());
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de los vehículos registrados, débilmente consistente.
+     * Las altas deben pasar por {@link #addVehiculo(Vehiculo)} para mantener los índices.
+     * @return Map con la patente normalizada como clave y el vehículo como valor.
      */
     public Map<String, Vehiculo> getVehiculosMap() {
-        return vehiculos;
+        return vistaVehiculos;
+    }
+
+    /**
+     * Vista de los índices por patente como un Map, con tamaño en O(1).
+     */
+    private final class VistaVehiculos extends AbstractMap<String, Vehiculo> {
+        @Override
+        public int size() {
+            return vehiculos.size() + patentesHeredadas.size() + pendientes();
+        }
+
+        @Override
+        public Vehiculo get(Object clave) {
+            return clave instanceof String patente ? buscarVehiculo(patente) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object clave) {
+            return get(clave) != null;
+        }
+
+        @Override
+        public Collection<Vehiculo> values() {
+            return new AbstractCollection<>() {
+                @Override
+                public Iterator<Vehiculo> iterator() {
+                    asegurarCargaCompleta();
+                    Iterator<Vehiculo> principales = vehiculos.valores();
+                    Iterator<Vehiculo> heredadas = patentesHeredadas.values().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return principales.hasNext() || heredadas.hasNext();
+                        }
+
+                        @Override
+                        public Vehiculo next() {
+                            return principales.hasNext() ? principales.next() : heredadas.next();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return VistaVehiculos.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<String, Vehiculo>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Vehiculo>> iterator() {
+                    Iterator<Vehiculo> valores = values().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return valores.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Vehiculo> next() {
+                            Vehiculo v = valores.next();
+                            return new SimpleImmutableEntry<>(normalizarPatente(v.getPatente()), v);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return VistaVehiculos.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Normaliza una patente para usarla como clave: sin espacios en los extremos y en mayúsculas.
+     * Así la unicidad y las búsquedas no distinguen mayúsculas de minúsculas.
+     * @param patente Patente tal como fue ingresada.
+     * @return Patente normalizada.
+     */
+    public static String normalizarPatente(String patente) {
+        return patente.trim().toUpperCase(Locale.ROOT);
     }
 
     /**
      * Agrega un vehículo al sistema, validando unicidad de patente y datos.
+     * La unicidad de la patente no distingue mayúsculas de minúsculas.
      * @param vehiculo Vehículo a agregar.
      * @return true si se agregó correctamente, false si la patente existe o los datos son inválidos.
      */
     public boolean addVehiculo(Vehiculo vehiculo) {
-        if (vehiculo == null) {
-            System.out.println("Error: El vehículo no puede ser nulo");
+        long inicio = metricas.inicio();
+        try {
+            if (vehiculo == null) {
+                System.out.println("Error: El vehículo no puede ser nulo");
+                return false;
+            }
+            if (vehiculo.getPatente() == null || vehiculo.getPatente().isBlank()) {
+                System.out.println("Error: La patente no puede estar vacía");
+                return false;
+            }
+            String clave = normalizarPatente(vehiculo.getPatente());
+            if (!cargaCompleta) {
+                materializar(clave); // Una patente aún no leída del archivo también está ocupada
+            }
+            if (publicarAlta(clave, vehiculo) != null) {
+                System.out.println("Error: Ya existe un vehículo con la patente " + vehiculo.getPatente());
+                return false;
+            }
+            indexarAlta(clave, vehiculo);
+            for (IRegistroCambios r : registros) {
+                r.vehiculoAgregado(vehiculo);
+            }
+            return true;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.AGREGAR, inicio);
+        }
+    }
+
+    /**
+     * Agrega un lote de vehículos. Primero valida el lote completo (nulos, patentes vacías y patentes
+     * repetidas dentro del lote, conservando la primera aparición) sin tocar la flota; luego registra los
+     * válidos y entrega todas las altas a los registros de cambios en una sola llamada, de modo que la
+     * bitácora fuerza el lote a disco una vez en lugar de una por vehículo. No informa por consola:
+     * el motivo de cada rechazo queda en el informe.
+     * @param lote Vehículos a agregar.
+     * @return Informe con el resultado de cada vehículo, en el orden del lote.
+     */
+    public InformeLote<ResultadoAlta> agregarVehiculos(Collection<? extends Vehiculo> lote) {
+        long inicio = metricas.inicio();
+        try {
+            Vehiculo[] elementos = lote.toArray(new Vehiculo[0]);
+            String[] claves = new String[elementos.length];
+            List<String> patentes = new ArrayList<>(elementos.length);
+            List<ResultadoAlta> resultados = new ArrayList<>(elementos.length);
+            Set<String> enLote = new HashSet<>(elementos.length * 2);
+            for (int i = 0; i < elementos.length; i++) {
+                Vehiculo v = elementos[i];
+                patentes.add(v == null ? null : v.getPatente());
+                if (v == null) {
+                    resultados.add(ResultadoAlta.NULO);
+                } else if (v.getPatente() == null || v.getPatente().isBlank()) {
+                    resultados.add(ResultadoAlta.PATENTE_VACIA);
+                } else if (!enLote.add(claves[i] = normalizarPatente(v.getPatente()))) {
+                    resultados.add(ResultadoAlta.DUPLICADO_EN_LOTE);
+                } else {
+                    resultados.add(ResultadoAlta.AGREGADO);
+                }
+            }
+            List<Vehiculo> agregados = new ArrayList<>(elementos.length);
+            for (int i = 0; i < elementos.length; i++) {
+                if (resultados.get(i) != ResultadoAlta.AGREGADO) {
+                    continue;
+                }
+                if (!cargaCompleta) {
+                    materializar(claves[i]);
+                }
+                // putIfAbsent resuelve las carreras con altas concurrentes fuera del lote
+                if (publicarAlta(claves[i], elementos[i]) != null) {
+                    resultados.set(i, ResultadoAlta.PATENTE_EXISTENTE);
+                } else {
+                    indexarAlta(claves[i], elementos[i]);
+                    agregados.add(elementos[i]);
+                }
+            }
+            for (IRegistroCambios r : registros) {
+                r.vehiculosAgregados(agregados);
+            }
+            return new InformeLote<>(patentes, resultados, ResultadoAlta.AGREGADO);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.AGREGAR_LOTE, inicio);
+        }
+    }
+
+    /**
+     * Inserta el vehículo en el índice principal si su patente está libre.
+     * @return Vehículo que ya tenía la patente, o null si se insertó.
+     */
+    private Vehiculo reservarPatente(String clave, Vehiculo vehiculo) {
+        long codigo = CodificadorPatente.codificar(clave);
+        return codigo != CodificadorPatente.NO_CODIFICABLE
+                ? vehiculos.putIfAbsent(codigo, vehiculo)
+                : patentesHeredadas.putIfAbsent(clave, vehiculo);
+    }
+
+    /**
+     * Inserta el vehículo en el índice principal y, si su patente estaba libre, lo suma a la analítica.
+     * Ambos pasos se hacen bajo el bloqueo del vehículo, el mismo que toman los arriendos y los cambios de valor:
+     * quien lo encuentre en el índice y lo modifique aplica su diferencia sobre la analítica ya registrada,
+     * en lugar de que el alta cuente otra vez un arriendo que ya sumó su diferencia.
+     * @return Vehículo que ya tenía la patente, o null si se insertó.
+     */
+    private Vehiculo publicarAlta(String clave, Vehiculo vehiculo) {
+        long espera = metricas.inicioMuestreado();
+        synchronized (vehiculo) {
+            metricas.registrarMuestreado(MetricasFlota.Operacion.ESPERA_BLOQUEO, espera);
+            Vehiculo existente = reservarPatente(clave, vehiculo);
+            if (existente == null) {
+                analitica.vehiculoAgregado(vehiculo);
+            }
+            return existente;
+        }
+    }
+
+    /**
+     * Agrega un vehículo recién publicado en el índice principal a los índices secundarios.
+     */
+    private void indexarAlta(String clave, Vehiculo vehiculo) {
+        ordenPorPatente.put(clave, vehiculo);
+        if (vehiculo instanceof VehiculoPasajeros vp) {
+            pasajeros.put(clave, vp);
+            pasajerosPorValor.agregar(vp.getValorDiario(), clave, vp);
+            pasajerosPorAnio.agregar(vp.getAnio(), clave, vp);
+        } else if (vehiculo instanceof VehiculoCarga vc) {
+            carga.put(clave, vc);
+            cargaPorValor.agregar(vc.getValorDiario(), clave, vc);
+            cargaPorAnio.agregar(vc.getAnio(), clave, vc);
+        }
+        reindexarArriendo(vehiculo);
+        busqueda.agregar(vehiculo);
+    }
+
+    /**
+     * Arrienda un vehículo disponible de forma atómica.
+     * El vehículo pasa de 0 días a los días indicados mediante compare-and-set, por lo que
+     * si dos agentes intentan arrendarlo a la vez solo uno obtiene {@link ResultadoArriendo#EXITO}.
+     * El cambio y su efecto en la analítica se aplican bajo el bloqueo del vehículo, el mismo de
+     * {@link #actualizarValorDiario(Vehiculo, int)}, para que la analítica use el valor diario vigente.
+     * @param patente Patente del vehículo a arrendar.
+     * @param diasArriendo Días de arriendo solicitados (mayor a cero).
+     * @return Resultado del arriendo.
+     */
+    public ResultadoArriendo arrendarVehiculo(String patente, int diasArriendo) {
+        long inicio = metricas.inicio();
+        try {
+            if (diasArriendo <= 0) {
+                return ResultadoArriendo.DIAS_INVALIDOS;
+            }
+            Vehiculo vehiculo = buscarVehiculo(patente);
+            if (vehiculo == null) {
+                return ResultadoArriendo.NO_ENCONTRADO;
+            }
+            long espera = metricas.inicioMuestreado();
+            synchronized (vehiculo) {
+                metricas.registrarMuestreado(MetricasFlota.Operacion.ESPERA_BLOQUEO, espera);
+                if (!vehiculo.compareAndSetDiasArriendo(0, diasArriendo)) {
+                    return ResultadoArriendo.CONFLICTO;
+                }
+                analitica.arriendoActualizado(vehiculo, 0, diasArriendo);
+            }
+            alCambiarArriendo(vehiculo);
+            return ResultadoArriendo.EXITO;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.ARRENDAR, inicio);
+        }
+    }
+
+    /**
+     * Arrienda un lote de vehículos disponibles. Primero valida el lote completo (días, patentes
+     * inexistentes y vehículos pedidos más de una vez, que reciben {@link ResultadoArriendo#CONFLICTO}
+     * salvo la primera solicitud); luego arrienda cada uno con compare-and-set, como
+     * {@link #arrendarVehiculo(String, int)}, y entrega todos los cambios a los registros en una sola llamada.
+     * @param solicitudes Patentes y días de arriendo solicitados.
+     * @return Informe con el resultado de cada solicitud, en el orden del lote.
+     */
+    public InformeLote<ResultadoArriendo> arrendarVehiculos(Collection<SolicitudArriendo> solicitudes) {
+        long inicio = metricas.inicio();
+        try {
+            SolicitudArriendo[] elementos = solicitudes.toArray(new SolicitudArriendo[0]);
+            Vehiculo[] encontrados = new Vehiculo[elementos.length];
+            List<String> patentes = new ArrayList<>(elementos.length);
+            List<ResultadoArriendo> resultados = new ArrayList<>(elementos.length);
+            Set<Vehiculo> enLote = Collections.newSetFromMap(new IdentityHashMap<>(elementos.length * 2));
+            for (int i = 0; i < elementos.length; i++) {
+                SolicitudArriendo s = elementos[i];
+                patentes.add(s == null ? null : s.getPatente());
+                if (s != null && s.getDiasArriendo() <= 0) {
+                    resultados.add(ResultadoArriendo.DIAS_INVALIDOS);
+                } else if (s == null || (encontrados[i] = buscarVehiculo(s.getPatente())) == null) {
+                    resultados.add(ResultadoArriendo.NO_ENCONTRADO);
+                } else if (!enLote.add(encontrados[i])) {
+                    resultados.add(ResultadoArriendo.CONFLICTO);
+                } else {
+                    resultados.add(ResultadoArriendo.EXITO);
+                }
+            }
+            List<Vehiculo> arrendados = new ArrayList<>(elementos.length);
+            for (int i = 0; i < elementos.length; i++) {
+                if (resultados.get(i) != ResultadoArriendo.EXITO) {
+                    continue;
+                }
+                Vehiculo v = encontrados[i];
+                int dias = elementos[i].getDiasArriendo();
+                long espera = metricas.inicioMuestreado();
+                synchronized (v) {
+                    metricas.registrarMuestreado(MetricasFlota.Operacion.ESPERA_BLOQUEO, espera);
+                    if (!v.compareAndSetDiasArriendo(0, dias)) {
+                        resultados.set(i, ResultadoArriendo.CONFLICTO);
+                        continue;
+                    }
+                    analitica.arriendoActualizado(v, 0, dias);
+                }
+                reindexarArriendo(v);
+                arrendados.add(v);
+            }
+            for (IRegistroCambios r : registros) {
+                r.arriendosActualizados(arrendados);
+            }
+            return new InformeLote<>(patentes, resultados, ResultadoArriendo.EXITO);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.ARRENDAR_LOTE, inicio);
+        }
+    }
+
+    /**
+     * Reserva un vehículo para un rango de fechas. La verificación de traslape y el registro se hacen
+     * juntos bajo el bloqueo de la agenda del vehículo, por lo que de dos reservas concurrentes que se
+     * traslapan solo una obtiene {@link ResultadoArriendo#EXITO}. Las reservas son independientes de los
+     * días de arriendo en curso.
+     * @param patente Patente del vehículo.
+     * @param desde Fecha de inicio, inclusive.
+     * @param hasta Fecha de término, exclusive.
+     * @return {@link ResultadoArriendo#DIAS_INVALIDOS} si el rango está vacío, {@link ResultadoArriendo#CONFLICTO}
+     *         si se traslapa con otra reserva.
+     */
+    public ResultadoArriendo reservarVehiculo(String patente, LocalDate desde, LocalDate hasta) {
+        long inicio = metricas.inicio();
+        try {
+            if (desde == null || hasta == null || !desde.isBefore(hasta)) {
+                return ResultadoArriendo.DIAS_INVALIDOS;
+            }
+            Vehiculo vehiculo = buscarVehiculo(patente);
+            if (vehiculo == null) {
+                return ResultadoArriendo.NO_ENCONTRADO;
+            }
+            Reserva reserva = reservas.reservar(vehiculo, desde, hasta);
+            if (reserva == null) {
+                return ResultadoArriendo.CONFLICTO;
+            }
+            for (IRegistroCambios r : registros) {
+                r.reservaCreada(reserva);
+            }
+            return ResultadoArriendo.EXITO;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.RESERVAR, inicio);
+        }
+    }
+
+    /**
+     * Cancela una reserva e informa la cancelación a los registros de cambios.
+     * @param patente Patente del vehículo.
+     * @param desde Fecha de inicio de la reserva.
+     * @return true si la reserva existía y se canceló.
+     */
+    public boolean cancelarReserva(String patente, LocalDate desde) {
+        long inicio = metricas.inicio();
+        try {
+            Vehiculo vehiculo = buscarVehiculo(patente);
+            Reserva cancelada = vehiculo == null || desde == null ? null : reservas.cancelar(vehiculo, desde);
+            if (cancelada == null) {
+                return false;
+            }
+            for (IRegistroCambios r : registros) {
+                r.reservaCancelada(cancelada);
+            }
+            return true;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.RESERVAR, inicio);
+        }
+    }
+
+    /**
+     * Reservas de un vehículo ordenadas por fecha de inicio.
+     * @param patente Patente del vehículo.
+     * @return Reservas del vehículo; vacía si no existe o no tiene.
+     */
+    public List<Reserva> listarReservas(String patente) {
+        Vehiculo vehiculo = buscarVehiculo(patente);
+        return vehiculo == null ? new ArrayList<>() : reservas.listar(vehiculo);
+    }
+
+    /**
+     * Lista los vehículos sin reservas entre dos fechas, ordenados por patente.
+     * @param desde Fecha de inicio, inclusive.
+     * @param hasta Fecha de término, exclusive.
+     * @return Vehículos libres en todo el rango.
+     * @throws IllegalArgumentException Si falta una fecha o desde no es anterior a hasta.
+     */
+    public List<Vehiculo> listarVehiculosLibres(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return reservas.filtrarLibres(ordenPorPatente.values(), desde, hasta);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Lista los vehículos de pasajeros sin reservas entre dos fechas, ordenados por patente.
+     * @param desde Fecha de inicio, inclusive.
+     * @param hasta Fecha de término, exclusive.
+     * @return Vehículos de pasajeros libres en todo el rango.
+     * @throws IllegalArgumentException Si falta una fecha o desde no es anterior a hasta.
+     */
+    public List<VehiculoPasajeros> listarPasajerosLibres(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return reservas.filtrarLibres(pasajeros.values(), desde, hasta);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Lista los vehículos de carga sin reservas entre dos fechas, ordenados por patente.
+     * @param desde Fecha de inicio, inclusive.
+     * @param hasta Fecha de término, exclusive.
+     * @return Vehículos de carga libres en todo el rango.
+     * @throws IllegalArgumentException Si falta una fecha o desde no es anterior a hasta.
+     */
+    public List<VehiculoCarga> listarCargaLibres(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return reservas.filtrarLibres(carga.values(), desde, hasta);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Verifica un rango de fechas con la misma regla que las reservas: ambas fechas presentes y desde anterior a hasta.
+     */
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("Rango de fechas inválido: " + desde + " a " + hasta);
+        }
+    }
+
+    /**
+     * Devuelve la agenda de reservas de la flota.
+     * @return Agenda de reservas.
+     */
+    public AgendaReservas getAgendaReservas() {
+        return reservas;
+    }
+
+    /**
+     * Actualiza los días de arriendo de un vehículo y mantiene los índices de arriendo.
+     * A diferencia de {@link #arrendarVehiculo(String, int)}, asigna el valor sin importar el estado previo.
+     * @param vehiculo Vehículo registrado a actualizar.
+     * @param diasArriendo Nuevos días de arriendo (0 indica disponible).
+     */
+    public void actualizarDiasArriendo(Vehiculo vehiculo, int diasArriendo) {
+        long inicio = metricas.inicio();
+        try {
+            long espera = metricas.inicioMuestreado();
+            synchronized (vehiculo) {
+                metricas.registrarMuestreado(MetricasFlota.Operacion.ESPERA_BLOQUEO, espera);
+                int anteriores = vehiculo.getAndSetDiasArriendo(diasArriendo);
+                analitica.arriendoActualizado(vehiculo, anteriores, diasArriendo);
+            }
+            alCambiarArriendo(vehiculo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.ARRENDAR, inicio);
+        }
+    }
+
+    /**
+     * Propaga un cambio de días de arriendo, ya aplicado a la analítica, a los índices y los registros de cambios.
+     */
+    private void alCambiarArriendo(Vehiculo vehiculo) {
+        reindexarArriendo(vehiculo);
+        for (IRegistroCambios r : registros) {
+            r.arriendoActualizado(vehiculo);
+        }
+    }
+
+    /**
+     * Ajusta la pertenencia del vehículo a los índices de disponibilidad y de arriendo
+     * corto/largo según sus días de arriendo actuales. Es idempotente: si otro hilo cambia
+     * los días mientras se reindexa, se repite hasta que el índice refleje el último valor.
+     */
+    private void reindexarArriendo(Vehiculo vehiculo) {
+        int dias;
+        do {
+            dias = vehiculo.getDiasArriendo();
+            actualizarIndice(disponibles, vehiculo, dias == 0);
+            actualizarIndice(arriendosLargos, vehiculo, dias >= DIAS_ARRIENDO_LARGO);
+            actualizarIndice(arriendosCortos, vehiculo, dias < DIAS_ARRIENDO_LARGO);
+        } while (dias != vehiculo.getDiasArriendo());
+    }
+
+    private static void actualizarIndice(Set<Vehiculo> indice, Vehiculo vehiculo, boolean pertenece) {
+        if (pertenece) {
+            indice.add(vehiculo);
+        } else {
+            indice.remove(vehiculo);
+        }
+    }
+
+    /**
+     * Cambia el valor diario de un vehículo manteniendo los índices por rango, la analítica y los registros de cambios.
+     * Los cambios de valor y de arriendo de un mismo vehículo se aplican de a uno, bajo el bloqueo del vehículo.
+     * @param vehiculo Vehículo a modificar.
+     * @param valorDiario Nuevo valor diario, mayor a cero.
+     * @return true si se aplicó el cambio, false si el valor no es válido o el vehículo no pertenece a la flota.
+     */
+    public boolean actualizarValorDiario(Vehiculo vehiculo, int valorDiario) {
+        if (vehiculo == null || valorDiario <= 0) {
             return false;
         }
-        if (vehiculo.getPatente().isEmpty()) {
-            System.out.println("Error: La patente no puede estar vacía");
+        String clave = normalizarPatente(vehiculo.getPatente());
+        if (buscarEnMemoria(clave) != vehiculo) {
             return false;
         }
-        synchronized (vehiculos) {
-            if (vehiculos.containsKey(vehiculo.getPatente())) {
-                System.out.println("Error: Ya existe un vehículo con la patente " + vehiculo.getPatente());
-                return false;
+        long inicio = metricas.inicio();
+        try {
+            long espera = metricas.inicioMuestreado();
+            synchronized (vehiculo) {
+                metricas.registrarMuestreado(MetricasFlota.Operacion.ESPERA_BLOQUEO, espera);
+                int anterior = vehiculo.getValorDiario();
+                if (anterior == valorDiario) {
+                    return true;
+                }
+                vehiculo.setValorDiario(valorDiario);
+                if (vehiculo instanceof VehiculoPasajeros vp) {
+                    pasajerosPorValor.mover(anterior, valorDiario, clave, vp);
+                } else if (vehiculo instanceof VehiculoCarga vc) {
+                    cargaPorValor.mover(anterior, valorDiario, clave, vc);
+                }
+                analitica.valorDiarioActualizado(vehiculo, vehiculo.getDiasArriendo(), anterior, valorDiario);
+            }
+            for (IRegistroCambios r : registros) {
+                r.valorDiarioActualizado(vehiculo);
             }
-            vehiculos.put(vehiculo.getPatente(), vehiculo);
             return true;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.ACTUALIZAR_VALOR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve los vehículos con valor diario dentro del rango, ordenados por valor y patente, sin recorrer la flota.
+     * @param minimo Valor diario mínimo (inclusive).
+     * @param maximo Valor diario máximo (inclusive); {@link Integer#MAX_VALUE} para no acotarlo.
+     * @return Lista de vehículos del rango.
+     */
+    public List<Vehiculo> listarPorValorDiario(int minimo, int maximo) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return IndiceRango.rango(pasajerosPorValor, cargaPorValor, minimo, maximo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve los vehículos de pasajeros con valor diario dentro del rango, ordenados por valor y patente.
+     * @param minimo Valor diario mínimo (inclusive).
+     * @param maximo Valor diario máximo (inclusive).
+     * @return Lista de vehículos de pasajeros del rango.
+     */
+    public List<VehiculoPasajeros> listarPasajerosPorValorDiario(int minimo, int maximo) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return pasajerosPorValor.rango(minimo, maximo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve los vehículos de carga con valor diario dentro del rango, ordenados por valor y patente.
+     * @param minimo Valor diario mínimo (inclusive).
+     * @param maximo Valor diario máximo (inclusive).
+     * @return Lista de vehículos de carga del rango.
+     */
+    public List<VehiculoCarga> listarCargaPorValorDiario(int minimo, int maximo) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return cargaPorValor.rango(minimo, maximo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve los vehículos con año dentro del rango, ordenados por año y patente, sin recorrer la flota.
+     * @param minimo Año mínimo (inclusive).
+     * @param maximo Año máximo (inclusive); {@link Integer#MAX_VALUE} para no acotarlo.
+     * @return Lista de vehículos del rango.
+     */
+    public List<Vehiculo> listarPorAnio(int minimo, int maximo) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return IndiceRango.rango(pasajerosPorAnio, cargaPorAnio, minimo, maximo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve los vehículos de pasajeros con año dentro del rango, ordenados por año y patente.
+     * @param minimo Año mínimo (inclusive).
+     * @param maximo Año máximo (inclusive).
+     * @return Lista de vehículos de pasajeros del rango.
+     */
+    public List<VehiculoPasajeros> listarPasajerosPorAnio(int minimo, int maximo) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return pasajerosPorAnio.rango(minimo, maximo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve los vehículos de carga con año dentro del rango, ordenados por año y patente.
+     * @param minimo Año mínimo (inclusive).
+     * @param maximo Año máximo (inclusive).
+     * @return Lista de vehículos de carga del rango.
+     */
+    public List<VehiculoCarga> listarCargaPorAnio(int minimo, int maximo) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return cargaPorAnio.rango(minimo, maximo);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Sugiere marcas y modelos que completan el texto escrito, incluyendo los parecidos si el texto tiene errores de tipeo.
+     * @param texto Texto escrito hasta el momento, sin distinguir mayúsculas ni tildes.
+     * @param limite Cantidad máxima de sugerencias.
+     * @return Marcas y modelos tal como aparecen en la flota.
+     */
+    public List<String> sugerirMarcaModelo(String texto, int limite) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return busqueda.sugerir(texto, limite);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.BUSCAR_TEXTO, inicio);
+        }
+    }
+
+    /**
+     * Busca vehículos por marca o modelo sin recorrer la flota. Entrega los que comienzan con el texto y,
+     * si no hay ninguno, los de marcas o modelos parecidos, tolerando errores de tipeo.
+     * @param texto Marca, modelo o su comienzo, sin distinguir mayúsculas ni tildes.
+     * @param limite Cantidad máxima de vehículos.
+     * @return Vehículos encontrados.
+     */
+    public List<Vehiculo> buscarPorMarcaModelo(String texto, int limite) {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            List<Vehiculo> encontrados = busqueda.buscarPorPrefijo(texto, limite);
+            return encontrados.isEmpty() ? busqueda.buscarAproximado(texto, limite) : encontrados;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.BUSCAR_TEXTO, inicio);
         }
     }
 
@@ -56,8 +912,12 @@ public class VehiculoService {
      * @return Lista de vehículos.
      */
     public List<Vehiculo> listVehiculos() {
-        synchronized (vehiculos) {
-            return new ArrayList<>(vehiculos.values());
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return new ArrayList<>(vistaVehiculos.values());
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
         }
     }
 
@@ -66,15 +926,13 @@ public class VehiculoService {
      * @return Lista de VehiculoPasajeros.
      */
     public List<VehiculoPasajeros> listarVehiculosPasajeros() {
-        List<VehiculoPasajeros> lista = new ArrayList<>();
-        synchronized(vehiculos){
-            for (Vehiculo v : vehiculos.values()) {
-                if (v instanceof VehiculoPasajeros) {
-                    lista.add((VehiculoPasajeros) v);
-                }
-            }
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return new ArrayList<>(pasajeros.values());
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
         }
-        return lista;
     }
 
     /**
@@ -82,15 +940,127 @@ public class VehiculoService {
      * @return Lista de VehiculoCarga.
      */
     public List<VehiculoCarga> listarVehiculosCarga() {
-        List<VehiculoCarga> lista = new ArrayList<>();
-        synchronized(vehiculos){
-            for (Vehiculo v : vehiculos.values()) {
-                if (v instanceof VehiculoCarga) {
-                    lista.add((VehiculoCarga) v);
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return new ArrayList<>(carga.values());
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Devuelve una página de vehículos ordenados por patente, comenzando después del cursor.
+     * Recorre el índice ordenado sin copiar la flota: la memoria por consulta depende solo del tamaño de página.
+     * @param cursor Patente del último elemento de la página anterior, o null para comenzar desde el inicio.
+     * @param tamano Cantidad máxima de vehículos de la página.
+     * @param filtro Condición que deben cumplir los vehículos, o null para incluirlos todos.
+     * @return Página de vehículos.
+     */
+    public Pagina<Vehiculo> paginarVehiculos(String cursor, int tamano, Predicate<? super Vehiculo> filtro) {
+        asegurarCargaCompleta();
+        return paginar(ordenPorPatente, cursor, tamano, filtro);
+    }
+
+    /**
+     * Devuelve una página de vehículos de pasajeros ordenados por patente.
+     * @param cursor Cursor de la página anterior, o null para comenzar desde el inicio.
+     * @param tamano Cantidad máxima de vehículos de la página.
+     * @return Página de VehiculoPasajeros.
+     */
+    public Pagina<VehiculoPasajeros> paginarPasajeros(String cursor, int tamano) {
+        asegurarCargaCompleta();
+        return paginar(pasajeros, cursor, tamano, null);
+    }
+
+    /**
+     * Devuelve una página de vehículos de carga ordenados por patente.
+     * @param cursor Cursor de la página anterior, o null para comenzar desde el inicio.
+     * @param tamano Cantidad máxima de vehículos de la página.
+     * @return Página de VehiculoCarga.
+     */
+    public Pagina<VehiculoCarga> paginarCarga(String cursor, int tamano) {
+        asegurarCargaCompleta();
+        return paginar(carga, cursor, tamano, null);
+    }
+
+    private static <T> Pagina<T> paginar(ConcurrentSkipListMap<String, T> indice, String cursor, int tamano,
+                                         Predicate<? super T> filtro) {
+        long inicio = MetricasFlota.getInstancia().inicio();
+        try {
+            if (tamano <= 0) {
+                throw new IllegalArgumentException("El tamaño de página debe ser mayor a cero");
+            }
+            Map<String, T> desde = cursor == null ? indice : indice.tailMap(normalizarPatente(cursor), false);
+            List<T> elementos = new ArrayList<>(Math.min(tamano, 1024));
+            String ultimaClave = null;
+            for (Map.Entry<String, T> entrada : desde.entrySet()) {
+                if (filtro == null || filtro.test(entrada.getValue())) {
+                    elementos.add(entrada.getValue());
+                    ultimaClave = entrada.getKey();
+                    if (elementos.size() == tamano) {
+                        break;
+                    }
+                }
+            }
+            return new Pagina<>(elementos, elementos.size() == tamano ? ultimaClave : null);
+        } finally {
+            MetricasFlota.getInstancia().registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Lista los vehículos disponibles (sin días de arriendo).
+     * @return Lista de vehículos disponibles.
+     */
+    public List<Vehiculo> listarVehiculosDisponibles() {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return new ArrayList<>(disponibles);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Lista los vehículos de pasajeros disponibles para arriendo.
+     * @return Lista de VehiculoPasajeros disponibles.
+     */
+    public List<VehiculoPasajeros> listarPasajerosDisponibles() {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            List<VehiculoPasajeros> lista = new ArrayList<>();
+            for (Vehiculo v : disponibles) {
+                if (v instanceof VehiculoPasajeros vp) {
+                    lista.add(vp);
                 }
             }
+            return lista;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Lista los vehículos de carga disponibles para arriendo.
+     * @return Lista de VehiculoCarga disponibles.
+     */
+    public List<VehiculoCarga> listarCargaDisponibles() {
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            List<VehiculoCarga> lista = new ArrayList<>();
+            for (Vehiculo v : disponibles) {
+                if (v instanceof VehiculoCarga vc) {
+                    lista.add(vc);
+                }
+            }
+            return lista;
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
         }
-        return lista;
     }
 
     /**
@@ -98,15 +1068,17 @@ public class VehiculoService {
      * @return Lista de vehículos con arriendo largo.
      */
     public List<Vehiculo> filtrarArriendosLargos() {
-        List<Vehiculo> lista = new ArrayList<>();
-        synchronized (vehiculos) {
-            for (Vehiculo v : vehiculos.values()) {
-                if (v.getDiasArriendo() >= 7) {
-                    lista.add(v);
-                }
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            AlmacenColumnar almacen = almacenColumnar;
+            if (almacen != null) {
+                return almacen.filtrarPorDias(DIAS_ARRIENDO_LARGO, Integer.MAX_VALUE);
             }
+            return new ArrayList<>(arriendosLargos);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
         }
-        return lista;
     }
 
     /**
@@ -114,7 +1086,8 @@ public class VehiculoService {
      * @return Número de vehículos con arriendo largo.
      */
     public int contarArriendosLargos() {
-        return filtrarArriendosLargos().size();
+        asegurarCargaCompleta();
+        return arriendosLargos.size();
     }
 
     /**
@@ -122,15 +1095,17 @@ public class VehiculoService {
      * @return Lista de vehículos con arriendo corto.
      */
     public List<Vehiculo> filtrarArriendosCortos() {
-        List<Vehiculo> lista = new ArrayList<>();
-        synchronized (vehiculos) {
-            for (Vehiculo v : vehiculos.values()) {
-                if (v.getDiasArriendo() <= 6) {
-                    lista.add(v);
-                }
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            AlmacenColumnar almacen = almacenColumnar;
+            if (almacen != null) {
+                return almacen.filtrarPorDias(Integer.MIN_VALUE, DIAS_ARRIENDO_LARGO - 1);
             }
+            return new ArrayList<>(arriendosCortos);
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
         }
-        return lista;
     }
 
     /**
@@ -138,39 +1113,208 @@ public class VehiculoService {
      * @return Número de vehículos con arriendo corto.
      */
     public int contarArriendosCortos() {
-        return filtrarArriendosCortos().size();
+        asegurarCargaCompleta();
+        return arriendosCortos.size();
+    }
+
+    /**
+     * Devuelve los K vehículos con mayor valor según el criterio indicado, sin ordenar toda la flota.
+     * @param criterio Criterio del ranking.
+     * @param k Cantidad de vehículos a devolver.
+     * @return Vehículos de mayor a menor valor; los empates se ordenan por patente.
+     */
+    public List<Vehiculo> topVehiculos(CriterioRanking criterio, int k) {
+        return topVehiculos(criterio, k, null);
+    }
+
+    /**
+     * Devuelve los K vehículos con mayor valor según el criterio indicado entre los que cumplen el filtro.
+     * Recorre la flota en paralelo con un montículo acotado por hilo, con costo O(n log K). Para los arriendos
+     * más largos sin filtro recorre solo el índice de arriendos largos cuando este tiene al menos K vehículos,
+     * ya que cualquier arriendo largo supera a uno corto.
+     * @param criterio Criterio del ranking.
+     * @param k Cantidad de vehículos a devolver.
+     * @param filtro Condición adicional, o null para considerar todos los vehículos.
+     * @return Vehículos de mayor a menor valor; los empates se ordenan por patente.
+     */
+    public List<Vehiculo> topVehiculos(CriterioRanking criterio, int k, Predicate<? super Vehiculo> filtro) {
+        Collection<Vehiculo> candidatos = criterio == CriterioRanking.DIAS_ARRIENDO && filtro == null
+                && arriendosLargos.size() >= k ? arriendosLargos : ordenPorPatente.values();
+        return seleccionarTop(candidatos, criterio, k, filtro);
+    }
+
+    /**
+     * Devuelve los K vehículos de pasajeros con mayor valor según el criterio indicado.
+     * Recorre solo el índice de vehículos de pasajeros.
+     * @param criterio Criterio del ranking.
+     * @param k Cantidad de vehículos a devolver.
+     * @return Vehículos de mayor a menor valor.
+     */
+    public List<VehiculoPasajeros> topPasajeros(CriterioRanking criterio, int k) {
+        return seleccionarTop(pasajeros.values(), criterio, k, null);
+    }
+
+    /**
+     * Devuelve los K vehículos de carga con mayor valor según el criterio indicado.
+     * Recorre solo el índice de vehículos de carga.
+     * @param criterio Criterio del ranking.
+     * @param k Cantidad de vehículos a devolver.
+     * @return Vehículos de mayor a menor valor.
+     */
+    public List<VehiculoCarga> topCarga(CriterioRanking criterio, int k) {
+        return seleccionarTop(carga.values(), criterio, k, null);
+    }
+
+    private <T extends Vehiculo> List<T> seleccionarTop(Collection<T> candidatos, CriterioRanking criterio, int k,
+            Predicate<? super T> filtro) {
+        if (criterio == null || k < 0) {
+            throw new IllegalArgumentException("criterio nulo o k negativo: " + criterio + ", " + k);
+        }
+        asegurarCargaCompleta();
+        long inicio = metricas.inicio();
+        try {
+            return candidatos.parallelStream()
+                    .filter(v -> !criterio.isSoloArrendados() || v.getDiasArriendo() > 0)
+                    .filter(v -> filtro == null || filtro.test(v))
+                    .collect(SeleccionTopK.mayores(k, criterio::valor,
+                            Comparator.comparing(Vehiculo::getPatente, String.CASE_INSENSITIVE_ORDER)));
+        } finally {
+            metricas.registrar(MetricasFlota.Operacion.LISTAR, inicio);
+        }
+    }
+
+    /**
+     * Calcula las K boletas emitidas de mayor total, sin calcular ni ordenar todas las boletas de la flota.
+     * @param k Cantidad de boletas a devolver.
+     * @return Boletas de mayor a menor total.
+     */
+    public List<Boleta> topBoletas(int k) {
+        List<Boleta> top = new ArrayList<>();
+        for (Vehiculo v : topVehiculos(CriterioRanking.TOTAL_BOLETA, k)) {
+            Boleta b = ((IBoleta) v).calcularBoleta();
+            if (b.getDiasArriendo() > 0) {
+                top.add(b);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Calcula las boletas de todos los vehículos arrendados, sin efectos secundarios.
+     * El cálculo corre en paralelo sobre una vista débilmente consistente del mapa; cada vehículo entrega su
+     * boleta memorizada si no cambió desde el último cálculo. Con el almacén columnar habilitado, los vehículos
+     * arrendados se eligen recorriendo su columna de días, sin visitar los objetos de los disponibles.
+     * @return Lista de boletas inmutables.
+     */
+    public List<Boleta> calcularBoletasEmitidas() {
+        asegurarCargaCompleta();
+        AlmacenColumnar almacen = almacenColumnar;
+        Collection<Vehiculo> candidatos = almacen != null
+                ? almacen.filtrarPorDias(1, Integer.MAX_VALUE) : ordenPorPatente.values();
+        return candidatos.parallelStream()
+                .filter(v -> v instanceof IBoleta && v.getDiasArriendo() > 0)
+                .map(v -> ((IBoleta) v).calcularBoleta())
+                .filter(b -> b.getDiasArriendo() > 0)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Calcula los totales de las boletas emitidas agrupados por tipo de vehículo.
+     * Con el almacén columnar habilitado se suman sus columnas de días y valor diario, sin crear boletas.
+     * @return Mapa con el tipo ({@link Boleta#TIPO_PASAJEROS} o {@link Boleta#TIPO_CARGA}) como clave.
+     */
+    public Map<String, ResumenBoletas> totalesBoletasPorTipo() {
+        asegurarCargaCompleta();
+        AlmacenColumnar almacen = almacenColumnar;
+        if (almacen != null) {
+            Map<String, ResumenBoletas> totales = new ConcurrentHashMap<>();
+            agregarTotal(totales, Boleta.TIPO_PASAJEROS,
+                    almacen.resumirBoletas(AlmacenColumnar.TIPO_PASAJEROS, IBoleta.dctoPasajeros, IBoleta.iva));
+            agregarTotal(totales, Boleta.TIPO_CARGA,
+                    almacen.resumirBoletas(AlmacenColumnar.TIPO_CARGA, IBoleta.dctoCarga, IBoleta.iva));
+            return totales;
+        }
+        return ordenPorPatente.values().parallelStream()
+                .filter(v -> v instanceof IBoleta && v.getDiasArriendo() > 0)
+                .map(v -> ((IBoleta) v).calcularBoleta())
+                .filter(b -> b.getDiasArriendo() > 0)
+                .collect(Collectors.groupingByConcurrent(Boleta::getTipo,
+                        Collectors.reducing(ResumenBoletas.VACIO, ResumenBoletas::de, ResumenBoletas::sumar)));
+    }
+
+    private static void agregarTotal(Map<String, ResumenBoletas> totales, String tipo, ResumenBoletas resumen) {
+        if (resumen.getCantidad() > 0) {
+            totales.put(tipo, resumen); // Igual que al agrupar las boletas: un tipo sin boletas no aparece
+        }
+    }
+
+    /**
+     * Entrega cada boleta emitida al consumidor indicado, por ejemplo para imprimirla.
+     * @param consumidor Consumidor de las boletas calculadas.
+     */
+    public void procesarBoletasEmitidas(Consumer<Boleta> consumidor) {
+        asegurarCargaCompleta();
+        calcularBoletasEmitidas().forEach(consumidor);
     }
 
     /**
      * Muestra todas las boletas emitidas por los vehículos registrados.
+     * Las boletas se calculan primero y luego se imprimen, sin mantener ningún bloqueo.
      */
     public void mostrarBoletasEmitidas() {
-        synchronized( vehiculos){
-            for (Vehiculo v : vehiculos.values()) {
-                if (v instanceof IBoleta && v.getDiasArriendo() > 0) {
-                    ((IBoleta) v).mostrarBoleta();
-                }
+        asegurarCargaCompleta();
+        procesarBoletasEmitidas(b -> {
+            if (buscarVehiculo(b.getPatente()) instanceof IBoleta v) {
+                v.imprimirBoleta(b);
+            }
+        });
+    }
+
+    /**
+     * Busca un vehículo por su patente sin distinguir mayúsculas de minúsculas.
+     * A diferencia de {@link #getVehiculoByPatente(String)}, no informa por consola si no existe.
+     * @param patente Patente del vehículo a buscar.
+     * @return Vehículo correspondiente o null si no existe o la patente es nula.
+     */
+    public Vehiculo buscarVehiculo(String patente) {
+        long inicio = metricas.inicioMuestreado();
+        try {
+            if (patente == null) {
+                return null;
             }
+            Vehiculo vehiculo = buscarEnMemoria(patente);
+            return vehiculo != null || cargaCompleta ? vehiculo : materializar(patente);
+        } finally {
+            metricas.registrarMuestreado(MetricasFlota.Operacion.BUSCAR, inicio);
         }
     }
 
+    private Vehiculo buscarEnMemoria(String patente) {
+        long codigo = CodificadorPatente.codificar(patente);
+        if (codigo != CodificadorPatente.NO_CODIFICABLE) {
+            return vehiculos.get(codigo);
+        }
+        // Caracteres fuera de ASCII pueden normalizarse a una patente codificable
+        String clave = normalizarPatente(patente);
+        codigo = CodificadorPatente.codificar(clave);
+        return codigo != CodificadorPatente.NO_CODIFICABLE ? vehiculos.get(codigo) : patentesHeredadas.get(clave);
+    }
+
     /**
-     * Busca y retorna un vehículo por su patente.
+     * Busca y retorna un vehículo por su patente, sin distinguir mayúsculas de minúsculas.
      * @param patente Patente del vehículo a buscar.
      * @return Vehículo correspondiente o null si no existe.
      */
     public Vehiculo getVehiculoByPatente(String patente) {
-        if (patente == null || patente.isEmpty()) {
+        if (patente == null || patente.isBlank()) {
             System.out.println("Error: La patente no puede ser nula o vacía");
             return null;
         }
-        synchronized(vehiculos){
-            Vehiculo vehiculo = vehiculos.get(patente);
-            if (vehiculo == null) {
-                System.out.println("Error: No se encontró un vehículo con la patente " + patente);
-            }
-            return vehiculo;
+        Vehiculo vehiculo = buscarVehiculo(patente);
+        if (vehiculo == null) {
+            System.out.println("Error: No se encontró un vehículo con la patente " + patente);
         }
+        return vehiculo;
     }
 
 }
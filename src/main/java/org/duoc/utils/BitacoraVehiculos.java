@@ -0,0 +1,483 @@
+package org.duoc.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import org.duoc.interfaces.IRegistroCambios;
+import org.duoc.models.Reserva;
+import org.duoc.models.Vehiculo;
+
+/**
+ * Bitácora de escritura anticipada (write-ahead log) para los cambios de la flota.
+ * Cada alta, cada cambio de arriendo o de valor diario y cada reserva o cancelación se agrega al final del archivo de bitácora.
+ * Un hilo escritor agrupa las entradas pendientes y hace un único {@code force} por grupo
+ * (group commit); quien registra un cambio espera hasta que su grupo quede en disco.
+ * Cuando la bitácora supera el tamaño de la flota (o el mínimo configurado) se compacta
+ * en un snapshot binario ({@link SnapshotBinario}), que incluye las reservas vigentes, y se reinicia, por lo que el costo de persistencia por operación es O(1) amortizado.
+ *
+ * Archivos usados a partir de la ruta base:
+ * <ul>
+ *   <li>{@code ruta}: bitácora activa.</li>
+ *   <li>{@code ruta.snapshot.dqr}: último snapshot compactado.</li>
+ *   <li>{@code ruta.anterior}: bitácora rotada durante una compactación en curso.</li>
+ * </ul>
+ * Si al abrir la bitácora queda una {@code ruta.anterior} de una compactación interrumpida, se compacta de
+ * inmediato; así sus cambios quedan en el snapshot antes de que una nueva rotación pueda reemplazarla.
+ * Si escribir un grupo falla, el archivo se recorta al último grupo confirmado y el grupo se reintenta; quienes
+ * esperan ese grupo reciben el error, que se limpia en cuanto un grupo queda en disco. Si falla la compactación,
+ * la bitácora sigue abierta y la compactación se reintenta después del siguiente grupo.
+ *
+ * @author Karla Santibáñez
+ */
+public class BitacoraVehiculos implements IRegistroCambios, AutoCloseable {
+    private static final char ALTA = 'A';
+    private static final char ARRIENDO = 'R';
+    private static final char VALOR_DIARIO = 'V';
+    private static final char RESERVA = 'S';
+    private static final char CANCELACION = 'C';
+
+    private final Path ruta;
+    private final Path rutaSnapshot;
+    private final Path rutaAnterior;
+    private final int minimoCompactacion;
+    private final Supplier<Collection<Vehiculo>> estado;
+    private final Supplier<Collection<Reserva>> reservas;
+    private final MetricasFlota metricas = MetricasFlota.getInstancia();
+
+    private final LinkedBlockingQueue<Entrada> pendientes = new LinkedBlockingQueue<>();
+    private final Object monitorPersistencia = new Object();
+    private static final long PAUSA_REINTENTO_MS = 100;
+
+    private final Thread escritor;
+    private FileChannel canal;
+    private long tamanoConfirmado;
+    private long entradasEnBitacora;
+    private long encoladas;
+    private long persistidas;
+    private volatile boolean cerrada;
+    private volatile IOException error;
+
+    /**
+     * Entrada pendiente: el valor se lee del vehículo al escribirla, así la última entrada refleja el último estado.
+     * Las reservas y cancelaciones llevan la reserva en lugar del vehículo.
+     */
+    private record Entrada(char tipo, Vehiculo vehiculo, Reserva reserva, long secuencia) {}
+
+    /**
+     * Abre (o crea) la bitácora, sin reservas en los snapshots, e inicia el hilo escritor.
+     * @param ruta Ruta base de la bitácora.
+     * @param minimoCompactacion Entradas mínimas antes de compactar en un snapshot.
+     * @param estado Proveedor de los vehículos actuales, usado para escribir el snapshot.
+     * @throws IOException Si no se pudo abrir el archivo de bitácora.
+     * @see #BitacoraVehiculos(String, int, Supplier, Supplier)
+     */
+    public BitacoraVehiculos(String ruta, int minimoCompactacion, Supplier<Collection<Vehiculo>> estado) throws IOException {
+        this(ruta, minimoCompactacion, estado, List::of);
+    }
+
+    /**
+     * Abre (o crea) la bitácora e inicia el hilo escritor.
+     * @param ruta Ruta base de la bitácora.
+     * @param minimoCompactacion Entradas mínimas antes de compactar en un snapshot.
+     * @param estado Proveedor de los vehículos actuales, usado para escribir el snapshot. Si quedó una
+     *               compactación a medias se usa de inmediato, por lo que la bitácora ya debe estar reproducida.
+     * @param reservas Proveedor de las reservas vigentes, que se guardan junto con los vehículos en el snapshot.
+     * @throws IOException Si no se pudo abrir el archivo de bitácora.
+     */
+    public BitacoraVehiculos(String ruta, int minimoCompactacion, Supplier<Collection<Vehiculo>> estado,
+                             Supplier<Collection<Reserva>> reservas) throws IOException {
+        this.ruta = Path.of(ruta);
+        this.rutaSnapshot = rutaSnapshot(ruta);
+        this.rutaAnterior = Path.of(ruta + ".anterior");
+        this.minimoCompactacion = minimoCompactacion;
+        this.estado = estado;
+        this.reservas = reservas;
+        this.canal = abrir(this.ruta);
+        this.entradasEnBitacora = contarLineas(this.ruta);
+        terminarLineaTruncada();
+        this.tamanoConfirmado = canal.size();
+        if (Files.exists(rutaAnterior)) {
+            compactar();
+        }
+        this.escritor = new Thread(this::escribir, "BitacoraThread");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Devuelve la ruta del snapshot asociado a una bitácora.
+     * @param ruta Ruta base de la bitácora.
+     * @return Ruta del archivo de snapshot.
+     */
+    public static Path rutaSnapshot(String ruta) {
+        return Path.of(ruta + ".snapshot" + SnapshotBinario.EXTENSION);
+    }
+
+    /**
+     * Reproduce las bitácoras existentes (la rotada, si quedó una compactación a medias, y luego la activa).
+     * Debe llamarse después de cargar el snapshot y antes de abrir la bitácora para escritura.
+     * @param ruta Ruta base de la bitácora.
+     * @param altas Consumidor de los vehículos agregados.
+     * @param arriendos Consumidor de los cambios de arriendo (patente y días).
+     * @param valores Consumidor de los cambios de valor diario (patente y valor).
+     * @param reservas Consumidor de las reservas creadas.
+     * @param cancelaciones Consumidor de las reservas canceladas.
+     * @return Cantidad de entradas reproducidas.
+     */
+    public static int reproducir(String ruta, Consumer<Vehiculo> altas, ObjIntConsumer<String> arriendos,
+                                 ObjIntConsumer<String> valores, Consumer<Reserva> reservas,
+                                 Consumer<Reserva> cancelaciones) {
+        int entradas = 0;
+        for (Path archivo : List.of(Path.of(ruta + ".anterior"), Path.of(ruta))) {
+            if (!Files.exists(archivo)) continue;
+            try {
+                for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+                    if (reproducirLinea(linea, altas, arriendos, valores, reservas, cancelaciones)) {
+                        entradas++;
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error al leer la bitácora " + archivo + ": " + e.getMessage());
+            }
+        }
+        return entradas;
+    }
+
+    private static boolean reproducirLinea(String linea, Consumer<Vehiculo> altas, ObjIntConsumer<String> arriendos,
+                                           ObjIntConsumer<String> valores, Consumer<Reserva> reservas,
+                                           Consumer<Reserva> cancelaciones) {
+        if (linea.length() < 3 || linea.charAt(1) != ',') {
+            return false; // Línea vacía o truncada por una caída durante la escritura
+        }
+        String datos = linea.substring(2);
+        if (linea.charAt(0) == ALTA) {
+            List<Vehiculo> leidos = new ArrayList<>(1);
+            new ParserCSVVehiculos().parsear(ByteBuffer.wrap(datos.getBytes(StandardCharsets.UTF_8)), false, leidos::add);
+            leidos.forEach(altas);
+            return !leidos.isEmpty();
+        }
+        if (linea.charAt(0) == ARRIENDO || linea.charAt(0) == VALOR_DIARIO) {
+            int coma = datos.lastIndexOf(',');
+            if (coma <= 0) return false;
+            try {
+                (linea.charAt(0) == ARRIENDO ? arriendos : valores)
+                        .accept(datos.substring(0, coma), Integer.parseInt(datos.substring(coma + 1).trim()));
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        if (linea.charAt(0) == RESERVA || linea.charAt(0) == CANCELACION) {
+            String[] campos = datos.split(",");
+            if (campos.length != 3) return false;
+            try {
+                Reserva reserva = new Reserva(campos[0], LocalDate.parse(campos[1]), LocalDate.parse(campos[2].trim()));
+                (linea.charAt(0) == RESERVA ? reservas : cancelaciones).accept(reserva);
+                return true;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void vehiculoAgregado(Vehiculo vehiculo) {
+        registrar(ALTA, vehiculo);
+    }
+
+    @Override
+    public void arriendoActualizado(Vehiculo vehiculo) {
+        registrar(ARRIENDO, vehiculo);
+    }
+
+    @Override
+    public void valorDiarioActualizado(Vehiculo vehiculo) {
+        registrar(VALOR_DIARIO, vehiculo);
+    }
+
+    @Override
+    public void reservaCreada(Reserva reserva) {
+        registrar(RESERVA, null, reserva);
+    }
+
+    @Override
+    public void reservaCancelada(Reserva reserva) {
+        registrar(CANCELACION, null, reserva);
+    }
+
+    @Override
+    public void vehiculosAgregados(List<Vehiculo> vehiculos) {
+        registrarLote(ALTA, vehiculos);
+    }
+
+    @Override
+    public void arriendosActualizados(List<Vehiculo> vehiculos) {
+        registrarLote(ARRIENDO, vehiculos);
+    }
+
+    /**
+     * Encola una entrada y espera a que el hilo escritor la deje en disco.
+     */
+    private void registrar(char tipo, Vehiculo vehiculo) {
+        registrar(tipo, vehiculo, null);
+    }
+
+    private void registrar(char tipo, Vehiculo vehiculo, Reserva reserva) {
+        if (cerrada) {
+            System.out.println("Error: La bitácora está cerrada, el cambio no se persistirá.");
+            return;
+        }
+        long secuencia;
+        synchronized (monitorPersistencia) {
+            secuencia = ++encoladas;
+            pendientes.add(new Entrada(tipo, vehiculo, reserva, secuencia));
+        }
+        esperarPersistencia(secuencia);
+    }
+
+    /**
+     * Encola las entradas de un lote juntas y espera una sola vez a que la última quede en disco,
+     * de modo que el lote completo se fuerza a disco en uno o pocos grupos en lugar de uno por vehículo.
+     */
+    private void registrarLote(char tipo, List<Vehiculo> vehiculos) {
+        if (vehiculos.isEmpty()) {
+            return;
+        }
+        if (cerrada) {
+            System.out.println("Error: La bitácora está cerrada, los cambios no se persistirán.");
+            return;
+        }
+        long secuencia;
+        synchronized (monitorPersistencia) {
+            for (Vehiculo v : vehiculos) {
+                pendientes.add(new Entrada(tipo, v, null, ++encoladas));
+            }
+            secuencia = encoladas;
+        }
+        esperarPersistencia(secuencia);
+    }
+
+    private void esperarPersistencia(long secuencia) {
+        long inicio = metricas.inicio();
+        IOException fallo;
+        synchronized (monitorPersistencia) {
+            while (persistidas < secuencia && error == null && escritor.isAlive()) {
+                try {
+                    monitorPersistencia.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            fallo = persistidas < secuencia ? error : null;
+        }
+        metricas.registrar(MetricasFlota.Operacion.ESPERA_BITACORA, inicio);
+        if (fallo != null) {
+            System.out.println("Error al escribir la bitácora, el cambio se reintentará: " + fallo.getMessage());
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: toma todas las entradas disponibles, las escribe juntas y fuerza a disco una vez.
+     * Un grupo que no se pudo escribir se conserva y se reintenta, junto con las entradas llegadas entretanto.
+     */
+    private void escribir() {
+        List<Entrada> grupo = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        while (!cerrada || !pendientes.isEmpty() || !grupo.isEmpty()) {
+            try {
+                if (grupo.isEmpty()) {
+                    Entrada primera = pendientes.poll(100, TimeUnit.MILLISECONDS);
+                    if (primera == null) continue;
+                    grupo.add(primera);
+                } else {
+                    descartarGrupoIncompleto();
+                }
+                pendientes.drainTo(grupo);
+                sb.setLength(0);
+                for (Entrada entrada : grupo) {
+                    sb.append(entrada.tipo()).append(',');
+                    if (entrada.tipo() == ALTA) {
+                        sb.append(FileIOUtil.filaCSV(entrada.vehiculo()));
+                    } else if (entrada.tipo() == RESERVA || entrada.tipo() == CANCELACION) {
+                        Reserva r = entrada.reserva();
+                        sb.append(r.getPatente()).append(',').append(r.getDesde()).append(',').append(r.getHasta());
+                    } else if (entrada.tipo() == VALOR_DIARIO) {
+                        sb.append(entrada.vehiculo().getPatente()).append(',').append(entrada.vehiculo().getValorDiario());
+                    } else {
+                        sb.append(entrada.vehiculo().getPatente()).append(',').append(entrada.vehiculo().getDiasArriendo());
+                    }
+                    sb.append('\n');
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    canal.write(bytes);
+                }
+                canal.force(false);
+                tamanoConfirmado = canal.size();
+                entradasEnBitacora += grupo.size();
+                marcarPersistidas(grupo.get(grupo.size() - 1).secuencia());
+                grupo.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                synchronized (monitorPersistencia) {
+                    error = e;
+                    monitorPersistencia.notifyAll();
+                }
+                if (cerrada) {
+                    System.out.println("Error: " + grupo.size() + " cambios no se pudieron persistir al cerrar la bitácora: "
+                            + e.getMessage());
+                    grupo.clear();
+                } else {
+                    pausarReintento();
+                }
+                continue;
+            }
+            if (entradasEnBitacora >= Math.max(minimoCompactacion, estado.get().size())) {
+                try {
+                    compactar();
+                } catch (IOException e) {
+                    System.out.println("Error al compactar la bitácora, se reintentará: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Antes de reintentar un grupo, recorta lo que haya alcanzado a escribirse de él (reabriendo la bitácora si
+     * quedó cerrada), para que el reintento no deje una línea a medias mezclada con la siguiente.
+     */
+    private void descartarGrupoIncompleto() throws IOException {
+        if (!canal.isOpen()) {
+            canal = abrir(ruta);
+        }
+        canal.truncate(tamanoConfirmado);
+    }
+
+    private void pausarReintento() {
+        try {
+            Thread.sleep(PAUSA_REINTENTO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void marcarPersistidas(long secuencia) {
+        synchronized (monitorPersistencia) {
+            persistidas = secuencia;
+            error = null;
+            monitorPersistencia.notifyAll();
+        }
+    }
+
+    /**
+     * Compacta la bitácora: la rota, escribe un snapshot del estado actual y luego descarta la rotada.
+     * Todo cambio de la bitácora rotada ya estaba aplicado en memoria, así que el snapshot lo contiene;
+     * los cambios posteriores van a la bitácora nueva y reproducirlos sobre el snapshot es idempotente.
+     * Si ya existe una bitácora rotada (una compactación anterior falló antes de borrarla), la activa se
+     * agrega al final de ella en lugar de reemplazarla, porque sus cambios aún no están en ningún snapshot.
+     * La bitácora activa se reabre aunque la rotación falle, así las escrituras siguientes no se pierden.
+     */
+    private void compactar() throws IOException {
+        canal.close();
+        try {
+            if (Files.exists(rutaAnterior)) {
+                anexarARotada();
+            } else {
+                Files.move(ruta, rutaAnterior, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            canal = abrir(ruta);
+            tamanoConfirmado = canal.size();
+        }
+        entradasEnBitacora = 0;
+
+        Path temporal = Path.of(rutaSnapshot + ".tmp");
+        SnapshotBinario.escribir(estado.get(), reservas.get(), temporal.toString());
+        Files.move(temporal, rutaSnapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(rutaAnterior);
+    }
+
+    /**
+     * Agrega la bitácora activa al final de la rotada y la elimina. Si una caída interrumpe la copia, las
+     * entradas quedan repetidas en ambos archivos, lo que no altera el resultado de reproducirlas.
+     */
+    private void anexarARotada() throws IOException {
+        try (FileChannel origen = FileChannel.open(ruta, StandardOpenOption.READ);
+             FileChannel destino = FileChannel.open(rutaAnterior, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fin = destino.size();
+            ByteBuffer ultimo = ByteBuffer.allocate(1);
+            if (fin > 0 && destino.read(ultimo, fin - 1) == 1 && ultimo.get(0) != '\n') {
+                fin += destino.write(ByteBuffer.wrap(new byte[] {'\n'}), fin);
+            }
+            long tamano = origen.size();
+            for (long copiados = 0; copiados < tamano; ) {
+                copiados += origen.transferTo(copiados, tamano - copiados, destino.position(fin + copiados));
+            }
+            destino.force(false);
+        }
+        Files.delete(ruta);
+    }
+
+    /**
+     * Cierra la bitácora después de escribir todas las entradas pendientes.
+     */
+    @Override
+    public void close() {
+        cerrada = true;
+        try {
+            escritor.join();
+            canal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Error al cerrar la bitácora: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Si una caída dejó la última línea sin terminar, agrega el salto de línea para que
+     * las entradas nuevas no se mezclen con ella (la línea truncada se ignora al reproducir).
+     */
+    private void terminarLineaTruncada() throws IOException {
+        long tamano = Files.size(ruta);
+        if (tamano == 0) return;
+        ByteBuffer ultimo = ByteBuffer.allocate(1);
+        try (FileChannel lectura = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            lectura.read(ultimo, tamano - 1);
+        }
+        if (ultimo.get(0) != '\n') {
+            canal.write(ByteBuffer.wrap(new byte[] {'\n'}));
+            canal.force(false);
+        }
+    }
+
+    private static FileChannel abrir(Path archivo) throws IOException {
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static long contarLineas(Path archivo) throws IOException {
+        try (var lineas = Files.lines(archivo, StandardCharsets.UTF_8)) {
+            return lineas.count();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.duoc.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codifica patentes de 6 a 8 caracteres alfanuméricos en un {@code long}, en base 37.
+ * Cada carácter ocupa un dígito entre 1 y 36 (0-9 y luego A-Z), por lo que ningún código
+ * es 0 y patentes de distinto largo nunca coinciden. La codificación ignora los espacios de los
+ * extremos y no distingue mayúsculas de minúsculas, igual que la normalización de patentes del servicio.
+ *
+ * @author Karla Santibáñez
+ */
+public class CodificadorPatente {
+    /** Valor devuelto cuando la patente no tiene el formato codificable. */
+    public static final long NO_CODIFICABLE = -1L;
+
+    public static final int LARGO_MINIMO = 6;
+    public static final int LARGO_MAXIMO = 8;
+
+    private static final int BASE = 37;
+
+    private CodificadorPatente() {}
+
+    /**
+     * Codifica una patente sin crear objetos intermedios.
+     * @param patente Patente tal como fue ingresada.
+     * @return Código positivo, o {@link #NO_CODIFICABLE} si la patente no tiene entre 6 y 8 letras ASCII o dígitos.
+     */
+    public static long codificar(String patente) {
+        int desde = 0;
+        int hasta = patente.length();
+        while (desde < hasta && patente.charAt(desde) <= ' ') {
+            desde++;
+        }
+        while (hasta > desde && patente.charAt(hasta - 1) <= ' ') {
+            hasta--;
+        }
+        if (hasta - desde < LARGO_MINIMO || hasta - desde > LARGO_MAXIMO) {
+            return NO_CODIFICABLE;
+        }
+        long codigo = 0;
+        for (int i = desde; i < hasta; i++) {
+            int digito = digito(patente.charAt(i));
+            if (digito == 0) {
+                return NO_CODIFICABLE;
+            }
+            codigo = codigo * BASE + digito;
+        }
+        return codigo;
+    }
+
+    /**
+     * Codifica la patente contenida en un rango de bytes ASCII, por ejemplo un campo de un archivo mapeado.
+     * @param buffer Bytes de origen; su posición y límite no se modifican.
+     * @param desde Inicio del rango.
+     * @param hasta Fin (exclusivo) del rango.
+     * @return Código positivo, o {@link #NO_CODIFICABLE} si el rango no es una patente codificable.
+     */
+    public static long codificar(ByteBuffer buffer, int desde, int hasta) {
+        while (desde < hasta && (buffer.get(desde) & 0xFF) <= ' ') {
+            desde++;
+        }
+        while (hasta > desde && (buffer.get(hasta - 1) & 0xFF) <= ' ') {
+            hasta--;
+        }
+        if (hasta - desde < LARGO_MINIMO || hasta - desde > LARGO_MAXIMO) {
+            return NO_CODIFICABLE;
+        }
+        long codigo = 0;
+        for (int i = desde; i < hasta; i++) {
+            int digito = digito(buffer.get(i) & 0xFF);
+            if (digito == 0) {
+                return NO_CODIFICABLE;
+            }
+            codigo = codigo * BASE + digito;
+        }
+        return codigo;
+    }
+
+    /**
+     * Dígito en base 37 de un carácter: 1 a 10 para 0-9, 11 a 36 para A-Z sin distinguir mayúsculas, 0 si no es válido.
+     */
+    private static int digito(int c) {
+        if (c >= '0' && c <= '9') {
+            return 1 + (c - '0');
+        } else if (c >= 'A' && c <= 'Z') {
+            return 11 + (c - 'A');
+        } else if (c >= 'a' && c <= 'z') {
+            return 11 + (c - 'a');
+        }
+        return 0;
+    }
+
+    /**
+     * Reconstruye la patente normalizada (en mayúsculas) a partir de su código.
+     * @param codigo Código generado por {@link #codificar(String)}.
+     * @return Patente normalizada.
+     */
+    public static String decodificar(long codigo) {
+        if (codigo <= 0) {
+            throw new IllegalArgumentException("código de patente inválido: " + codigo);
+        }
+        char[] caracteres = new char[LARGO_MAXIMO];
+        int i = caracteres.length;
+        while (codigo > 0) {
+            int digito = (int) (codigo % BASE);
+            caracteres[--i] = digito <= 10 ? (char) ('0' + digito - 1) : (char) ('A' + digito - 11);
+            codigo /= BASE;
+        }
+        return new String(caracteres, i, caracteres.length - i);
+    }
+}
@@ -5,8 +5,19 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 import org.duoc.models.*;
 
@@ -18,39 +29,103 @@ import org.duoc.models.*;
  */
 public class FileIOUtil {
 
+    /** Cabecera del formato CSV de vehículos. */
+    public static final String CABECERA_CSV = "TIPO,PATENTE,MARCA,MODELO,DIAS_ARRIENDO,VALOR_DIARIO,PUERTAS,ANIO,CAPACIDAD";
+
     /**
      * Guarda la colección de vehículos en un archivo CSV.
      * @param vehiculos Colección de vehículos a guardar.
      * @param ruta Ruta del archivo CSV de destino.
      */
     public static void guardarVehiculosCSV(Collection<Vehiculo> vehiculos, String ruta) {
+        try {
+            escribirVehiculosCSV(vehiculos, ruta);
+        } catch (IOException e) {
+            System.out.println("Error al guardar vehículos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe la colección de vehículos en un archivo CSV, propagando los errores de escritura.
+     * @param vehiculos Colección de vehículos a guardar.
+     * @param ruta Ruta del archivo CSV de destino.
+     * @throws IOException Si no se pudo escribir el archivo.
+     */
+    public static void escribirVehiculosCSV(Collection<Vehiculo> vehiculos, String ruta) throws IOException {
         try (BufferedWriter bw = new BufferedWriter(new FileWriter(ruta))) {
             // Escribe la cabecera
-            bw.write("TIPO,PATENTE,MARCA,MODELO,DIAS_ARRIENDO,VALOR_DIARIO,PUERTAS,ANIO,CAPACIDAD");
+            bw.write(CABECERA_CSV);
             bw.newLine();
             for (Vehiculo v : vehiculos) {
-                String tipo = (v instanceof VehiculoPasajeros) ? "PASAJEROS" : "CARGA";
-                bw.write(tipo + "," + v.getPatente() + "," + v.getMarca() + "," + v.getModelo() + "," +
-                        v.getDiasArriendo() + "," + v.getValorDiario() + "," + v.getPuertas() + "," + v.getAnio());
-                if (v instanceof VehiculoPasajeros) {
-                    bw.write("," + ((VehiculoPasajeros) v).getCapacidadPasajeros());
-                } else if (v instanceof VehiculoCarga) {
-                    bw.write("," + ((VehiculoCarga) v).getCapacidadCarga());
-                }
+                bw.write(filaCSV(v));
                 bw.newLine();
             }
+        }
+    }
+
+    /**
+     * Guarda la colección de vehículos en un snapshot binario ({@link SnapshotBinario}).
+     * @param vehiculos Colección de vehículos a guardar.
+     * @param ruta Ruta del archivo binario de destino.
+     */
+    public static void guardarVehiculosBinario(Collection<Vehiculo> vehiculos, String ruta) {
+        try {
+            SnapshotBinario.escribir(vehiculos, ruta);
         } catch (IOException e) {
             System.out.println("Error al guardar vehículos: " + e.getMessage());
         }
     }
 
     /**
-     * Carga vehículos desde un archivo CSV y los agrega al mapa proporcionado.
-     * Ignora líneas vacías y la cabecera.
-     * @param vehiculos Mapa de vehículos donde se agregarán los datos cargados.
+     * Carga vehículos desde un snapshot binario ({@link SnapshotBinario}).
+     * @param ruta Ruta del archivo binario de origen.
+     * @return Lista de vehículos leídos, vacía si el archivo es inválido.
+     */
+    public static List<Vehiculo> cargarVehiculosBinario(String ruta) {
+        return cargarVehiculosBinario(ruta, r -> {});
+    }
+
+    /**
+     * Carga vehículos y reservas desde un snapshot binario ({@link SnapshotBinario}).
+     * @param ruta Ruta del archivo binario de origen.
+     * @param reservas Consumidor de las reservas guardadas en el snapshot.
+     * @return Lista de vehículos leídos, vacía si el archivo es inválido.
+     */
+    public static List<Vehiculo> cargarVehiculosBinario(String ruta, Consumer<Reserva> reservas) {
+        try {
+            return SnapshotBinario.leer(ruta, reservas);
+        } catch (IOException e) {
+            System.out.println("Error al cargar vehículos: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Convierte un vehículo en una fila del formato CSV, sin salto de línea.
+     * @param v Vehículo a convertir.
+     * @return Fila CSV con los datos del vehículo.
+     */
+    public static String filaCSV(Vehiculo v) {
+        String tipo = (v instanceof VehiculoPasajeros) ? "PASAJEROS" : "CARGA";
+        String fila = tipo + "," + v.getPatente() + "," + v.getMarca() + "," + v.getModelo() + "," +
+                v.getDiasArriendo() + "," + v.getValorDiario() + "," + v.getPuertas() + "," + v.getAnio();
+        if (v instanceof VehiculoPasajeros) {
+            fila += "," + ((VehiculoPasajeros) v).getCapacidadPasajeros();
+        } else if (v instanceof VehiculoCarga) {
+            fila += "," + ((VehiculoCarga) v).getCapacidadCarga();
+        }
+        return fila;
+    }
+
+    /**
+     * Carga vehículos desde un archivo CSV en el orden en que aparecen.
+     * Ignora líneas vacías y la cabecera. La unicidad de patentes se valida al
+     * registrar los vehículos en el servicio.
      * @param ruta Ruta del archivo CSV de origen.
+     * @return Lista de vehículos leídos.
      */
-    public static void cargarVehiculosCSV(Map<String, Vehiculo> vehiculos, String ruta) {
+    public static List<Vehiculo> cargarVehiculosCSV(String ruta) {
+        List<Vehiculo> vehiculos = new ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(ruta))) {
             String linea;
             boolean primeraLinea = true;
@@ -85,12 +160,179 @@ public class FileIOUtil {
                     System.out.println("Tipo de vehículo desconocido, se ignora: " + tipo);
                     continue;
                 }
-                if (v != null) {
-                    vehiculos.put(patente, v); // Inserta en el Map, asegura unicidad
-                }
+                vehiculos.add(v);
             }
         } catch (IOException | NumberFormatException e) {
             System.out.println("Error al cargar vehículos: " + e.getMessage());
         }
+        return vehiculos;
+    }
+
+    /** Tamaño máximo de cada ventana mapeada en memoria (un MappedByteBuffer admite hasta 2 GB). */
+    private static final long VENTANA_MAPEO = 1L << 30;
+
+    /**
+     * Carga vehículos desde un archivo CSV mapeado en memoria, parseando directamente los bytes.
+     * Equivale a {@link #cargarVehiculosCSV(String)} pero evita las Strings intermedias por línea
+     * y por campo: solo se materializan patente, marca y modelo.
+     * Los archivos mayores a la ventana de mapeo se recorren en ventanas alineadas a fin de línea.
+     * @param ruta Ruta del archivo CSV de origen.
+     * @return Lista de vehículos leídos, en el orden del archivo.
+     */
+    public static List<Vehiculo> cargarVehiculosCSVMapeado(String ruta) {
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        ParserCSVVehiculos parser = new ParserCSVVehiculos();
+        try (FileChannel canal = FileChannel.open(Path.of(ruta), StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            long posicion = 0;
+            while (posicion < tamano) {
+                long largo = Math.min(VENTANA_MAPEO, tamano - posicion);
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+                if (posicion + largo < tamano) {
+                    // Solo se procesan líneas completas; la última queda para la siguiente ventana
+                    int fin = (int) largo;
+                    while (fin > 0 && buffer.get(fin - 1) != '\n') {
+                        fin--;
+                    }
+                    if (fin == 0) {
+                        throw new IOException("línea de más de " + VENTANA_MAPEO + " bytes en la posición " + posicion);
+                    }
+                    buffer.limit(fin);
+                }
+                parser.parsear(buffer, posicion == 0, vehiculos::add);
+                posicion += buffer.limit();
+            }
+        } catch (IOException e) {
+            System.out.println("Error al cargar vehículos: " + e.getMessage());
+        }
+        return vehiculos;
+    }
+
+    /** Tamaño mínimo de cada bloque del import paralelo, para no fragmentar archivos pequeños. */
+    private static final long BLOQUE_MINIMO = 4L << 20;
+
+    /**
+     * Carga vehículos desde un archivo CSV en paralelo usando el pool común de fork/join.
+     * @param ruta Ruta del archivo CSV de origen.
+     * @return Lista de vehículos leídos, en el orden del archivo.
+     * @see #cargarVehiculosCSVParalelo(String, ForkJoinPool)
+     */
+    public static List<Vehiculo> cargarVehiculosCSVParalelo(String ruta) {
+        return cargarVehiculosCSVParalelo(ruta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Carga vehículos desde un archivo CSV dividiéndolo en bloques alineados a fin de línea,
+     * que se mapean en memoria y se parsean en paralelo en el pool indicado.
+     * El resultado conserva el orden del archivo, de modo que al registrarlo en el servicio
+     * las patentes duplicadas se resuelven igual que en la carga secuencial (gana la primera).
+     * @param ruta Ruta del archivo CSV de origen.
+     * @param pool Pool de fork/join donde se ejecuta el parseo.
+     * @return Lista de vehículos leídos, en el orden del archivo.
+     */
+    public static List<Vehiculo> cargarVehiculosCSVParalelo(String ruta, ForkJoinPool pool) {
+        try (FileChannel canal = FileChannel.open(Path.of(ruta), StandardOpenOption.READ)) {
+            long[] limites = limitesDeBloques(canal, pool.getParallelism() * 4L);
+            List<List<Vehiculo>> partes = new ArrayList<>(Collections.nCopies(limites.length - 1, null));
+            pool.invoke(new CargaBloques(canal, limites, partes, 0, partes.size()));
+            int total = 0;
+            for (List<Vehiculo> parte : partes) {
+                total += parte.size();
+            }
+            List<Vehiculo> vehiculos = new ArrayList<>(total);
+            for (List<Vehiculo> parte : partes) {
+                vehiculos.addAll(parte);
+            }
+            return vehiculos;
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al cargar vehículos: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Calcula los límites de los bloques del archivo: cada límite queda justo después de un salto de línea.
+     * @return Arreglo ordenado de posiciones, comenzando en 0 y terminando en el tamaño del archivo.
+     */
+    private static long[] limitesDeBloques(FileChannel canal, long bloquesDeseados) throws IOException {
+        long tamano = canal.size();
+        long largoBloque = Math.min(VENTANA_MAPEO, Math.max(BLOQUE_MINIMO, tamano / bloquesDeseados + 1));
+        List<Long> limites = new ArrayList<>();
+        limites.add(0L);
+        ByteBuffer lectura = ByteBuffer.allocate(8192);
+        long posicion = largoBloque;
+        while (posicion < tamano) {
+            long finLinea = siguienteFinDeLinea(canal, posicion, lectura);
+            if (finLinea >= tamano) {
+                break;
+            }
+            if (finLinea + 1 - limites.get(limites.size() - 1) > VENTANA_MAPEO) {
+                throw new IOException("línea de más de " + VENTANA_MAPEO + " bytes en la posición " + posicion);
+            }
+            limites.add(finLinea + 1);
+            posicion = finLinea + 1 + largoBloque;
+        }
+        limites.add(tamano);
+        return limites.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long siguienteFinDeLinea(FileChannel canal, long desde, ByteBuffer lectura) throws IOException {
+        long posicion = desde;
+        while (true) {
+            lectura.clear();
+            int leidos = canal.read(lectura, posicion);
+            if (leidos <= 0) {
+                return canal.size();
+            }
+            for (int i = 0; i < leidos; i++) {
+                if (lectura.get(i) == '\n') {
+                    return posicion + i;
+                }
+            }
+            posicion += leidos;
+        }
+    }
+
+    /**
+     * Tarea fork/join que parsea un rango de bloques del archivo, dividiéndolo a la mitad
+     * hasta llegar a un bloque por tarea. Cada bloque deja su resultado en su posición de {@code partes}.
+     * Las tareas nunca se serializan (solo viven dentro del pool), por eso sus campos son transitorios.
+     */
+    private static class CargaBloques extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel canal;
+        private final long[] limites;
+        private final transient List<List<Vehiculo>> partes;
+        private final int desde;
+        private final int hasta;
+
+        CargaBloques(FileChannel canal, long[] limites, List<List<Vehiculo>> partes, int desde, int hasta) {
+            this.canal = canal;
+            this.limites = limites;
+            this.partes = partes;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new CargaBloques(canal, limites, partes, desde, medio),
+                        new CargaBloques(canal, limites, partes, medio, hasta));
+                return;
+            }
+            long inicio = limites[desde];
+            long largo = limites[desde + 1] - inicio;
+            List<Vehiculo> parte = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, largo / 40));
+            try {
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, inicio, largo);
+                new ParserCSVVehiculos().parsear(buffer, inicio == 0, parte::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            partes.set(desde, parte);
+        }
     }
 }
@@ -0,0 +1,121 @@
+package org.duoc.utils;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmicas en base 2, en nanosegundos.
+ * Registrar una muestra cuesta un par de sumas en {@link LongAdder}, sin bloqueos ni asignaciones,
+ * por lo que puede quedar activo en producción. Los percentiles se estiman con el límite superior
+ * de la cubeta, es decir, con un error de hasta el doble del valor real.
+ *
+ * @author Karla Santibáñez
+ */
+public class HistogramaLatencia {
+    private static final int CUBETAS = 64;
+
+    private final LongAdder[] cubetas = new LongAdder[CUBETAS];
+    private final LongAdder sumaNanos = new LongAdder();
+    private final LongAccumulator maximoNanos = new LongAccumulator(Math::max, 0);
+
+    public HistogramaLatencia() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra una muestra.
+     * @param nanos Duración en nanosegundos.
+     */
+    public void registrar(long nanos) {
+        registrar(nanos, 1);
+    }
+
+    /**
+     * Registra una muestra que representa a varias operaciones, para mediciones por muestreo.
+     * @param nanos Duración en nanosegundos.
+     * @param peso Cantidad de operaciones que representa la muestra.
+     */
+    public void registrar(long nanos, int peso) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // La cubeta i contiene las duraciones en [2^i, 2^(i+1)); el 0 va a la primera
+        cubetas[CUBETAS - 1 - Long.numberOfLeadingZeros(nanos | 1)].add(peso);
+        sumaNanos.add(nanos * peso);
+        maximoNanos.accumulate(nanos);
+    }
+
+    /**
+     * Descarta todas las muestras registradas.
+     */
+    public void reiniciar() {
+        for (LongAdder c : cubetas) {
+            c.reset();
+        }
+        sumaNanos.reset();
+        maximoNanos.reset();
+    }
+
+    /**
+     * Toma una fotografía de los valores actuales.
+     * @return Resumen con cantidad, promedio, percentiles y máximo en microsegundos.
+     */
+    public Resumen resumen() {
+        long[] conteos = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            conteos[i] = cubetas[i].sum();
+            total += conteos[i];
+        }
+        long suma = sumaNanos.sum();
+        return new Resumen(total, total == 0 ? 0 : suma / 1000.0 / total,
+                percentil(conteos, total, 0.50), percentil(conteos, total, 0.99), maximoNanos.get() / 1000.0);
+    }
+
+    private static double percentil(long[] conteos, long total, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(total * p);
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return Math.pow(2, i + 1) / 1000.0;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Resumen inmutable de un histograma, con tiempos en microsegundos.
+     * Sus getters permiten publicarlo por JMX como un dato compuesto.
+     */
+    public static final class Resumen {
+        private final long cantidad;
+        private final double promedioMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double maximoMicros;
+
+        public Resumen(long cantidad, double promedioMicros, double p50Micros, double p99Micros, double maximoMicros) {
+            this.cantidad = cantidad;
+            this.promedioMicros = promedioMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.maximoMicros = maximoMicros;
+        }
+
+        public long getCantidad() { return cantidad; }
+
+        public double getPromedioMicros() { return promedioMicros; }
+
+        public double getP50Micros() { return p50Micros; }
+
+        public double getP99Micros() { return p99Micros; }
+
+        public double getMaximoMicros() { return maximoMicros; }
+    }
+}
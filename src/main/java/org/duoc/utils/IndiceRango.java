@@ -0,0 +1,116 @@
+package org.duoc.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice ordenado y concurrente de elementos por un atributo entero (por ejemplo el valor diario o el año).
+ * Las entradas se ordenan por valor y luego por patente normalizada, así elementos con el mismo valor conviven
+ * en el índice y una consulta por rango cuesta O(log n + k), con k la cantidad de resultados.
+ * Las lecturas no toman bloqueos y son débilmente consistentes: mientras se mueve un elemento a un valor nuevo
+ * una consulta concurrente puede verlo en ambas posiciones o en ninguna.
+ * @param <T> Tipo de los elementos indexados.
+ *
+ * @author Karla Santibáñez
+ */
+public class IndiceRango<T> {
+
+    private record Clave(long valor, String patente) implements Comparable<Clave> {
+        @Override
+        public int compareTo(Clave otra) {
+            int c = Long.compare(valor, otra.valor);
+            return c != 0 ? c : patente.compareTo(otra.patente);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Clave, T> indice = new ConcurrentSkipListMap<>();
+
+    /**
+     * Agrega un elemento al índice.
+     * @param valor Valor del atributo indexado.
+     * @param patente Patente normalizada, que desempata elementos del mismo valor.
+     * @param elemento Elemento.
+     */
+    public void agregar(int valor, String patente, T elemento) {
+        indice.put(new Clave(valor, patente), elemento);
+    }
+
+    /**
+     * Cambia el valor con que está indexado un elemento. Primero lo agrega con el valor nuevo y luego
+     * quita la entrada anterior, para que una consulta concurrente no lo pierda.
+     * @param anterior Valor con que estaba indexado.
+     * @param nuevo Valor nuevo.
+     * @param patente Patente normalizada del elemento.
+     * @param elemento Elemento.
+     */
+    public void mover(int anterior, int nuevo, String patente, T elemento) {
+        if (anterior == nuevo) {
+            return;
+        }
+        indice.put(new Clave(nuevo, patente), elemento);
+        indice.remove(new Clave(anterior, patente), elemento);
+    }
+
+    /**
+     * Cantidad de elementos indexados.
+     * @return Número de entradas.
+     */
+    public int size() {
+        return indice.size();
+    }
+
+    /**
+     * Devuelve los elementos cuyo valor está entre los límites indicados, ordenados por valor y patente.
+     * @param minimo Valor mínimo (inclusive).
+     * @param maximo Valor máximo (inclusive).
+     * @return Lista con los elementos del rango.
+     */
+    public List<T> rango(int minimo, int maximo) {
+        return new ArrayList<>(entradas(minimo, maximo).values());
+    }
+
+    /**
+     * Devuelve los elementos de dos índices cuyo valor está entre los límites indicados, intercalando
+     * ambos rangos ya ordenados en lugar de ordenar su unión.
+     * @param a Primer índice.
+     * @param b Segundo índice.
+     * @param minimo Valor mínimo (inclusive).
+     * @param maximo Valor máximo (inclusive).
+     * @return Lista con los elementos de ambos rangos, ordenados por valor y patente.
+     */
+    public static <T> List<T> rango(IndiceRango<? extends T> a, IndiceRango<? extends T> b, int minimo, int maximo) {
+        List<T> resultado = new ArrayList<>();
+        Iterator<? extends Map.Entry<Clave, ? extends T>> ia = a.entradas(minimo, maximo).entrySet().iterator();
+        Iterator<? extends Map.Entry<Clave, ? extends T>> ib = b.entradas(minimo, maximo).entrySet().iterator();
+        Map.Entry<Clave, ? extends T> ea = ia.hasNext() ? ia.next() : null;
+        Map.Entry<Clave, ? extends T> eb = ib.hasNext() ? ib.next() : null;
+        while (ea != null && eb != null) {
+            if (ea.getKey().compareTo(eb.getKey()) <= 0) {
+                resultado.add(ea.getValue());
+                ea = ia.hasNext() ? ia.next() : null;
+            } else {
+                resultado.add(eb.getValue());
+                eb = ib.hasNext() ? ib.next() : null;
+            }
+        }
+        for (; ea != null; ea = ia.hasNext() ? ia.next() : null) {
+            resultado.add(ea.getValue());
+        }
+        for (; eb != null; eb = ib.hasNext() ? ib.next() : null) {
+            resultado.add(eb.getValue());
+        }
+        return resultado;
+    }
+
+    private NavigableMap<Clave, T> entradas(int minimo, int maximo) {
+        if (minimo > maximo) {
+            return new ConcurrentSkipListMap<>();
+        }
+        // Las patentes normalizadas nunca son vacías, así "" queda antes de cualquier entrada del mismo valor
+        return indice.subMap(new Clave(minimo, ""), true, new Clave((long) maximo + 1, ""), false);
+    }
+}
@@ -0,0 +1,182 @@
+package org.duoc.utils;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mapa concurrente de claves {@code long} a valores, con direccionamiento abierto y sondeo lineal.
+ * Las claves se guardan como primitivos, sin objetos de entrada ni boxing, y las búsquedas no toman bloqueos.
+ * Las inserciones reservan la celda con compare-and-set, por lo que varias pueden avanzar a la vez;
+ * solo el crecimiento de la tabla es exclusivo (bloqueo de escritura de un {@link StampedLock}).
+ * No admite eliminar entradas. La clave 0 está reservada para marcar celdas libres.
+ *
+ * @param <V> Tipo de los valores.
+ * @author Karla Santibáñez
+ */
+public class MapaLongConcurrente<V> {
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    /** Tabla de celdas; una celda con clave y sin valor está siendo insertada. */
+    private static final class Tabla<V> {
+        final AtomicLongArray claves;
+        final AtomicReferenceArray<V> valores;
+        final int mascara;
+
+        Tabla(int capacidad) {
+            claves = new AtomicLongArray(capacidad);
+            valores = new AtomicReferenceArray<>(capacidad);
+            mascara = capacidad - 1;
+        }
+    }
+
+    private final StampedLock candado = new StampedLock();
+    private final AtomicInteger tamano = new AtomicInteger();
+    private volatile Tabla<V> tabla = new Tabla<>(CAPACIDAD_INICIAL);
+
+    /**
+     * Cantidad de entradas del mapa.
+     * @return Número de claves insertadas.
+     */
+    public int size() {
+        return tamano.get();
+    }
+
+    /**
+     * Busca el valor asociado a una clave, sin bloqueos.
+     * @param clave Clave distinta de 0.
+     * @return Valor asociado, o null si la clave no existe o su inserción aún no termina.
+     */
+    public V get(long clave) {
+        Tabla<V> t = tabla;
+        for (int i = posicion(clave, t.mascara); ; i = (i + 1) & t.mascara) {
+            long actual = t.claves.get(i);
+            if (actual == clave) {
+                return t.valores.get(i);
+            }
+            if (actual == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Asocia el valor a la clave solo si la clave no existe, de forma atómica.
+     * @param clave Clave distinta de 0.
+     * @param valor Valor no nulo.
+     * @return null si se insertó, o el valor existente si la clave ya estaba.
+     */
+    public V putIfAbsent(long clave, V valor) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("la clave 0 está reservada");
+        }
+        if (valor == null) {
+            throw new NullPointerException("el valor no puede ser nulo");
+        }
+        while (true) {
+            long sello = candado.readLock();
+            try {
+                Tabla<V> t = tabla;
+                // Sobre el 50% de ocupación se crece antes de insertar, para mantener sondeos cortos
+                if (tamano.get() < (t.mascara + 1) / 2) {
+                    return insertar(t, clave, valor);
+                }
+            } finally {
+                candado.unlockRead(sello);
+            }
+            crecer();
+        }
+    }
+
+    private V insertar(Tabla<V> t, long clave, V valor) {
+        for (int i = posicion(clave, t.mascara); ; i = (i + 1) & t.mascara) {
+            long actual = t.claves.get(i);
+            if (actual == 0) {
+                if (t.claves.compareAndSet(i, 0, clave)) {
+                    t.valores.set(i, valor);
+                    tamano.incrementAndGet();
+                    return null;
+                }
+                actual = t.claves.get(i);
+            }
+            if (actual == clave) {
+                // Otro hilo reservó la misma clave; se espera a que publique su valor
+                V existente;
+                while ((existente = t.valores.get(i)) == null) {
+                    Thread.onSpinWait();
+                }
+                return existente;
+            }
+        }
+    }
+
+    /**
+     * Duplica la tabla con el bloqueo de escritura, cuando no hay inserciones en curso.
+     * Las lecturas siguen usando la tabla anterior, que no cambia, hasta ver la nueva.
+     */
+    private void crecer() {
+        long sello = candado.writeLock();
+        try {
+            Tabla<V> anterior = tabla;
+            if (tamano.get() < (anterior.mascara + 1) / 2) {
+                return; // Otro hilo ya la hizo crecer
+            }
+            Tabla<V> nueva = new Tabla<>((anterior.mascara + 1) * 2);
+            for (int j = 0; j <= anterior.mascara; j++) {
+                long clave = anterior.claves.get(j);
+                if (clave != 0) {
+                    int i = posicion(clave, nueva.mascara);
+                    while (nueva.claves.get(i) != 0) {
+                        i = (i + 1) & nueva.mascara;
+                    }
+                    nueva.claves.set(i, clave);
+                    nueva.valores.set(i, anterior.valores.get(j));
+                }
+            }
+            tabla = nueva;
+        } finally {
+            candado.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Recorre los valores de la tabla vigente, de forma débilmente consistente.
+     * @return Iterador de valores.
+     */
+    public Iterator<V> valores() {
+        Tabla<V> t = tabla;
+        return new Iterator<>() {
+            private int i = avanzar(0);
+
+            private int avanzar(int desde) {
+                while (desde <= t.mascara && t.valores.get(desde) == null) {
+                    desde++;
+                }
+                return desde;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return i <= t.mascara;
+            }
+
+            @Override
+            public V next() {
+                if (i > t.mascara) {
+                    throw new NoSuchElementException();
+                }
+                V valor = t.valores.get(i);
+                i = avanzar(i + 1);
+                return valor;
+            }
+        };
+    }
+
+    private static int posicion(long clave, int mascara) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
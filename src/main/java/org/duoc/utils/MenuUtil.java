@@ -32,7 +32,8 @@ public class MenuUtil {
         System.out.println("3. Listar Vehículos");
         System.out.println("4. Mostrar boletas emitidas");
         System.out.println("5. Mostrar arriendos");
-        System.out.println("6. Salir del sistema");
+        System.out.println("6. Buscar por marca o modelo");
+        System.out.println("7. Salir del sistema");
         System.out.println("===========================================");
     }
 
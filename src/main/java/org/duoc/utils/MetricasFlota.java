@@ -0,0 +1,197 @@
+package org.duoc.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.duoc.interfaces.MetricasFlotaMXBean;
+import org.duoc.models.CacheBoletas;
+
+/**
+ * Métricas de operación de la flota: un histograma de latencia por operación, las filas cargadas
+ * y el ritmo de la última carga. Hay una única instancia por proceso, que se publica por JMX la primera
+ * vez que se usa. Medir cuesta dos lecturas de {@link System#nanoTime()} y unas sumas en {@link LongAdder};
+ * con las métricas deshabilitadas solo queda la lectura de un campo volátil.
+ * Las operaciones de pocos cientos de nanosegundos, como las búsquedas, se miden por muestreo
+ * (una de cada {@value #MUESTREO}), porque leer el reloj en cada una casi duplica su costo;
+ * sus cantidades y percentiles son entonces estimaciones.
+ * {@link Operacion#ESPERA_BLOQUEO} mide, también por muestreo, cuánto se espera para tomar los bloqueos más
+ * disputados del servicio: el de cada vehículo en arriendos, altas y cambios de valor, y el de la carga completa
+ * de la flota perezosa. Si sus percentiles altos crecen, hay hilos compitiendo por los mismos vehículos.
+ *
+ * Uso típico:
+ * <pre>{@code
+ * long inicio = metricas.inicio();
+ * ... operación ...
+ * metricas.registrar(MetricasFlota.Operacion.BUSCAR, inicio);
+ * }</pre>
+ *
+ * @author Karla Santibáñez
+ */
+public class MetricasFlota implements MetricasFlotaMXBean {
+    /** Nombre con que se registra el MXBean. */
+    public static final String NOMBRE_JMX = "org.duoc:type=MetricasFlota";
+
+    /** Operaciones medidas. */
+    public enum Operacion { AGREGAR, BUSCAR, ARRENDAR, LISTAR, CARGAR, GUARDAR, ESPERA_BITACORA, AGREGAR_LOTE, ARRENDAR_LOTE, ACTUALIZAR_VALOR, BUSCAR_TEXTO, RESERVAR, ESPERA_BLOQUEO }
+
+    /** Una de cada cuántas operaciones muestreadas se mide. Debe ser potencia de 2. */
+    public static final int MUESTREO = 16;
+
+    private static final MetricasFlota INSTANCIA = new MetricasFlota();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCIA, new ObjectName(NOMBRE_JMX));
+        } catch (JMException e) {
+            System.out.println("Error al publicar las métricas por JMX: " + e.getMessage());
+        }
+    }
+
+    private final HistogramaLatencia[] porOrdinal = new HistogramaLatencia[Operacion.values().length];
+    private final LongAdder filasCargadas = new LongAdder();
+    private volatile double filasPorSegundoUltimaCarga;
+    private volatile boolean habilitada = true;
+
+    private MetricasFlota() {
+        for (Operacion o : Operacion.values()) {
+            porOrdinal[o.ordinal()] = new HistogramaLatencia();
+        }
+    }
+
+    /**
+     * Devuelve la instancia del proceso, publicándola por JMX en el primer uso.
+     * @return Métricas de la flota.
+     */
+    public static MetricasFlota getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Marca el inicio de una operación.
+     * @return Instante en nanosegundos, o 0 si las métricas están deshabilitadas.
+     */
+    public long inicio() {
+        return habilitada ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registra la duración de una operación iniciada con {@link #inicio()}.
+     * @param operacion Operación medida.
+     * @param inicio Valor devuelto por {@link #inicio()}.
+     */
+    public void registrar(Operacion operacion, long inicio) {
+        if (inicio != 0) {
+            porOrdinal[operacion.ordinal()].registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Marca el inicio de una operación frecuente y barata, midiendo solo una de cada {@value #MUESTREO}.
+     * @return Instante en nanosegundos, o 0 si esta operación no se mide.
+     */
+    public long inicioMuestreado() {
+        return habilitada && (ThreadLocalRandom.current().nextInt() & (MUESTREO - 1)) == 0 ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registra la duración de una operación iniciada con {@link #inicioMuestreado()}.
+     * @param operacion Operación medida.
+     * @param inicio Valor devuelto por {@link #inicioMuestreado()}.
+     */
+    public void registrarMuestreado(Operacion operacion, long inicio) {
+        if (inicio != 0) {
+            porOrdinal[operacion.ordinal()].registrar(System.nanoTime() - inicio, MUESTREO);
+        }
+    }
+
+    /**
+     * Registra una carga de archivo: su duración y la cantidad de filas leídas.
+     * @param inicio Valor devuelto por {@link #inicio()}.
+     * @param filas Filas cargadas.
+     */
+    public void registrarCarga(long inicio, long filas) {
+        if (inicio != 0) {
+            long nanos = System.nanoTime() - inicio;
+            porOrdinal[Operacion.CARGAR.ordinal()].registrar(nanos);
+            filasCargadas.add(filas);
+            filasPorSegundoUltimaCarga = nanos == 0 ? 0 : filas * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Histograma de una operación.
+     * @param operacion Operación.
+     * @return Histograma de latencias.
+     */
+    public HistogramaLatencia getHistograma(Operacion operacion) {
+        return porOrdinal[operacion.ordinal()];
+    }
+
+    @Override public HistogramaLatencia.Resumen getAgregar() { return porOrdinal[Operacion.AGREGAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getBuscar() { return porOrdinal[Operacion.BUSCAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getArrendar() { return porOrdinal[Operacion.ARRENDAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getListar() { return porOrdinal[Operacion.LISTAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getCargar() { return porOrdinal[Operacion.CARGAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getGuardar() { return porOrdinal[Operacion.GUARDAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getEsperaBitacora() { return porOrdinal[Operacion.ESPERA_BITACORA.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getAgregarLote() { return porOrdinal[Operacion.AGREGAR_LOTE.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getArrendarLote() { return porOrdinal[Operacion.ARRENDAR_LOTE.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getActualizarValor() { return porOrdinal[Operacion.ACTUALIZAR_VALOR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getBuscarTexto() { return porOrdinal[Operacion.BUSCAR_TEXTO.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getReservar() { return porOrdinal[Operacion.RESERVAR.ordinal()].resumen(); }
+    @Override public HistogramaLatencia.Resumen getEsperaBloqueo() { return porOrdinal[Operacion.ESPERA_BLOQUEO.ordinal()].resumen(); }
+
+    @Override
+    public long getFilasCargadas() {
+        return filasCargadas.sum();
+    }
+
+    @Override
+    public double getFilasPorSegundoUltimaCarga() {
+        return filasPorSegundoUltimaCarga;
+    }
+
+    @Override
+    public long getBoletasAciertos() {
+        return CacheBoletas.getAciertos();
+    }
+
+    @Override
+    public long getBoletasFallos() {
+        return CacheBoletas.getFallos();
+    }
+
+    @Override
+    public long getBoletasInvalidadas() {
+        return CacheBoletas.getInvalidaciones();
+    }
+
+    @Override
+    public double getTasaAciertosBoletas() {
+        return CacheBoletas.getTasaAciertos();
+    }
+
+    @Override
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    @Override
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+    }
+
+    @Override
+    public void reiniciar() {
+        for (HistogramaLatencia h : porOrdinal) {
+            h.reiniciar();
+        }
+        filasCargadas.reset();
+        filasPorSegundoUltimaCarga = 0;
+        CacheBoletas.reiniciar();
+    }
+}
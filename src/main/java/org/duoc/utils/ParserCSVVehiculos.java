@@ -0,0 +1,239 @@
+package org.duoc.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+import org.duoc.models.*;
+
+/**
+ * Parser de vehículos a nivel de bytes para el formato
+ * {@code TIPO,PATENTE,MARCA,MODELO,DIAS_ARRIENDO,VALOR_DIARIO,PUERTAS,ANIO,CAPACIDAD}.
+ * Trabaja directamente sobre un {@link ByteBuffer} (por ejemplo, un archivo mapeado en memoria):
+ * los campos numéricos se decodifican desde los bytes y solo se crean Strings para
+ * patente, marca y modelo. Una instancia reutiliza su buffer auxiliar y no es segura
+ * para uso concurrente; cada hilo debe usar la suya.
+ *
+ * @author Karla Santibáñez
+ */
+public class ParserCSVVehiculos {
+    private static final int CAMPOS = 9;
+    private static final byte[] PASAJEROS = "PASAJEROS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CARGA = "CARGA".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CABECERA = "TIPO".getBytes(StandardCharsets.US_ASCII);
+
+    // Inicio y fin (exclusivo) de cada campo de la línea actual, ya sin espacios
+    private final int[] inicios = new int[CAMPOS];
+    private final int[] fines = new int[CAMPOS];
+    private byte[] auxiliar = new byte[64];
+    // Motivo por el que se rechazó la última línea
+    private String motivo;
+
+    /**
+     * Parsea todas las líneas entre la posición y el límite del buffer, entregando cada
+     * vehículo válido al destino. Ignora líneas vacías e informa por consola las inválidas.
+     * La última línea puede no terminar en salto de línea.
+     * @param buffer Bytes a parsear; su posición y límite no se modifican.
+     * @param inicioArchivo true si el buffer comienza al inicio del archivo (puede traer cabecera).
+     * @param destino Consumidor que recibe los vehículos en el orden del archivo.
+     * @return Cantidad de filas con datos procesadas, válidas o no.
+     */
+    public int parsear(ByteBuffer buffer, boolean inicioArchivo, Consumer<Vehiculo> destino) {
+        return parsear(buffer, inicioArchivo, (v, linea) -> destino.accept(v),
+                (motivo, linea) -> System.out.println(motivo));
+    }
+
+    /**
+     * Igual que {@link #parsear(ByteBuffer, boolean, Consumer)}, pero informa el número de línea de cada
+     * vehículo y entrega las líneas rechazadas al consumidor indicado en vez de imprimirlas.
+     * Las líneas se numeran desde 1 a partir de la posición del buffer, contando las vacías y la cabecera.
+     * @param buffer Bytes a parsear; su posición y límite no se modifican.
+     * @param inicioArchivo true si el buffer comienza al inicio del archivo (puede traer cabecera).
+     * @param destino Recibe cada vehículo válido junto con su número de línea.
+     * @param rechazos Recibe el motivo de cada línea inválida junto con su número de línea.
+     * @return Cantidad de filas con datos procesadas, válidas o no.
+     */
+    public int parsear(ByteBuffer buffer, boolean inicioArchivo, ObjIntConsumer<Vehiculo> destino,
+            ObjIntConsumer<String> rechazos) {
+        int filas = 0;
+        int numeroLinea = 0;
+        boolean primeraLinea = inicioArchivo;
+        int pos = buffer.position();
+        int limite = buffer.limit();
+        while (pos < limite) {
+            int finLinea = pos;
+            while (finLinea < limite && buffer.get(finLinea) != '\n') {
+                finLinea++;
+            }
+            int desde = saltarEspacios(buffer, pos, finLinea);
+            int hasta = recortarEspacios(buffer, desde, finLinea);
+            pos = finLinea + 1;
+            numeroLinea++;
+            if (desde == hasta) continue; // Ignora líneas vacías
+            if (primeraLinea) { // Salta la cabecera
+                primeraLinea = false;
+                if (comienzaCon(buffer, desde, hasta, CABECERA)) continue;
+            }
+            filas++;
+            Vehiculo v = parsearLinea(buffer, desde, hasta);
+            if (v != null) {
+                destino.accept(v, numeroLinea);
+            } else {
+                rechazos.accept(motivo, numeroLinea);
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Indica si la línea se parsearía como un vehículo, con las mismas reglas que {@link #parsear} pero sin
+     * crear el vehículo ni sus Strings.
+     * @param buffer Buffer que contiene la línea.
+     * @param desde Inicio de la línea, ya sin espacios.
+     * @param hasta Fin (exclusivo) de la línea, ya sin espacios ni salto de línea.
+     * @return true si la línea tiene todos los campos, un tipo conocido y números válidos.
+     */
+    public boolean esValida(ByteBuffer buffer, int desde, int hasta) {
+        if (!separarCampos(buffer, desde, hasta)) {
+            return false;
+        }
+        if (!igualesSinMayusculas(buffer, inicios[0], fines[0], PASAJEROS)
+                && !igualesSinMayusculas(buffer, inicios[0], fines[0], CARGA)) {
+            return false;
+        }
+        try {
+            for (int campo = 4; campo < CAMPOS; campo++) {
+                entero(buffer, campo);
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Anota el inicio y fin de cada campo de la línea.
+     * @return false si la línea tiene menos campos de los esperados.
+     */
+    private boolean separarCampos(ByteBuffer buffer, int desde, int hasta) {
+        int campos = 0;
+        int inicioCampo = desde;
+        for (int i = desde; i <= hasta && campos < CAMPOS; i++) {
+            if (i == hasta || buffer.get(i) == ',') {
+                int inicio = saltarEspacios(buffer, inicioCampo, i);
+                inicios[campos] = inicio;
+                fines[campos] = recortarEspacios(buffer, inicio, i);
+                campos++;
+                inicioCampo = i + 1;
+            }
+        }
+        return campos == CAMPOS;
+    }
+
+    private Vehiculo parsearLinea(ByteBuffer buffer, int desde, int hasta) {
+        if (!separarCampos(buffer, desde, hasta)) {
+            motivo = "Línea inválida (faltan datos), se ignora: " + texto(buffer, desde, hasta);
+            return null;
+        }
+        boolean pasajeros = igualesSinMayusculas(buffer, inicios[0], fines[0], PASAJEROS);
+        if (!pasajeros && !igualesSinMayusculas(buffer, inicios[0], fines[0], CARGA)) {
+            motivo = "Tipo de vehículo desconocido, se ignora: " + texto(buffer, inicios[0], fines[0]);
+            return null;
+        }
+        try {
+            int diasArriendo = entero(buffer, 4);
+            int valorDiario = entero(buffer, 5);
+            int puertas = entero(buffer, 6);
+            int anio = entero(buffer, 7);
+            int capacidad = entero(buffer, 8);
+            String patente = texto(buffer, inicios[1], fines[1]);
+            String marca = texto(buffer, inicios[2], fines[2]);
+            String modelo = texto(buffer, inicios[3], fines[3]);
+            return pasajeros
+                    ? new VehiculoPasajeros(patente, marca, modelo, diasArriendo, valorDiario, puertas, anio, capacidad)
+                    : new VehiculoCarga(patente, marca, modelo, diasArriendo, valorDiario, puertas, anio, capacidad);
+        } catch (NumberFormatException e) {
+            motivo = "Línea inválida (" + e.getMessage() + "), se ignora: " + texto(buffer, desde, hasta);
+            return null;
+        }
+    }
+
+    /**
+     * Decodifica un entero en base 10 directamente desde los bytes del campo indicado.
+     */
+    private int entero(ByteBuffer buffer, int campo) {
+        int i = inicios[campo];
+        int fin = fines[campo];
+        if (i == fin) {
+            throw new NumberFormatException("campo numérico vacío");
+        }
+        boolean negativo = buffer.get(i) == '-';
+        if (negativo || buffer.get(i) == '+') {
+            i++;
+            if (i == fin) {
+                throw new NumberFormatException("campo numérico sin dígitos");
+            }
+        }
+        long valor = 0;
+        for (; i < fin; i++) {
+            int digito = buffer.get(i) - '0';
+            if (digito < 0 || digito > 9) {
+                throw new NumberFormatException("valor numérico inválido: " + texto(buffer, inicios[campo], fin));
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("valor numérico fuera de rango: " + texto(buffer, inicios[campo], fin));
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("valor numérico fuera de rango: " + texto(buffer, inicios[campo], fin));
+        }
+        return (int) valor;
+    }
+
+    private String texto(ByteBuffer buffer, int desde, int hasta) {
+        int largo = hasta - desde;
+        if (auxiliar.length < largo) {
+            auxiliar = new byte[Math.max(largo, auxiliar.length * 2)];
+        }
+        buffer.get(desde, auxiliar, 0, largo);
+        return new String(auxiliar, 0, largo, StandardCharsets.UTF_8);
+    }
+
+    private static int saltarEspacios(ByteBuffer buffer, int desde, int hasta) {
+        while (desde < hasta && (buffer.get(desde) & 0xFF) <= ' ') {
+            desde++;
+        }
+        return desde;
+    }
+
+    private static int recortarEspacios(ByteBuffer buffer, int desde, int hasta) {
+        while (hasta > desde && (buffer.get(hasta - 1) & 0xFF) <= ' ') {
+            hasta--;
+        }
+        return hasta;
+    }
+
+    private static boolean comienzaCon(ByteBuffer buffer, int desde, int hasta, byte[] prefijo) {
+        return hasta - desde >= prefijo.length
+                && igualesSinMayusculas(buffer, desde, desde + prefijo.length, prefijo);
+    }
+
+    private static boolean igualesSinMayusculas(ByteBuffer buffer, int desde, int hasta, byte[] esperado) {
+        if (hasta - desde != esperado.length) {
+            return false;
+        }
+        for (int i = 0; i < esperado.length; i++) {
+            int b = buffer.get(desde + i);
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != esperado[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+package org.duoc.utils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.duoc.models.Vehiculo;
+
+/**
+ * Renderizador de listados de la flota en formato tabla o detalle.
+ * Formatea las filas en un buffer reutilizable y lo escribe al destino en bloques grandes,
+ * en lugar de una llamada a {@code System.out} por campo o por fila.
+ * Las páginas se piden al servicio por cursor, así que cada llamada renderiza solo la página recibida.
+ *
+ * @author Karla Santibáñez
+ */
+public class RenderizadorFlota implements AutoCloseable {
+    /** Tamaño del buffer a partir del cual se escribe al destino. */
+    private static final int TAMANO_BLOQUE = 64 * 1024;
+
+    private static final String CABECERA = String.format("| %-10s | %-10s | %-10s | %-4s | %-6s | %-8s | %-7s |\n",
+            "Patente", "Marca", "Modelo", "Año", "Puertas", "Capacidad", "Valor");
+    private static final String CABECERA_CON_TIPO = String.format("| %-10s | %-10s | %-10s | %-10s | %-4s | %-6s | %-8s | %-7s |\n",
+            "Tipo", "Patente", "Marca", "Modelo", "Año", "Puertas", "Capacidad", "Valor");
+
+    private final Writer destino;
+    private final boolean cerrarDestino;
+    private final StringBuilder buffer = new StringBuilder(TAMANO_BLOQUE + 1024);
+    private char[] caracteres = new char[TAMANO_BLOQUE + 1024];
+
+    /**
+     * Crea un renderizador sobre un Writer.
+     * @param destino Writer de destino.
+     * @param cerrarDestino true si al cerrar el renderizador también se debe cerrar el destino.
+     */
+    public RenderizadorFlota(Writer destino, boolean cerrarDestino) {
+        this.destino = destino;
+        this.cerrarDestino = cerrarDestino;
+    }
+
+    /**
+     * Crea un renderizador que escribe en la consola. Al cerrarlo se vacía, pero la consola queda abierta.
+     * @return Renderizador de consola.
+     */
+    public static RenderizadorFlota consola() {
+        PrintStream out = System.out;
+        return new RenderizadorFlota(new OutputStreamWriter(out, out.charset()), false);
+    }
+
+    /**
+     * Renderiza una tabla completa: cabecera y una fila por vehículo.
+     * @param vehiculos Vehículos a listar.
+     * @param mostrarTipo true para incluir la columna de tipo.
+     * @return Cantidad de filas escritas.
+     */
+    public int tabla(Iterable<? extends Vehiculo> vehiculos, boolean mostrarTipo) {
+        buffer.append(mostrarTipo ? CABECERA_CON_TIPO : CABECERA);
+        int filas = 0;
+        for (Vehiculo v : vehiculos) {
+            v.agregarFila(buffer, mostrarTipo);
+            filas++;
+            vaciarSiLleno();
+        }
+        vaciar();
+        return filas;
+    }
+
+    /**
+     * Renderiza el detalle completo de cada vehículo.
+     * @param vehiculos Vehículos a detallar.
+     * @return Cantidad de vehículos escritos.
+     */
+    public int detalles(Iterable<? extends Vehiculo> vehiculos) {
+        int cantidad = 0;
+        for (Vehiculo v : vehiculos) {
+            v.agregarDetalle(buffer);
+            cantidad++;
+            vaciarSiLleno();
+        }
+        vaciar();
+        return cantidad;
+    }
+
+    private void vaciarSiLleno() {
+        if (buffer.length() >= TAMANO_BLOQUE) {
+            escribirBuffer();
+        }
+    }
+
+    private void vaciar() {
+        escribirBuffer();
+        try {
+            destino.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void escribirBuffer() {
+        int largo = buffer.length();
+        if (caracteres.length < largo) {
+            caracteres = new char[largo];
+        }
+        buffer.getChars(0, largo, caracteres, 0);
+        try {
+            destino.write(caracteres, 0, largo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void close() {
+        vaciar();
+        if (cerrarDestino) {
+            try {
+                destino.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
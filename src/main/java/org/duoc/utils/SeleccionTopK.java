@@ -0,0 +1,108 @@
+package org.duoc.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Selección de los K elementos con mayor clave usando un montículo acotado: el montículo guarda los K mejores
+ * vistos hasta el momento con el peor en la raíz, así cada elemento cuesta O(1) si no supera a la raíz y
+ * O(log K) si la reemplaza, y recorrer n elementos cuesta O(n log K) en lugar del O(n log n) de ordenar todo.
+ * La clave se calcula una sola vez por elemento y se guarda junto a él, por lo que el montículo sigue siendo
+ * válido aunque el elemento cambie mientras se recorre. Una instancia no es segura para uso concurrente;
+ * {@link #mayores(int, ToLongFunction, Comparator)} entrega un colector que usa una por hilo y luego las combina.
+ * @param <T> Tipo de los elementos.
+ *
+ * @author Karla Santibáñez
+ */
+public class SeleccionTopK<T> {
+
+    private record Entrada<T>(long clave, T elemento) {}
+
+    private final int k;
+    private final Comparator<Entrada<T>> peorPrimero;
+    private final PriorityQueue<Entrada<T>> monticulo;
+
+    /**
+     * @param k Cantidad de elementos a conservar.
+     * @param desempate Orden entre elementos de igual clave; el menor según este orden queda más arriba.
+     */
+    public SeleccionTopK(int k, Comparator<? super T> desempate) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k no puede ser negativo: " + k);
+        }
+        this.k = k;
+        Comparator<Entrada<T>> porClave = Comparator.comparingLong(Entrada::clave);
+        this.peorPrimero = porClave.thenComparing(Entrada::elemento, desempate.reversed());
+        this.monticulo = new PriorityQueue<>(Math.max(1, Math.min(k, 1 << 16)), peorPrimero);
+    }
+
+    /**
+     * Considera un elemento.
+     * @param clave Clave del elemento; mayor es mejor.
+     * @param elemento Elemento.
+     */
+    public void ofrecer(long clave, T elemento) {
+        if (monticulo.size() < k) {
+            monticulo.add(new Entrada<>(clave, elemento));
+            return;
+        }
+        Entrada<T> peor = monticulo.peek();
+        if (peor == null || clave < peor.clave()) {
+            return; // Caso común: no supera al peor de los K, sin crear objetos
+        }
+        Entrada<T> nueva = new Entrada<>(clave, elemento);
+        if (peorPrimero.compare(nueva, peor) > 0) {
+            monticulo.poll();
+            monticulo.add(nueva);
+        }
+    }
+
+    /**
+     * Agrega a esta selección los elementos de otra.
+     * @param otra Selección con el mismo K.
+     * @return Esta selección.
+     */
+    public SeleccionTopK<T> combinar(SeleccionTopK<T> otra) {
+        for (Entrada<T> e : otra.monticulo) {
+            ofrecer(e.clave(), e.elemento());
+        }
+        return this;
+    }
+
+    /**
+     * Devuelve los elementos seleccionados de mayor a menor clave.
+     * @return Lista de a lo más K elementos.
+     */
+    public List<T> resultado() {
+        List<Entrada<T>> entradas = new ArrayList<>(monticulo);
+        entradas.sort(peorPrimero.reversed());
+        List<T> elementos = new ArrayList<>(entradas.size());
+        for (Entrada<T> e : entradas) {
+            elementos.add(e.elemento());
+        }
+        return elementos;
+    }
+
+    /**
+     * Colector de los K elementos con mayor clave, apto para streams paralelos.
+     * @param k Cantidad de elementos.
+     * @param clave Función que calcula la clave de cada elemento.
+     * @param desempate Orden entre elementos de igual clave.
+     * @return Colector que entrega los elementos de mayor a menor clave.
+     */
+    public static <T> Collector<T, ?, List<T>> mayores(int k, ToLongFunction<? super T> clave, Comparator<? super T> desempate) {
+        if (k == 0) {
+            return Collector.of(() -> null, (a, t) -> {}, (a, b) -> a, a -> Collections.emptyList());
+        }
+        return Collector.of(
+                () -> new SeleccionTopK<T>(k, desempate),
+                (seleccion, t) -> seleccion.ofrecer(clave.applyAsLong(t), t),
+                SeleccionTopK::combinar,
+                SeleccionTopK::resultado);
+    }
+}
@@ -0,0 +1,317 @@
+package org.duoc.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import org.duoc.models.*;
+
+/**
+ * Formato binario compacto para snapshots de la flota, pensado para reinicios rápidos.
+ * Contiene los mismos campos que el CSV, por lo que ambos formatos son intercambiables, y además
+ * las reservas vigentes de la agenda.
+ *
+ * Estructura del archivo:
+ * <ul>
+ *   <li>Cabecera de {@value #BYTES_CABECERA} bytes: número mágico, versión, cantidad de registros,
+ *       cantidad de cadenas, largo en bytes de la tabla de cadenas y checksum CRC32C del resto del archivo.</li>
+ *   <li>Tabla de cadenas: patentes, marcas y modelos sin repetir, cada una como largo (int) y bytes UTF-8;
+ *       el largo {@value #LARGO_NULO} representa una cadena nula (por ejemplo, un vehículo sin marca).</li>
+ *   <li>Registros de ancho fijo ({@value #BYTES_REGISTRO} bytes): tipo, índices de patente, marca y modelo
+ *       en la tabla de cadenas, días de arriendo, valor diario, puertas, año y capacidad.</li>
+ *   <li>Reservas (desde la versión 2): cantidad (int) y registros de {@value #BYTES_RESERVA} bytes con el índice
+ *       de la patente en la tabla de cadenas y los días de inicio y término (epoch day, long).</li>
+ * </ul>
+ * Los snapshots de la versión 1, sin reservas, se siguen leyendo.
+ *
+ * @author Karla Santibáñez
+ */
+public class SnapshotBinario {
+    /** Extensión de los archivos de snapshot binario. */
+    public static final String EXTENSION = ".dqr";
+
+    private static final int MAGICO = 0x44515242; // "DQRB"
+    private static final int VERSION = 2;
+    private static final int VERSION_SIN_RESERVAS = 1;
+    private static final int BYTES_CABECERA = 32;
+    private static final int BYTES_REGISTRO = 36;
+    private static final int BYTES_RESERVA = 20;
+    private static final byte TIPO_PASAJEROS = 1;
+    private static final byte TIPO_CARGA = 2;
+    private static final int BUFFER_ESCRITURA = 1 << 20;
+    private static final int LARGO_NULO = -1;
+
+    /**
+     * Tabla de cadenas en escritura: asigna un índice a cada cadena distinta (incluida la nula) y la escribe
+     * en el buffer la primera vez que aparece.
+     */
+    private static final class TablaCadenas {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final FileChannel canal;
+        private final ByteBuffer buffer;
+        private final CRC32C crc;
+        private long bytes;
+
+        TablaCadenas(FileChannel canal, ByteBuffer buffer, CRC32C crc) {
+            this.canal = canal;
+            this.buffer = buffer;
+            this.crc = crc;
+        }
+
+        int indice(String cadena) throws IOException {
+            Integer indice = indices.get(cadena);
+            if (indice != null) {
+                return indice;
+            }
+            byte[] utf8 = cadena == null ? new byte[0] : cadena.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < Integer.BYTES + utf8.length) {
+                vaciar(canal, buffer, crc);
+            }
+            if (buffer.remaining() < Integer.BYTES + utf8.length) {
+                throw new IOException("cadena demasiado larga: " + utf8.length + " bytes");
+            }
+            buffer.putInt(cadena == null ? LARGO_NULO : utf8.length).put(utf8);
+            bytes += Integer.BYTES + utf8.length;
+            indice = indices.size();
+            indices.put(cadena, indice);
+            return indice;
+        }
+    }
+
+    /**
+     * Indica si una ruta corresponde a un snapshot binario según su extensión.
+     * @param ruta Ruta del archivo.
+     * @return true si la ruta termina en {@value #EXTENSION}.
+     */
+    public static boolean esSnapshotBinario(String ruta) {
+        return ruta.endsWith(EXTENSION);
+    }
+
+    /**
+     * Escribe los vehículos en un snapshot binario, sin reservas.
+     * @param vehiculos Vehículos a guardar.
+     * @param ruta Ruta del archivo de destino.
+     * @throws IOException Si no se pudo escribir el archivo.
+     */
+    public static void escribir(Collection<Vehiculo> vehiculos, String ruta) throws IOException {
+        escribir(vehiculos, List.of(), ruta);
+    }
+
+    /**
+     * Escribe los vehículos y las reservas en un snapshot binario.
+     * @param vehiculos Vehículos a guardar.
+     * @param reservas Reservas vigentes a guardar.
+     * @param ruta Ruta del archivo de destino.
+     * @throws IOException Si no se pudo escribir el archivo.
+     */
+    public static void escribir(Collection<Vehiculo> vehiculos, Collection<Reserva> reservas, String ruta) throws IOException {
+        // Copia estable: la colección puede ser una vista concurrente que cambia entre pasadas
+        List<Vehiculo> lista = new ArrayList<>(vehiculos);
+        List<Reserva> listaReservas = new ArrayList<>(reservas);
+        CRC32C crc = new CRC32C();
+        try (FileChannel canal = FileChannel.open(Path.of(ruta), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_ESCRITURA);
+            canal.position(BYTES_CABECERA);
+
+            // Tabla de cadenas
+            TablaCadenas tabla = new TablaCadenas(canal, buffer, crc);
+            int[] registroCadenas = new int[lista.size() * 3];
+            for (int i = 0; i < lista.size(); i++) {
+                Vehiculo v = lista.get(i);
+                registroCadenas[i * 3] = tabla.indice(v.getPatente());
+                registroCadenas[i * 3 + 1] = tabla.indice(v.getMarca());
+                registroCadenas[i * 3 + 2] = tabla.indice(v.getModelo());
+            }
+            // La patente de una reserva es la del vehículo, así que normalmente ya está en la tabla
+            int[] patentesReservas = new int[listaReservas.size()];
+            for (int i = 0; i < listaReservas.size(); i++) {
+                patentesReservas[i] = tabla.indice(listaReservas.get(i).getPatente());
+            }
+
+            // Registros de ancho fijo
+            for (int i = 0; i < lista.size(); i++) {
+                Vehiculo v = lista.get(i);
+                if (buffer.remaining() < BYTES_REGISTRO) {
+                    vaciar(canal, buffer, crc);
+                }
+                int capacidad = 0;
+                byte tipo = TIPO_CARGA;
+                if (v instanceof VehiculoPasajeros vp) {
+                    tipo = TIPO_PASAJEROS;
+                    capacidad = vp.getCapacidadPasajeros();
+                } else if (v instanceof VehiculoCarga vc) {
+                    capacidad = vc.getCapacidadCarga();
+                }
+                buffer.put(tipo).put((byte) 0).putShort((short) 0)
+                        .putInt(registroCadenas[i * 3])
+                        .putInt(registroCadenas[i * 3 + 1])
+                        .putInt(registroCadenas[i * 3 + 2])
+                        .putInt(v.getDiasArriendo())
+                        .putInt(v.getValorDiario())
+                        .putInt(v.getPuertas())
+                        .putInt(v.getAnio())
+                        .putInt(capacidad);
+            }
+
+            // Reservas
+            if (buffer.remaining() < Integer.BYTES) {
+                vaciar(canal, buffer, crc);
+            }
+            buffer.putInt(listaReservas.size());
+            for (int i = 0; i < listaReservas.size(); i++) {
+                Reserva r = listaReservas.get(i);
+                if (buffer.remaining() < BYTES_RESERVA) {
+                    vaciar(canal, buffer, crc);
+                }
+                buffer.putInt(patentesReservas[i]).putLong(r.getDesde().toEpochDay()).putLong(r.getHasta().toEpochDay());
+            }
+            vaciar(canal, buffer, crc);
+
+            ByteBuffer cabecera = ByteBuffer.allocate(BYTES_CABECERA);
+            cabecera.putInt(MAGICO).putInt(VERSION).putInt(lista.size()).putInt(tabla.indices.size())
+                    .putLong(tabla.bytes).putLong(crc.getValue()).flip();
+            while (cabecera.hasRemaining()) {
+                canal.write(cabecera, cabecera.position());
+            }
+            canal.force(true);
+        }
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Lee los vehículos de un snapshot binario mapeándolo en memoria, validando cabecera y checksum.
+     * @param ruta Ruta del archivo de origen.
+     * @return Lista de vehículos, en el orden en que fueron escritos.
+     * @throws IOException Si el archivo no existe, no es un snapshot válido o está corrupto.
+     */
+    public static List<Vehiculo> leer(String ruta) throws IOException {
+        return leer(ruta, r -> {});
+    }
+
+    /**
+     * Lee un snapshot binario mapeándolo en memoria, validando cabecera y checksum.
+     * @param ruta Ruta del archivo de origen.
+     * @param reservas Consumidor de las reservas guardadas, que se entregan después de leer todos los vehículos.
+     * @return Lista de vehículos, en el orden en que fueron escritos.
+     * @throws IOException Si el archivo no existe, no es un snapshot válido o está corrupto.
+     */
+    public static List<Vehiculo> leer(String ruta, Consumer<Reserva> reservas) throws IOException {
+        try (FileChannel canal = FileChannel.open(Path.of(ruta), StandardOpenOption.READ)) {
+            if (canal.size() < BYTES_CABECERA) {
+                throw new IOException("snapshot incompleto: " + ruta);
+            }
+            ByteBuffer cabecera = ByteBuffer.allocate(BYTES_CABECERA);
+            while (cabecera.hasRemaining() && canal.read(cabecera, cabecera.position()) > 0) {
+                // lee la cabecera completa
+            }
+            cabecera.flip();
+            if (cabecera.getInt() != MAGICO) {
+                throw new IOException("no es un snapshot binario de DriveQuest: " + ruta);
+            }
+            int version = cabecera.getInt();
+            if (version != VERSION && version != VERSION_SIN_RESERVAS) {
+                throw new IOException("versión de snapshot no soportada: " + version);
+            }
+            int registros = cabecera.getInt();
+            int cantidadCadenas = cabecera.getInt();
+            long bytesCadenas = cabecera.getLong();
+            long checksum = cabecera.getLong();
+            long bytesRegistros = (long) registros * BYTES_REGISTRO;
+            long inicioReservas = BYTES_CABECERA + bytesCadenas + bytesRegistros;
+            long bytesReservas = version == VERSION_SIN_RESERVAS ? 0 : canal.size() - inicioReservas;
+            if (registros < 0 || cantidadCadenas < 0 || bytesCadenas < 0 || bytesReservas < 0
+                    || (version == VERSION_SIN_RESERVAS && inicioReservas != canal.size())
+                    || (version != VERSION_SIN_RESERVAS && (bytesReservas < Integer.BYTES
+                        || (bytesReservas - Integer.BYTES) % BYTES_RESERVA != 0))) {
+                throw new IOException("tamaño de snapshot inconsistente con su cabecera: " + ruta);
+            }
+
+            MappedByteBuffer tabla = mapear(canal, BYTES_CABECERA, bytesCadenas);
+            MappedByteBuffer datos = mapear(canal, BYTES_CABECERA + bytesCadenas, bytesRegistros);
+            MappedByteBuffer seccionReservas = mapear(canal, inicioReservas, bytesReservas);
+            CRC32C crc = new CRC32C();
+            crc.update(tabla.duplicate());
+            crc.update(datos.duplicate());
+            crc.update(seccionReservas.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException("checksum inválido, el snapshot está corrupto: " + ruta);
+            }
+
+            String[] cadenas = new String[cantidadCadenas];
+            byte[] auxiliar = new byte[64];
+            for (int i = 0; i < cantidadCadenas; i++) {
+                int largo = tabla.remaining() < Integer.BYTES ? Integer.MIN_VALUE : tabla.getInt();
+                if (largo == LARGO_NULO) {
+                    continue;
+                }
+                if (largo < 0 || largo > tabla.remaining()) {
+                    throw new IOException("tabla de cadenas inconsistente con la cabecera: " + ruta);
+                }
+                if (auxiliar.length < largo) {
+                    auxiliar = new byte[largo];
+                }
+                tabla.get(auxiliar, 0, largo);
+                cadenas[i] = new String(auxiliar, 0, largo, StandardCharsets.UTF_8);
+            }
+
+            List<Vehiculo> vehiculos = new ArrayList<>(registros);
+            for (int i = 0; i < registros; i++) {
+                byte tipo = datos.get();
+                datos.position(datos.position() + 3);
+                String patente = cadenas[datos.getInt()];
+                String marca = cadenas[datos.getInt()];
+                String modelo = cadenas[datos.getInt()];
+                int diasArriendo = datos.getInt();
+                int valorDiario = datos.getInt();
+                int puertas = datos.getInt();
+                int anio = datos.getInt();
+                int capacidad = datos.getInt();
+                vehiculos.add(tipo == TIPO_PASAJEROS
+                        ? new VehiculoPasajeros(patente, marca, modelo, diasArriendo, valorDiario, puertas, anio, capacidad)
+                        : new VehiculoCarga(patente, marca, modelo, diasArriendo, valorDiario, puertas, anio, capacidad));
+            }
+
+            if (bytesReservas > 0) {
+                int cantidadReservas = seccionReservas.getInt();
+                if ((long) cantidadReservas * BYTES_RESERVA != bytesReservas - Integer.BYTES) {
+                    throw new IOException("cantidad de reservas inconsistente con el tamaño del snapshot: " + ruta);
+                }
+                for (int i = 0; i < cantidadReservas; i++) {
+                    String patente = cadenas[seccionReservas.getInt()];
+                    LocalDate desde = LocalDate.ofEpochDay(seccionReservas.getLong());
+                    LocalDate hasta = LocalDate.ofEpochDay(seccionReservas.getLong());
+                    reservas.accept(new Reserva(patente, desde, hasta));
+                }
+            }
+            return vehiculos;
+        }
+    }
+
+    private static MappedByteBuffer mapear(FileChannel canal, long posicion, long largo) throws IOException {
+        if (largo > Integer.MAX_VALUE) {
+            throw new IOException("sección de snapshot mayor a 2 GB, no se puede mapear");
+        }
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+    }
+}
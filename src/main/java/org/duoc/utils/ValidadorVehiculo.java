@@ -0,0 +1,80 @@
+package org.duoc.utils;
+
+import java.time.Year;
+
+import org.duoc.models.Vehiculo;
+import org.duoc.models.VehiculoCarga;
+import org.duoc.models.VehiculoPasajeros;
+
+/**
+ * Reglas de validación de los datos de un vehículo nuevo, compartidas por la consola y el servidor HTTP.
+ * Cada método devuelve el mensaje de error para el usuario, o null si el dato es válido.
+ *
+ * @author Karla Santibáñez
+ */
+public class ValidadorVehiculo {
+    public static final int ANIO_MINIMO = 1900;
+
+    private ValidadorVehiculo() {}
+
+    public static String validarPatente(String patente) {
+        if (patente == null || patente.isBlank()) {
+            return "La patente no puede estar vacía.";
+        }
+        int largo = patente.trim().length();
+        if (largo < CodificadorPatente.LARGO_MINIMO || largo > CodificadorPatente.LARGO_MAXIMO) {
+            return "La patente debe tener entre 6 y 8 caracteres.";
+        }
+        return null;
+    }
+
+    public static String validarMarca(String marca) {
+        return marca == null || marca.isBlank() ? "La marca no puede estar vacía." : null;
+    }
+
+    public static String validarModelo(String modelo) {
+        return modelo == null || modelo.isBlank() ? "El modelo no puede estar vacío." : null;
+    }
+
+    public static String validarValorDiario(int valorDiario) {
+        return valorDiario <= 0 ? "El valor diario debe ser mayor a cero." : null;
+    }
+
+    public static String validarPuertas(int puertas) {
+        return puertas <= 0 ? "El número de puertas debe ser mayor a cero." : null;
+    }
+
+    public static String validarAnio(int anio) {
+        return anio < ANIO_MINIMO || anio > Year.now().getValue() ? "El año debe estar entre 1900 y el actual." : null;
+    }
+
+    public static String validarCapacidad(int capacidad, boolean pasajeros) {
+        if (capacidad > 0) {
+            return null;
+        }
+        return pasajeros ? "La capacidad de pasajeros debe ser mayor a cero."
+                : "La capacidad de carga debe ser mayor a cero.";
+    }
+
+    /**
+     * Valida un vehículo completo antes de agregarlo a la flota. Un vehículo nuevo entra disponible,
+     * igual que en la consola, que no pregunta los días de arriendo.
+     * @param v Vehículo a validar.
+     * @return Mensaje del primer dato inválido, o null si el vehículo puede agregarse.
+     */
+    public static String validarNuevo(Vehiculo v) {
+        if (v == null) {
+            return "El vehículo no puede ser nulo.";
+        }
+        String error = validarPatente(v.getPatente());
+        if (error == null) error = validarMarca(v.getMarca());
+        if (error == null) error = validarModelo(v.getModelo());
+        if (error == null && v.getDiasArriendo() != 0) error = "Un vehículo nuevo no puede estar arrendado.";
+        if (error == null) error = validarValorDiario(v.getValorDiario());
+        if (error == null) error = validarPuertas(v.getPuertas());
+        if (error == null) error = validarAnio(v.getAnio());
+        if (error == null && v instanceof VehiculoPasajeros p) error = validarCapacidad(p.getCapacidadPasajeros(), true);
+        if (error == null && v instanceof VehiculoCarga c) error = validarCapacidad(c.getCapacidadCarga(), false);
+        return error;
+    }
+}